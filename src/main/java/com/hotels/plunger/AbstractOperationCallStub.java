@@ -31,8 +31,10 @@ abstract class AbstractOperationCallStub<C> implements OperationCall<C> {
   private C context;
   private final Fields argumentFields;
   private final Fields declaredFields;
+  private final TupleEntry outputEntry;
+  private OutputSink outputSink = OutputSinks.retainAll();
+  private long outputCount;
 
-  final List<TupleEntry> collected = new ArrayList<TupleEntry>();
   final TupleEntryCollector collector = new TupleEntryCollector() {
 
     @Override
@@ -40,7 +42,13 @@ abstract class AbstractOperationCallStub<C> implements OperationCall<C> {
       if (tuple.size() != getDeclaredFields().size()) {
         throw new IllegalArgumentException("Tuple size != declared fields size: " + tuple + ", " + getDeclaredFields());
       }
-      collected.add(new TupleEntry(getDeclaredFields(), new Tuple(tuple)));
+      outputCount++;
+      if (tuple.isUnmodifiable()) {
+        outputSink.collect(new TupleEntry(getDeclaredFields(), new Tuple(tuple)));
+      } else {
+        outputEntry.setTuple(tuple);
+        outputSink.collect(outputEntry);
+      }
     }
 
     @Override
@@ -49,13 +57,15 @@ abstract class AbstractOperationCallStub<C> implements OperationCall<C> {
         throw new IllegalArgumentException("Collected fields != declared fields: " + tupleEntry.getFields() + ", "
             + getDeclaredFields());
       }
-      collected.add(new TupleEntry(tupleEntry));
+      outputCount++;
+      outputSink.collect(tupleEntry);
     }
   };
 
   AbstractOperationCallStub(Fields argumentFields, Fields declaredFields) {
     this.argumentFields = argumentFields;
     this.declaredFields = declaredFields;
+    outputEntry = new TupleEntry(declaredFields, Tuple.size(declaredFields.size()));
   }
 
   @Override
@@ -81,16 +91,36 @@ abstract class AbstractOperationCallStub<C> implements OperationCall<C> {
     return collector;
   }
 
+  /** The number of tuples collected from the operation since this stub was built or last reset. */
+  public long getOutputCount() {
+    return outputCount;
+  }
+
   /**
    * Returns the data captured by this stub as a {@link Data} instance which enables further sorting, filtering, and
    * transformation.
    */
   public Data result() {
     List<Tuple> output = new ArrayList<Tuple>();
-    for (TupleEntry entry : collected) {
+    for (TupleEntry entry : outputSink.getRetained()) {
       output.add(entry.getTupleCopy());
     }
     return new Data(declaredFields, Collections.unmodifiableList(output));
   }
 
+  /** Replaces the sink that receives the collected tuples. */
+  void setOutputSink(OutputSink outputSink) {
+    if (outputSink == null) {
+      throw new IllegalArgumentException("outputSink == null");
+    }
+    this.outputSink = outputSink;
+  }
+
+  /** Clears the context and any output so that the call stream can be replayed. */
+  void resetOutput() {
+    context = null;
+    outputSink.reset();
+    outputCount = 0L;
+  }
+
 }
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import cascading.flow.FlowProcess;
+import cascading.operation.Aggregator;
+
+/**
+ * JMH benchmark of an {@link Aggregator}. A single {@link AggregatorCallStub} that discards its output is built from
+ * {@link #newCallStubBuilder()}, and each invocation {@link AggregatorCallStub#reset() resets} and completes it. Every
+ * invocation therefore replays the same call stream, group by group, without allocation by the harness itself. See
+ * {@link OperationBenchmark} for how to run it.
+ */
+public abstract class AggregatorBenchmark<C> extends OperationBenchmark {
+
+  private AggregatorCallStub<C> stub;
+  private Aggregator<C> aggregator;
+
+  protected AggregatorBenchmark() {
+  }
+
+  /** Supplies the call stream that is replayed by each invocation, typically from {@link Plunger}. */
+  protected abstract AggregatorCallStub.Builder<C> newCallStubBuilder();
+
+  /** Supplies the operation under test. The same instance is used for every invocation in a trial. */
+  protected abstract Aggregator<C> newAggregator();
+
+  @Override
+  final int prepare() {
+    AggregatorCallStub.Builder<C> builder = newCallStubBuilder();
+    if (builder == null) {
+      throw new IllegalStateException("newCallStubBuilder() returned null");
+    }
+    stub = builder.discardOutput().build();
+    aggregator = newAggregator();
+    if (aggregator == null) {
+      throw new IllegalStateException("newAggregator() returned null");
+    }
+    return builder.tupleCount();
+  }
+
+  @Benchmark
+  public AggregatorCallStub<C> aggregate() {
+    return stub.reset().complete(FlowProcess.NULL, aggregator);
+  }
+
+}
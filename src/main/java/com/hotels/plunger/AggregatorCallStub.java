@@ -21,6 +21,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 
 import cascading.flow.FlowProcess;
 import cascading.operation.Aggregator;
@@ -39,14 +40,15 @@ import cascading.tuple.TupleEntry;
  */
 public final class AggregatorCallStub<C> extends AbstractOperationCallStub<C> implements AggregatorCall<C> {
 
-  private final Iterator<Entry<TupleEntry, List<TupleEntry>>> groupsIterator;
+  private final List<Entry<TupleEntry, List<TupleEntry>>> groups;
+  private int groupPosition;
   private Iterator<TupleEntry> valuesIterator;
   private TupleEntry currentArguments;
   private TupleEntry currentGroup;
 
   private AggregatorCallStub(Fields argumentFields, Fields declaredFields, Map<TupleEntry, List<TupleEntry>> map) {
     super(argumentFields, declaredFields);
-    groupsIterator = map.entrySet().iterator();
+    groups = new ArrayList<Entry<TupleEntry, List<TupleEntry>>>(map.entrySet());
   }
 
   @Override
@@ -67,15 +69,31 @@ public final class AggregatorCallStub<C> extends AbstractOperationCallStub<C> im
 
   /** Advances to the next group */
   public AggregatorCallStub<C> nextGroup() {
-    Entry<TupleEntry, List<TupleEntry>> next = groupsIterator.next();
+    if (groupPosition >= groups.size()) {
+      throw new NoSuchElementException();
+    }
+    Entry<TupleEntry, List<TupleEntry>> next = groups.get(groupPosition++);
     currentGroup = next.getKey();
     valuesIterator = next.getValue().iterator();
     return this;
   }
 
+  /**
+   * Rewinds this stub to the first group and clears the context and collected output, so that the same call stream can
+   * be replayed without rebuilding the input tuples.
+   */
+  public AggregatorCallStub<C> reset() {
+    resetOutput();
+    groupPosition = 0;
+    currentGroup = null;
+    currentArguments = null;
+    valuesIterator = null;
+    return this;
+  }
+
   /** Processes the groups with the provided {@link Aggregator}. */
   public AggregatorCallStub<C> complete(FlowProcess<?> flowProcess, Aggregator<C> aggregator) {
-    while (groupsIterator.hasNext()) {
+    while (groupPosition < groups.size()) {
       aggregator.prepare(flowProcess, this);
       aggregator.start(flowProcess, nextGroup());
       while (valuesIterator.hasNext()) {
@@ -94,6 +112,8 @@ public final class AggregatorCallStub<C> extends AbstractOperationCallStub<C> im
     private TupleEntry currentGroup;
     private List<TupleEntry> currentValues;
     private Fields outputFields;
+    private OutputSink outputSink;
+    private boolean discardOutput;
     private final Map<TupleEntry, List<TupleEntry>> map = new LinkedHashMap<TupleEntry, List<TupleEntry>>();
 
     Builder(Fields groupFields, Fields nonGroupFields) {
@@ -116,6 +136,31 @@ public final class AggregatorCallStub<C> extends AbstractOperationCallStub<C> im
       return this;
     }
 
+    /**
+     * Only count the tuples collected from the aggregator, rather than retaining them for {@link #result()}. Useful
+     * when replaying large call streams. Like {@code output(OutputSinks.countOnly())}, but each stub built gets its
+     * own sink.
+     */
+    public Builder<C> discardOutput() {
+      outputSink = null;
+      discardOutput = true;
+      return this;
+    }
+
+    /**
+     * Specify how the tuples collected from the aggregator are retained, see {@link OutputSinks}. The sink is used by
+     * every stub subsequently built by this builder, so supply a new sink before building another stub whose output
+     * must be kept separate. By default each stub gets its own {@link OutputSinks#retainAll() retainAll} sink.
+     */
+    public Builder<C> output(OutputSink outputSink) {
+      if (outputSink == null) {
+        throw new IllegalArgumentException("outputSink == null");
+      }
+      this.outputSink = outputSink;
+      discardOutput = false;
+      return this;
+    }
+
     /** Creates a new group in the stub record sequence. */
     public Builder<C> newGroup(Object... values) {
       values = FieldTypeValidator.validateValues(groupFields, values);
@@ -136,11 +181,21 @@ public final class AggregatorCallStub<C> extends AbstractOperationCallStub<C> im
       return this;
     }
 
+    /** Returns the sink for a newly built stub, default sinks are never shared between stubs. */
+    private OutputSink newOutputSink() {
+      if (outputSink != null) {
+        return outputSink;
+      }
+      return discardOutput ? OutputSinks.countOnly() : OutputSinks.retainAll();
+    }
+
     /** Builds the stub instance. */
     public AggregatorCallStub<C> build() {
       Fields fields = outputFields != null ? outputFields : nonGroupFields;
       flush();
-      return new AggregatorCallStub<C>(nonGroupFields, fields, map);
+      AggregatorCallStub<C> stub = new AggregatorCallStub<C>(nonGroupFields, fields, map);
+      stub.setOutputSink(newOutputSink());
+      return stub;
     }
 
     private void flush() {
@@ -149,6 +204,16 @@ public final class AggregatorCallStub<C> extends AbstractOperationCallStub<C> im
       }
     }
 
+    /** The number of non-group tuples, across all groups, that each built stub will deliver. */
+    int tupleCount() {
+      flush();
+      int count = 0;
+      for (List<TupleEntry> values : map.values()) {
+        count += values.size();
+      }
+      return count;
+    }
+
   }
 
 }
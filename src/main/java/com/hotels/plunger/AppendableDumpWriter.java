@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Writes {@link Dump} output as tab separated text to an {@link Appendable}, each line starting with the prefix.
+ */
+final class AppendableDumpWriter implements DumpWriter {
+
+  private final Appendable out;
+  private final String prefix;
+  private final boolean closeOut;
+
+  AppendableDumpWriter(Appendable out, String prefix) {
+    this(out, prefix, false);
+  }
+
+  /** @param closeOut whether closing this writer should also close the {@link Appendable}, if it is closeable. */
+  AppendableDumpWriter(Appendable out, String prefix, boolean closeOut) {
+    this.out = out;
+    this.prefix = prefix;
+    this.closeOut = closeOut;
+  }
+
+  @Override
+  public void writeHeader(Fields fields) throws IOException {
+    out.append(prefix);
+    for (Comparable<?> value : fields) {
+      out.append(value.toString());
+      out.append('\t');
+    }
+    out.append('\n');
+  }
+
+  @Override
+  public void writeRow(TupleEntry entry) throws IOException {
+    out.append(prefix);
+    for (String value : entry.asIterableOf(String.class)) {
+      out.append(value);
+      out.append('\t');
+    }
+    out.append('\n');
+  }
+
+  @Override
+  public void writeNote(String note) throws IOException {
+    out.append(prefix);
+    out.append("# ");
+    out.append(note);
+    out.append('\n');
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (out instanceof Flushable) {
+      ((Flushable) out).flush();
+    }
+  }
+
+  /** Flushes, the underlying {@link Appendable} is left open unless this writer owns it. */
+  @Override
+  public void close() throws IOException {
+    flush();
+    if (closeOut && out instanceof Closeable) {
+      ((Closeable) out).close();
+    }
+  }
+
+}
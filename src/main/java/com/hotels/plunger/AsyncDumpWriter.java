@@ -0,0 +1,307 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Hands {@link Dump} output off to a bounded queue that is drained into a delegate {@link DumpWriter} by a background
+ * thread, so that formatting and I/O happen off the flow thread. Rows are copied when queued. When the queue is full
+ * rows are handled according to the {@link DumpOptions.Overflow} policy, headers and notes are always queued. The
+ * number of dropped rows is noted when the writer is closed.
+ * <p/>
+ * Writers {@link #forStream(PrintStream, String, int, DumpOptions.Overflow, int) created for a stream} share one queue,
+ * thread and buffer with every other open writer for that stream, so output queued by one call is written before
+ * output queued after it by another and lines are never split.
+ */
+final class AsyncDumpWriter implements DumpWriter {
+
+  private static final Object FLUSH = new Object();
+  private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** Guarded by itself. */
+  private static final Map<PrintStream, Channel> CHANNELS = new IdentityHashMap<PrintStream, Channel>();
+
+  private final Channel channel;
+  private final DumpWriter delegate;
+  private final DumpOptions.Overflow overflow;
+  private final int sampleInterval;
+  private long overflowed;
+  private long dropped;
+  private boolean closed;
+
+  /**
+   * Creates a writer with its own queue and thread.
+   *
+   * @param sampleInterval when the policy is {@link DumpOptions.Overflow#SAMPLE SAMPLE}, one in this many rows
+   *          arriving while the queue is full is queued, waiting for space, and the rest are dropped.
+   */
+  AsyncDumpWriter(DumpWriter delegate, int capacity, DumpOptions.Overflow overflow, int sampleInterval) {
+    this(new Channel(null, capacity), delegate, overflow, sampleInterval);
+  }
+
+  private AsyncDumpWriter(Channel channel, DumpWriter delegate, DumpOptions.Overflow overflow, int sampleInterval) {
+    this.channel = channel;
+    this.delegate = delegate;
+    this.overflow = overflow;
+    this.sampleInterval = sampleInterval;
+  }
+
+  /**
+   * Returns a writer of tab separated text to the stream that shares its queue and thread with the other open writers
+   * for the same stream. The queue is created with the capacity requested by the first of them.
+   */
+  static AsyncDumpWriter forStream(PrintStream stream, String prefix, int capacity, DumpOptions.Overflow overflow,
+      int sampleInterval) {
+    synchronized (CHANNELS) {
+      Channel channel = CHANNELS.get(stream);
+      if (channel == null) {
+        channel = new Channel(stream, capacity);
+        CHANNELS.put(stream, channel);
+      } else {
+        channel.writers++;
+      }
+      return new AsyncDumpWriter(channel, new AppendableDumpWriter(channel.out, prefix), overflow, sampleInterval);
+    }
+  }
+
+  @Override
+  public void writeHeader(Fields fields) throws IOException {
+    put(fields);
+  }
+
+  @Override
+  public void writeRow(TupleEntry entry) throws IOException {
+    channel.checkFailure();
+    switch (overflow) {
+    case BLOCK:
+      put(new TupleEntry(entry));
+      break;
+    case DROP:
+      if (!offer(entry)) {
+        dropped++;
+      }
+      break;
+    case SAMPLE:
+      if (!offer(entry)) {
+        if (++overflowed % sampleInterval == 0) {
+          put(new TupleEntry(entry));
+        } else {
+          dropped++;
+        }
+      }
+      break;
+    default:
+      throw new IllegalStateException("Unknown overflow policy: " + overflow);
+    }
+  }
+
+  @Override
+  public void writeNote(String note) throws IOException {
+    put(note);
+  }
+
+  /** Requests that the background thread flushes the delegate once it has written the rows queued so far. */
+  @Override
+  public void flush() throws IOException {
+    put(FLUSH);
+  }
+
+  /**
+   * Waits for the output queued by this writer to be written, then closes the delegate. The background thread stops
+   * once the last writer sharing it is closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (dropped > 0) {
+        put(dropped + " row(s) dropped, the dump buffer was full");
+      }
+      // Queued even after a failure, so that the delegate is always closed
+      CountDownLatch written = new CountDownLatch(1);
+      channel.put(new Item(delegate, written));
+      try {
+        written.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for dump output to be written");
+      }
+    } finally {
+      channel.release();
+    }
+    channel.checkFailure();
+  }
+
+  long getDroppedCount() {
+    return dropped;
+  }
+
+  private boolean offer(TupleEntry entry) {
+    return channel.queue.remainingCapacity() > 0 && channel.queue.offer(new Item(delegate, new TupleEntry(entry)));
+  }
+
+  private void put(Object payload) throws IOException {
+    channel.checkFailure();
+    channel.put(new Item(delegate, payload));
+  }
+
+  /** An item of output and the writer that formats it. */
+  private static final class Item {
+    private final DumpWriter target;
+    private final Object payload;
+
+    private Item(DumpWriter target, Object payload) {
+      this.target = target;
+      this.payload = payload;
+    }
+  }
+
+  /** A queue drained by one background thread, shared by the writers for a stream. */
+  private static final class Channel implements Runnable {
+    private static final Item END = new Item(null, null);
+
+    private final PrintStream stream;
+    private final BufferedWriter out;
+    private final BlockingQueue<Item> queue;
+    private final Thread thread;
+    private volatile IOException failure;
+    /** Guarded by {@link AsyncDumpWriter#CHANNELS}. */
+    private int writers = 1;
+
+    /** @param stream the stream written by the writers sharing this channel, or {@code null} if it is not shared. */
+    private Channel(PrintStream stream, int capacity) {
+      this.stream = stream;
+      out = stream == null ? null : new BufferedWriter(new OutputStreamWriter(stream, Charset.defaultCharset()),
+          BUFFER_SIZE);
+      queue = new ArrayBlockingQueue<Item>(capacity);
+      thread = new Thread(this, "plunger-dump-writer");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    private void put(Item item) throws IOException {
+      try {
+        queue.put(item);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for space in the dump buffer");
+      }
+    }
+
+    /** Stops the background thread once the last writer has released the channel. */
+    private void release() throws IOException {
+      synchronized (CHANNELS) {
+        if (--writers > 0) {
+          return;
+        }
+        if (stream != null) {
+          CHANNELS.remove(stream);
+        }
+      }
+      put(END);
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for dump output to be written");
+      }
+    }
+
+    private void checkFailure() throws IOException {
+      if (failure != null) {
+        throw new IOException("Unable to write dump output", failure);
+      }
+    }
+
+    /**
+     * Writes queued items until the end marker is taken. After a failure items are discarded so that producers never
+     * block, but writers are still closed and released.
+     */
+    @Override
+    public void run() {
+      long lastFlush = System.nanoTime();
+      while (true) {
+        Item item;
+        try {
+          item = queue.take();
+        } catch (InterruptedException e) {
+          failure = new InterruptedIOException("Dump writer interrupted");
+          return;
+        }
+        if (item == END) {
+          return;
+        }
+        if (item.payload instanceof CountDownLatch) {
+          close(item.target, (CountDownLatch) item.payload);
+          continue;
+        }
+        if (failure != null) {
+          continue;
+        }
+        try {
+          if (item.payload == FLUSH) {
+            item.target.flush();
+          } else if (item.payload instanceof TupleEntry) {
+            item.target.writeRow((TupleEntry) item.payload);
+          } else if (item.payload instanceof Fields) {
+            item.target.writeHeader((Fields) item.payload);
+          } else {
+            item.target.writeNote((String) item.payload);
+          }
+          if (queue.isEmpty() && System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+            // Make output visible periodically when the writer catches up, rather than only when the buffer fills
+            item.target.flush();
+            lastFlush = System.nanoTime();
+          }
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+    }
+
+    private void close(DumpWriter target, CountDownLatch written) {
+      try {
+        target.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      } finally {
+        written.countDown();
+      }
+    }
+  }
+
+}
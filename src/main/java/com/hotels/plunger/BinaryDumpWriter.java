@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Writes {@link Dump} output as a sequence of tagged records: the header {@link Fields}, rows encoded with
+ * {@link TupleCodec}, and notes. Values are not converted to strings, so the output can be read back as {@link Data}
+ * by {@link DumpFiles}.
+ */
+final class BinaryDumpWriter implements DumpWriter {
+
+  static final byte HEADER = 1;
+  static final byte ROW = 2;
+  static final byte NOTE = 3;
+
+  private final DataOutputStream out;
+
+  BinaryDumpWriter(DataOutputStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void writeHeader(Fields fields) throws IOException {
+    out.writeByte(HEADER);
+    TupleCodec.writeValue(out, fields);
+  }
+
+  @Override
+  public void writeRow(TupleEntry entry) throws IOException {
+    out.writeByte(ROW);
+    TupleCodec.writeTuple(out, entry.getTuple());
+  }
+
+  @Override
+  public void writeNote(String note) throws IOException {
+    out.writeByte(NOTE);
+    TupleCodec.writeString(out, note);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  /** Closes the underlying stream. */
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package com.hotels.plunger;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,9 +34,9 @@ import cascading.tuple.TupleEntryIterator;
 
 /**
  * A {@link Tap} implementation for sinking small volumes of {@link Tuple Tuples} to a {@link List} to later inspection
- * and assertion in unit tests.
+ * and assertion in unit tests. Larger volumes can be spilled to disk by supplying {@link BucketOptions}.
  */
-public class Bucket extends Tap<Properties, Iterator<Tuple>, List<Tuple>> implements LastModifiedCallback {
+public class Bucket extends Tap<Properties, Iterator<Tuple>, List<Tuple>> implements LastModifiedCallback, Closeable {
 
   private static final long serialVersionUID = 1L;
   private final String id;
@@ -43,19 +44,28 @@ public class Bucket extends Tap<Properties, Iterator<Tuple>, List<Tuple>> implem
   private long lastModified;
   private boolean created = false;
   private final PlungerFlow flow;
+  private transient Data.ViewCache viewCache;
 
   /**
    * Constructs a new tuple sink for the given {@link PlungerFlow}, that will capture {@link Tuple Tuples} from the
    * pipe, which must contain values consistent with the declared {@link Fields}.
    */
   Bucket(Fields fields, Pipe pipe, PlungerFlow flow) {
+    this(fields, pipe, flow, BucketOptions.inMemory());
+  }
+
+  /**
+   * Constructs a new tuple sink for the given {@link PlungerFlow} that retains the captured {@link Tuple Tuples} as
+   * described by the supplied {@link BucketOptions}.
+   */
+  Bucket(Fields fields, Pipe pipe, PlungerFlow flow, BucketOptions options) {
     super(new TupleScheme(fields));
     if (flow.isComplete()) {
       throw new IllegalStateException(
           "You've already wielded your plunger! Create all of your buckets before calling result() on any one of them.");
     }
     this.flow = flow;
-    output = new ArrayList<Tuple>();
+    output = options.newOutput(fields);
     id = getClass().getSimpleName() + ":" + UUID.randomUUID().toString();
     flow.getFlowDef().addTailSink(pipe, this);
     modified();
@@ -129,6 +139,10 @@ public class Bucket extends Tap<Properties, Iterator<Tuple>, List<Tuple>> implem
   @Override
   public void modified() {
     lastModified = System.currentTimeMillis();
+    if (viewCache != null) {
+      // Writers report here when they open and close, the output may be rewritten without changing its size
+      viewCache.invalidate();
+    }
   }
 
   /**
@@ -139,7 +153,24 @@ public class Bucket extends Tap<Properties, Iterator<Tuple>, List<Tuple>> implem
     if (flow != null) {
       flow.completeIfRequired();
     }
-    return new Data(getSinkFields(), Collections.unmodifiableList(output));
+    if (viewCache == null) {
+      viewCache = new Data.ViewCache();
+    }
+    // Spilled output must remain recognisable so that it can be streamed
+    List<Tuple> tuples = output instanceof SpillingTupleList ? ((SpillingTupleList) output).unmodifiableView()
+        : Collections.unmodifiableList(output);
+    return new Data(getSinkFields(), tuples, viewCache);
+  }
+
+  /**
+   * Releases any resources held by this sink, deleting the temporary files of a bucket that spills to disk. The
+   * {@link #result()} cannot be read once closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (output instanceof Closeable) {
+      ((Closeable) output).close();
+    }
   }
 
   @Override
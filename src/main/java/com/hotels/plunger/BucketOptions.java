@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Options that control how a {@link Bucket} retains the {@link Tuple Tuples} it captures. By default all
+ * {@link Tuple Tuples} are held in memory. For large outputs a bucket can instead spill them to temporary files once a
+ * given number are held:
+ *
+ * <pre>
+ * Bucket bucket = plunger.newBucket(fields, tail, BucketOptions.spillToDisk(100000).sortedBy(new Fields(&quot;id&quot;)));
+ * ...
+ * bucket.close();
+ * </pre>
+ *
+ * The {@link Bucket#result() result} of a spilling bucket is read sequentially from disk each time it is iterated,
+ * unless it is {@link Data#orderBy(Fields...) ordered} by fields other than those it was sorted by. The temporary files
+ * are deleted when the bucket is {@link Bucket#close() closed}.
+ */
+public final class BucketOptions {
+
+  private final int maxTuplesInMemory;
+  private int expectedTuples;
+  private Fields sortFields;
+  private File directory;
+
+  private BucketOptions(int maxTuplesInMemory) {
+    this.maxTuplesInMemory = maxTuplesInMemory;
+  }
+
+  /** Returns options that hold every captured {@link Tuple} in memory. */
+  public static BucketOptions inMemory() {
+    return new BucketOptions(0);
+  }
+
+  /**
+   * Returns options that hold at most {@code maxTuplesInMemory} {@link Tuple Tuples} in memory, spilling them to
+   * temporary files in runs of that size.
+   */
+  public static BucketOptions spillToDisk(int maxTuplesInMemory) {
+    if (maxTuplesInMemory < 1) {
+      throw new IllegalArgumentException("maxTuplesInMemory < 1: " + maxTuplesInMemory);
+    }
+    return new BucketOptions(maxTuplesInMemory);
+  }
+
+  /**
+   * Sizes the in memory store for the expected number of {@link Tuple Tuples} up front, so that capturing a large
+   * output does not repeatedly copy it as the store grows. The store still grows if more {@link Tuple Tuples} arrive.
+   */
+  public BucketOptions expectedTuples(int expectedTuples) {
+    if (maxTuplesInMemory != 0) {
+      throw new IllegalStateException("Only applicable when holding all tuples in memory.");
+    }
+    if (expectedTuples < 0) {
+      throw new IllegalArgumentException("expectedTuples < 0: " + expectedTuples);
+    }
+    this.expectedTuples = expectedTuples;
+    return this;
+  }
+
+  /**
+   * Sorts each spilled run by the supplied {@link Fields} so that the result is presented in that order without
+   * having to be sorted in memory.
+   */
+  public BucketOptions sortedBy(Fields... fields) {
+    checkSpilling();
+    if (fields != null && fields.length > 0) {
+      sortFields = Fields.merge(fields);
+    }
+    return this;
+  }
+
+  /** Creates the temporary files in the supplied directory rather than the default temporary-file directory. */
+  public BucketOptions spillDirectory(File directory) {
+    checkSpilling();
+    if (directory == null || !directory.isDirectory()) {
+      throw new IllegalArgumentException("Not a directory: " + directory);
+    }
+    this.directory = directory;
+    return this;
+  }
+
+  List<Tuple> newOutput(Fields fields) {
+    if (maxTuplesInMemory == 0) {
+      return new ArrayList<Tuple>(expectedTuples);
+    }
+    return new SpillingTupleList(fields, maxTuplesInMemory, sortFields, directory);
+  }
+
+  private void checkSpilling() {
+    if (maxTuplesInMemory == 0) {
+      throw new IllegalStateException("Only applicable when spilling to disk.");
+    }
+  }
+
+}
@@ -21,6 +21,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 
 import cascading.flow.FlowProcess;
 import cascading.operation.Buffer;
@@ -39,14 +40,15 @@ import cascading.tuple.TupleEntry;
  */
 public final class BufferCallStub<C> extends AbstractOperationCallStub<C> implements BufferCall<C> {
 
-  private final Iterator<Entry<TupleEntry, List<TupleEntry>>> groupsIterator;
+  private final List<Entry<TupleEntry, List<TupleEntry>>> groups;
+  private int groupPosition;
   private Iterator<TupleEntry> valuesIterator;
   private TupleEntry currentGroup;
   private boolean retainValues;
 
   private BufferCallStub(Fields argumentFields, Fields declaredFields, Map<TupleEntry, List<TupleEntry>> map) {
     super(argumentFields, declaredFields);
-    groupsIterator = map.entrySet().iterator();
+    groups = new ArrayList<Entry<TupleEntry, List<TupleEntry>>>(map.entrySet());
   }
 
   @Override
@@ -76,15 +78,30 @@ public final class BufferCallStub<C> extends AbstractOperationCallStub<C> implem
 
   /** Advances to the next group. */
   public BufferCallStub<C> nextOperateCall() {
-    Entry<TupleEntry, List<TupleEntry>> next = groupsIterator.next();
+    if (groupPosition >= groups.size()) {
+      throw new NoSuchElementException();
+    }
+    Entry<TupleEntry, List<TupleEntry>> next = groups.get(groupPosition++);
     currentGroup = next.getKey();
     valuesIterator = next.getValue().iterator();
     return this;
   }
 
+  /**
+   * Rewinds this stub to the first group and clears the context and collected output, so that the same call stream can
+   * be replayed without rebuilding the input tuples.
+   */
+  public BufferCallStub<C> reset() {
+    resetOutput();
+    groupPosition = 0;
+    currentGroup = null;
+    valuesIterator = null;
+    return this;
+  }
+
   /** Processes the groups with the provided {@link Buffer}. */
   public BufferCallStub<C> complete(FlowProcess<?> flowProcess, Buffer<C> buffer) {
-    while (groupsIterator.hasNext()) {
+    while (groupPosition < groups.size()) {
       buffer.prepare(flowProcess, this);
       buffer.operate(flowProcess, nextOperateCall());
     }
@@ -99,6 +116,8 @@ public final class BufferCallStub<C> extends AbstractOperationCallStub<C> implem
     private TupleEntry currentGroup;
     private List<TupleEntry> currentValues;
     private Fields outputFields;
+    private OutputSink outputSink;
+    private boolean discardOutput;
     private final Map<TupleEntry, List<TupleEntry>> map = new LinkedHashMap<TupleEntry, List<TupleEntry>>();
 
     Builder(Fields groupFields, Fields nonGroupFields) {
@@ -121,6 +140,31 @@ public final class BufferCallStub<C> extends AbstractOperationCallStub<C> implem
       return this;
     }
 
+    /**
+     * Only count the tuples collected from the buffer, rather than retaining them for {@link #result()}. Useful when
+     * replaying large call streams. Like {@code output(OutputSinks.countOnly())}, but each stub built gets its own
+     * sink.
+     */
+    public Builder<C> discardOutput() {
+      outputSink = null;
+      discardOutput = true;
+      return this;
+    }
+
+    /**
+     * Specify how the tuples collected from the buffer are retained, see {@link OutputSinks}. The sink is used by
+     * every stub subsequently built by this builder, so supply a new sink before building another stub whose output
+     * must be kept separate. By default each stub gets its own {@link OutputSinks#retainAll() retainAll} sink.
+     */
+    public Builder<C> output(OutputSink outputSink) {
+      if (outputSink == null) {
+        throw new IllegalArgumentException("outputSink == null");
+      }
+      this.outputSink = outputSink;
+      discardOutput = false;
+      return this;
+    }
+
     /** Creates a new group in the stub record sequence. */
     public Builder<C> newGroup(Object... values) {
       values = FieldTypeValidator.validateValues(groupFields, values);
@@ -147,6 +191,24 @@ public final class BufferCallStub<C> extends AbstractOperationCallStub<C> implem
       }
     }
 
+    /** The number of non-group tuples, across all groups, that each built stub will deliver. */
+    int tupleCount() {
+      flush();
+      int count = 0;
+      for (List<TupleEntry> values : map.values()) {
+        count += values.size();
+      }
+      return count;
+    }
+
+    /** Returns the sink for a newly built stub, default sinks are never shared between stubs. */
+    private OutputSink newOutputSink() {
+      if (outputSink != null) {
+        return outputSink;
+      }
+      return discardOutput ? OutputSinks.countOnly() : OutputSinks.retainAll();
+    }
+
     /** Builds the stub instance. */
     public BufferCallStub<C> build() {
       Fields fields;
@@ -156,7 +218,9 @@ public final class BufferCallStub<C> extends AbstractOperationCallStub<C> implem
         fields = nonGroupFields;
       }
       flush();
-      return new BufferCallStub<C>(nonGroupFields, fields, map);
+      BufferCallStub<C> stub = new BufferCallStub<C>(nonGroupFields, fields, map);
+      stub.setOutputSink(newOutputSink());
+      return stub;
     }
 
   }
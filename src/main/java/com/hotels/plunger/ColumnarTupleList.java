@@ -0,0 +1,368 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * A {@link Tuple} list that stores its values column by column. Fields declared with an {@code int}, {@code long} or
+ * {@code double} type (or their boxed equivalents) are held in primitive arrays with a null bitmap, all other fields
+ * are held in an {@code Object[]}. {@link Tuple Tuples} are only materialized when an element is requested.
+ * <p/>
+ * Rows can only be appended. A {@link #snapshot() snapshot} shares the column arrays with the list that created it but
+ * is fixed at the size of the list when it was taken, so subsequent appends are never visible to it.
+ */
+final class ColumnarTupleList extends AbstractList<Tuple> implements RandomAccess {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Column[] columns;
+  private final boolean immutable;
+  private int size;
+
+  /** Creates an empty list whose column layout is derived from the supplied types. */
+  ColumnarTupleList(Fields fields, Class<?>[] types) {
+    if (types != null && types.length != fields.size()) {
+      throw new IllegalArgumentException("There must be the same number of types as fields");
+    }
+    columns = new Column[fields.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = newColumn(types == null ? null : types[i]);
+    }
+    immutable = false;
+  }
+
+  private ColumnarTupleList(Column[] columns, int size) {
+    this.columns = columns;
+    this.size = size;
+    immutable = true;
+  }
+
+  /** Materializes a new {@link Tuple} from the values held at the requested row. */
+  @Override
+  public Tuple get(int index) {
+    checkIndex(index);
+    Object[] values = new Object[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = columns[i].get(index);
+    }
+    return new Tuple(values);
+  }
+
+  /** Appends the values of the supplied {@link Tuple}, which must have one value per column. */
+  @Override
+  public boolean add(Tuple tuple) {
+    checkMutable();
+    if (tuple.size() != columns.length) {
+      throw new IllegalArgumentException("Tuple size != column count: " + tuple + ", " + columns.length);
+    }
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].set(size, tuple.getObject(i));
+    }
+    size++;
+    modCount++;
+    return true;
+  }
+
+  /** Appends a row of values, one per column. The array is not retained. */
+  void addRow(Object[] values) {
+    checkMutable();
+    if (values.length != columns.length) {
+      throw new IllegalArgumentException("values.length != column count: " + Arrays.toString(values) + ", "
+          + columns.length);
+    }
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].set(size, values[i]);
+    }
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns an immutable view of the rows currently held in this list, sharing the underlying column arrays. The
+   * arrays are first trimmed to the current size so that the snapshot does not retain spare capacity, a later append
+   * to this list grows them again.
+   */
+  ColumnarTupleList snapshot() {
+    Column[] views = new Column[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].trim(size);
+      views[i] = columns[i].view();
+    }
+    return new ColumnarTupleList(views, size);
+  }
+
+  /** Returns {@code true} if this list is a {@link #snapshot() snapshot}, which can never change. */
+  boolean isImmutable() {
+    return immutable;
+  }
+
+  /** Estimates the number of bytes retained by the column arrays of this list. */
+  long estimatedSizeInBytes() {
+    long bytes = 0L;
+    for (Column column : columns) {
+      bytes += column.estimatedSizeInBytes();
+    }
+    return bytes;
+  }
+
+  private void checkMutable() {
+    if (immutable) {
+      throw new UnsupportedOperationException("cannot add to a snapshot");
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  private static Column newColumn(Class<?> type) {
+    if (type == int.class || type == Integer.class) {
+      return new IntColumn();
+    }
+    if (type == long.class || type == Long.class) {
+      return new LongColumn();
+    }
+    if (type == double.class || type == Double.class) {
+      return new DoubleColumn();
+    }
+    return new ObjectColumn();
+  }
+
+  private static int grow(int capacity, int required) {
+    int newCapacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+    return Math.max(newCapacity, required);
+  }
+
+  /** A single column of values. */
+  private abstract static class Column {
+    abstract Object get(int row);
+
+    abstract void set(int row, Object value);
+
+    abstract Column view();
+
+    /** Shrinks the backing arrays to hold exactly the given number of rows. */
+    abstract void trim(int size);
+
+    abstract long estimatedSizeInBytes();
+  }
+
+  /** Base for columns of primitive values, tracks nulls in a bitmap. */
+  private abstract static class PrimitiveColumn extends Column {
+    long[] nulls = new long[0];
+
+    final boolean isNull(int row) {
+      int word = row >>> 6;
+      return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+    }
+
+    final void setNull(int row) {
+      int word = row >>> 6;
+      if (word >= nulls.length) {
+        nulls = Arrays.copyOf(nulls, grow(nulls.length, word + 1));
+      }
+      nulls[word] |= 1L << row;
+    }
+
+    final void trimNulls(int size) {
+      int words = (size + 63) >>> 6;
+      if (nulls.length > words) {
+        nulls = Arrays.copyOf(nulls, words);
+      }
+    }
+
+    final long nullsSizeInBytes() {
+      return nulls.length * 8L;
+    }
+  }
+
+  private static final class IntColumn extends PrimitiveColumn {
+    private int[] values = new int[0];
+
+    @Override
+    Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void set(int row, Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row + 1));
+      }
+      if (value == null) {
+        setNull(row);
+      } else {
+        values[row] = (Integer) value;
+      }
+    }
+
+    @Override
+    void trim(int size) {
+      if (values.length > size) {
+        values = Arrays.copyOf(values, size);
+      }
+      trimNulls(size);
+    }
+
+    @Override
+    Column view() {
+      IntColumn view = new IntColumn();
+      view.values = values;
+      view.nulls = nulls;
+      return view;
+    }
+
+    @Override
+    long estimatedSizeInBytes() {
+      return values.length * 4L + nullsSizeInBytes();
+    }
+  }
+
+  private static final class LongColumn extends PrimitiveColumn {
+    private long[] values = new long[0];
+
+    @Override
+    Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void set(int row, Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row + 1));
+      }
+      if (value == null) {
+        setNull(row);
+      } else {
+        values[row] = (Long) value;
+      }
+    }
+
+    @Override
+    void trim(int size) {
+      if (values.length > size) {
+        values = Arrays.copyOf(values, size);
+      }
+      trimNulls(size);
+    }
+
+    @Override
+    Column view() {
+      LongColumn view = new LongColumn();
+      view.values = values;
+      view.nulls = nulls;
+      return view;
+    }
+
+    @Override
+    long estimatedSizeInBytes() {
+      return values.length * 8L + nullsSizeInBytes();
+    }
+  }
+
+  private static final class DoubleColumn extends PrimitiveColumn {
+    private double[] values = new double[0];
+
+    @Override
+    Object get(int row) {
+      return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void set(int row, Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row + 1));
+      }
+      if (value == null) {
+        setNull(row);
+      } else {
+        values[row] = (Double) value;
+      }
+    }
+
+    @Override
+    void trim(int size) {
+      if (values.length > size) {
+        values = Arrays.copyOf(values, size);
+      }
+      trimNulls(size);
+    }
+
+    @Override
+    Column view() {
+      DoubleColumn view = new DoubleColumn();
+      view.values = values;
+      view.nulls = nulls;
+      return view;
+    }
+
+    @Override
+    long estimatedSizeInBytes() {
+      return values.length * 8L + nullsSizeInBytes();
+    }
+  }
+
+  private static final class ObjectColumn extends Column {
+    private Object[] values = new Object[0];
+
+    @Override
+    Object get(int row) {
+      return values[row];
+    }
+
+    @Override
+    void set(int row, Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, grow(values.length, row + 1));
+      }
+      values[row] = value;
+    }
+
+    @Override
+    void trim(int size) {
+      if (values.length > size) {
+        values = Arrays.copyOf(values, size);
+      }
+    }
+
+    @Override
+    Column view() {
+      ObjectColumn view = new ObjectColumn();
+      view.values = values;
+      return view;
+    }
+
+    /** Counts only the references, the referenced values are shared with the caller. */
+    @Override
+    long estimatedSizeInBytes() {
+      return values.length * 8L;
+    }
+  }
+
+}
@@ -15,14 +15,20 @@
  */
 package com.hotels.plunger;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Objects;
 
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
+import cascading.tuple.Tuples;
 
 public class Data {
 
@@ -30,10 +36,21 @@ public class Data {
   private Fields sortFields;
   private final Fields declaredFields;
   private Fields withFields = Fields.ALL;
+  private int parallelSortThreshold = TupleSorter.DEFAULT_PARALLEL_SORT_THRESHOLD;
+  private final ViewCache viewCache;
 
   Data(Fields declaredFields, List<Tuple> tuples) {
+    this(declaredFields, tuples, new ViewCache());
+  }
+
+  /**
+   * Creates a {@link Data} instance that shares its sorted and projected views with other instances holding the same
+   * tuples.
+   */
+  Data(Fields declaredFields, List<Tuple> tuples, ViewCache viewCache) {
     this.declaredFields = declaredFields;
     this.tuples = tuples;
+    this.viewCache = viewCache;
   }
 
   /**
@@ -47,6 +64,18 @@ public class Data {
     return this;
   }
 
+  /**
+   * Specifies the number of tuples at or above which {@link #orderBy(Fields...) ordering} may be performed in parallel.
+   * This affects only the time taken to sort, not the resulting order.
+   */
+  public Data parallelSortThreshold(int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold < 1: " + threshold);
+    }
+    parallelSortThreshold = threshold;
+    return this;
+  }
+
   /**
    * Specifies that the returned results be restricted to the specified {@link Fields}.
    */
@@ -65,39 +94,152 @@ public class Data {
   }
 
   /**
-   * Returns the result as a {@link Tuple} list.
+   * Returns the result as a {@link Tuple} list. The list and the {@link Tuple Tuples} it contains are unmodifiable and
+   * the same instance is returned on subsequent calls until the ordering or field selection is changed.
    */
   public List<Tuple> asTupleList() {
-    List<Tuple> sorted = new ArrayList<Tuple>(tuples);
+    synchronized (viewCache) {
+      viewCache.validate(sortFields, withFields, tuples.size());
+      if (viewCache.tupleList == null) {
+        viewCache.tupleList = createTupleList();
+      }
+      return viewCache.tupleList;
+    }
+  }
+
+  private List<Tuple> createTupleList() {
+    final Fields selectedFields = selectedFields();
+    // Resolve the projection once rather than per tuple, substitution fields can only be resolved by the tuple
+    final int[] positions = selectedFields.isDefined() ? declaredFields.getPos(selectedFields) : null;
+    if (isStreamable()) {
+      return new StreamingList<Tuple, Tuple>(tuples) {
+        @Override
+        Tuple transform(Tuple tuple) {
+          return project(tuple, selectedFields, positions);
+        }
+      };
+    }
+
+    Collection<Tuple> sorted = tuples;
     if (sortFields != null && sortFields.size() > 0) {
-      Collections.sort(sorted, new TupleComparator(declaredFields, sortFields));
+      sorted = Arrays.asList(new TupleSorter(declaredFields, sortFields, parallelSortThreshold).sort(tuples));
     }
-    Fields selectedFields = selectedFields();
     List<Tuple> selected = new ArrayList<Tuple>(sorted.size());
     for (Tuple tuple : sorted) {
-      Tuple filtered = new Tuple(tuple).remove(declaredFields, selectedFields);
-      selected.add(filtered);
+      selected.add(project(tuple, selectedFields, positions));
     }
     return Collections.unmodifiableList(selected);
   }
 
+  private Tuple project(Tuple tuple, Fields selectedFields, int[] positions) {
+    Tuple projected = positions == null ? new Tuple(tuple).remove(declaredFields, selectedFields) : tuple
+        .get(positions);
+    return Tuples.asUnmodifiable(projected);
+  }
+
   /**
-   * Returns the result as a {@link TupleEntry} list.
+   * Spilled tuples are streamed from disk rather than copied into memory, provided that they need not be reordered.
+   * Snapshot and columnar tuples are likewise projected as they are read when no ordering is requested.
+   */
+  private boolean isStreamable() {
+    if (tuples instanceof SnapshotTupleList) {
+      // Rows are decoded from the mapped snapshot on demand
+      return sortFields == null || sortFields.size() == 0;
+    }
+    if (tuples instanceof ColumnarTupleList && ((ColumnarTupleList) tuples).isImmutable()) {
+      // Rows are materialized from the columns on demand, caching a copy would hold a boxed Tuple per row
+      return sortFields == null || sortFields.size() == 0;
+    }
+    if (!(tuples instanceof SpillingTupleList.UnmodifiableView)) {
+      return false;
+    }
+    return sortFields == null || sortFields.size() == 0
+        || sortFields.equals(((SpillingTupleList.UnmodifiableView) tuples).getSortFields());
+  }
+
+  /**
+   * Returns the result as a {@link TupleEntry} list. The list and the {@link TupleEntry TupleEntries} it contains are
+   * unmodifiable and the same instance is returned on subsequent calls until the ordering or field selection is
+   * changed.
    */
   public List<TupleEntry> asTupleEntryList() {
-    List<Tuple> tuples = asTupleList();
-    Fields selectedFields = selectedFields();
-    List<TupleEntry> tupleEntries = new ArrayList<TupleEntry>(tuples.size());
-    for (Tuple tuple : tuples) {
-      tupleEntries.add(new TupleEntry(selectedFields, tuple, true));
+    synchronized (viewCache) {
+      List<Tuple> tuples = asTupleList();
+      if (viewCache.tupleEntryList == null) {
+        final Fields selectedFields = selectedFields();
+        if (isStreamable()) {
+          viewCache.tupleEntryList = new StreamingList<Tuple, TupleEntry>(tuples) {
+            @Override
+            TupleEntry transform(Tuple tuple) {
+              return new TupleEntry(selectedFields, tuple, true);
+            }
+          };
+          return viewCache.tupleEntryList;
+        }
+        List<TupleEntry> tupleEntries = new ArrayList<TupleEntry>(tuples.size());
+        for (Tuple tuple : tuples) {
+          tupleEntries.add(new TupleEntry(selectedFields, tuple, true));
+        }
+        viewCache.tupleEntryList = Collections.unmodifiableList(tupleEntries);
+      }
+      return viewCache.tupleEntryList;
     }
-    return Collections.unmodifiableList(tupleEntries);
   }
 
   public PrettyPrinter prettyPrinter() {
     return new PrettyPrinter(this);
   }
 
+  /**
+   * Returns {@code true} if the other instance contains the same tuples as this one, the same number of times, in any
+   * order. Only the {@link #withFields(Fields...) selected fields} are compared, and they must be the same on both
+   * instances. This takes linear time, so is much faster than comparing sorted views of large results. See
+   * {@link #diff(Data)}.
+   */
+  public boolean equalsIgnoreOrder(Data other) {
+    if (other == null || !selectedFields().equals(other.selectedFields())) {
+      return false;
+    }
+    return diff(other).isEmpty();
+  }
+
+  /**
+   * Compares the {@link #withFields(Fields...) selected fields} of this (actual) instance with those of the expected
+   * instance, ignoring the order of the tuples. The result lists only the tuples that are missing or unexpected, with
+   * their counts.
+   */
+  public DataDiff diff(Data expected) {
+    if (expected == null) {
+      throw new IllegalArgumentException("expected == null");
+    }
+    Fields selectedFields = selectedFields();
+    Fields expectedFields = expected.selectedFields();
+    if (!selectedFields.equals(expectedFields)) {
+      throw new IllegalArgumentException("Selected fields differ: " + selectedFields.print() + ", "
+          + expectedFields.print());
+    }
+    return DataDiff.compute(selectedFields, tuples, declaredFields.getPos(selectedFields), expected.tuples,
+        expected.declaredFields.getPos(selectedFields), expected.tuples.size());
+  }
+
+  /**
+   * Profiles the {@link #withFields(Fields...) selected fields} in a single pass over the tuples, reporting for each
+   * field the null ratio, the minimum and maximum values, an approximate distinct count, and the
+   * {@value DataProfile#DEFAULT_HEAVY_HITTERS} most frequent values. Any ordering is ignored.
+   */
+  public DataProfile profile() {
+    return profile(DataProfile.DEFAULT_HEAVY_HITTERS);
+  }
+
+  /** As {@link #profile()}, reporting the given number of most frequent values for each field. */
+  public DataProfile profile(int heavyHitters) {
+    if (heavyHitters < 0) {
+      throw new IllegalArgumentException("heavyHitters < 0: " + heavyHitters);
+    }
+    Fields selectedFields = selectedFields();
+    return DataProfile.profile(selectedFields, declaredFields.getPos(selectedFields), tuples, heavyHitters);
+  }
+
   /**
    * Returns the set of {@link Fields} selected on this result.
    */
@@ -146,4 +288,128 @@ public class Data {
     return new TupleListTap(declaredFields, tuples);
   }
 
+  /**
+   * An unmodifiable view that transforms the elements of a list as they are read, so that large lists need not be
+   * copied. Iteration follows the source's iterators, and random access costs the same as it does on the source.
+   */
+  private abstract static class StreamingList<S, T> extends AbstractList<T> {
+
+    private final List<S> source;
+
+    StreamingList(List<S> source) {
+      this.source = source;
+    }
+
+    abstract T transform(S element);
+
+    @Override
+    public T get(int index) {
+      return transform(source.get(index));
+    }
+
+    @Override
+    public int size() {
+      return source.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+      final ListIterator<S> iterator = source.listIterator(index);
+      return new ListIterator<T>() {
+
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+          return transform(iterator.next());
+        }
+
+        @Override
+        public boolean hasPrevious() {
+          return iterator.hasPrevious();
+        }
+
+        @Override
+        public T previous() {
+          return transform(iterator.previous());
+        }
+
+        @Override
+        public int nextIndex() {
+          return iterator.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+          return iterator.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(T element) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(T element) {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+
+  /**
+   * Holds the most recently requested sorted and projected views of a set of tuples. The views are discarded when the
+   * ordering, field selection, or number of tuples differs from that with which they were created, or when the owner
+   * of the tuples {@link #invalidate() reports} that they have been modified.
+   */
+  static final class ViewCache {
+
+    private Fields sortFields;
+    private Fields withFields;
+    private int size = -1;
+    private List<Tuple> tupleList;
+    private List<TupleEntry> tupleEntryList;
+
+    private void validate(Fields sortFields, Fields withFields, int size) {
+      if (this.size != size || !Objects.equals(this.sortFields, sortFields) || !sameFields(this.withFields, withFields)) {
+        this.sortFields = sortFields;
+        this.withFields = withFields;
+        this.size = size;
+        tupleList = null;
+        tupleEntryList = null;
+      }
+    }
+
+    /** Discards the cached views, the tuples may have changed without a change in their number. */
+    synchronized void invalidate() {
+      size = -1;
+      tupleList = null;
+      tupleEntryList = null;
+    }
+
+    // Fields.equals() does not distinguish the substitution fields from each other
+    private static boolean sameFields(Fields a, Fields b) {
+      if (a == b) {
+        return true;
+      }
+      if (a == null || b == null || a.isSubstitution() || b.isSubstitution()) {
+        return false;
+      }
+      return a.equals(b);
+    }
+  }
+
 }
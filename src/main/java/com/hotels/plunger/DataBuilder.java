@@ -15,19 +15,27 @@
  */
 package com.hotels.plunger;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cascading.tuple.Fields;
 import cascading.tuple.FieldsResolverException;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
-import cascading.tuple.Tuples;
 import cascading.tuple.coerce.Coercions;
 import cascading.tuple.type.CoercibleType;
 
@@ -38,11 +46,19 @@ import cascading.tuple.type.CoercibleType;
  */
 public class DataBuilder {
 
-  private final List<Tuple> list;
+  /** The number of rows generated by each concurrent task in {@link #generate(int, long, FieldGenerator...)}. */
+  static final int GENERATE_CHUNK_SIZE = 64 * 1024;
+
+  private List<Tuple> list;
   private final Fields fields;
   private final Class<?>[] types;
-  private TupleEntry tupleEntry;
+  private final CoercibleType<?>[] coercions;
+  /** The values of the current tuple, reused for every row. */
+  private Object[] row;
+  /** Whether {@link #row} holds a tuple that has not yet been added to the {@link #list}. */
+  private boolean pending;
   private Fields fieldMask;
+  private int[] fieldMaskPositions;
 
   /**
    * Constructs a new tuple source builder that will provide {@link Tuple Tuples} that contain values consistent with
@@ -58,18 +74,21 @@ public class DataBuilder {
    */
   public DataBuilder(Fields fields, Class<?>[] types) {
     this.fields = fields;
-    fieldMask = fields;
     this.types = types;
     list = new ArrayList<Tuple>();
     if (types != null && types.length != fields.size()) {
       throw new IllegalArgumentException("There must be the same number of types as fields");
     }
+    coercions = types == null ? null : Coercions.coercibleArray(types.length, types);
+    row = new Object[fields.size()];
+    withAllFields();
   }
 
   /** Creates a new {@link Tuple} with {@code null} values for each field. */
   public DataBuilder newTuple() {
-    flushTupleEntry();
-    tupleEntry = new TupleEntry(fields, new Tuple(new Object[fields.size()]));
+    flushRow();
+    Arrays.fill(row, null);
+    pending = true;
     return this;
   }
 
@@ -83,12 +102,14 @@ public class DataBuilder {
   /** Creates a new {@link Tuple} with the specified values. */
   public DataBuilder addTuple(Tuple tuple) {
     newTuple();
-    List<Object> elements = Tuple.elements(tuple);
-    setTuple(elements.toArray(new Object[elements.size()]));
+    setRow(tuple);
     return this;
   }
 
-  /** Creates a new List of {@link TupleEntry} with the specified Tuples. */
+  /**
+   * Creates a new {@link Tuple} for each of the specified Tuples. The values are copied directly into the builder's
+   * store, so this is the most efficient way to add a large number of tuples.
+   */
   public DataBuilder addTuples(Iterable<Tuple> tuples) {
     for (Tuple tuple : tuples) {
       addTuple(tuple);
@@ -96,7 +117,7 @@ public class DataBuilder {
     return this;
   }
 
-  /** Creates a new List of {@link TupleEntry} with the specified Tuples. */
+  /** Creates a new {@link Tuple} for each of the specified Tuples. See {@link #addTuples(Iterable)}. */
   public DataBuilder addTuples(Tuple... tuples) {
     for (Tuple tuple : tuples) {
       addTuple(tuple);
@@ -140,6 +161,7 @@ public class DataBuilder {
     Fields fieldMask = Fields.merge(fields);
     try {
       this.fields.select(fieldMask);
+      fieldMaskPositions = this.fields.getPos(fieldMask);
       this.fieldMask = fieldMask;
     } catch (FieldsResolverException e) {
       throw new IllegalArgumentException("selected fields must be contained in record fields: selected fields="
@@ -151,14 +173,109 @@ public class DataBuilder {
 
   public DataBuilder withAllFields() {
     fieldMask = fields;
+    fieldMaskPositions = new int[fields.size()];
+    for (int i = 0; i < fieldMaskPositions.length; i++) {
+      fieldMaskPositions[i] = i;
+    }
     return this;
   }
 
+  /**
+   * Stores the {@link Tuple Tuples} in a column oriented layout rather than as a list of {@link Tuple} instances.
+   * Fields declared with {@code int}, {@code long}, or {@code double} types (or their boxed equivalents) are held in
+   * primitive arrays, greatly reducing the memory footprint of large data sets. {@link Tuple Tuples} are then created
+   * on demand when the resulting {@link Data} is read.
+   */
+  public DataBuilder withColumnarStorage() {
+    if (!(list instanceof ColumnarTupleList)) {
+      ColumnarTupleList columns = new ColumnarTupleList(fields, types);
+      columns.addAll(list);
+      list = columns;
+    }
+    return this;
+  }
+
+  /**
+   * Appends {@code rows} generated {@link Tuple Tuples}. One {@link FieldGenerator} must be supplied for each field in
+   * the current field mask (see {@link #withFields(Fields...)}), any other fields are left {@code null}. Rows are
+   * generated concurrently in fixed size chunks, each with its own {@link Random} whose seed is drawn in order from one
+   * seeded with {@code seed}, so the same seed always produces the same data. No more chunks are generated ahead of the
+   * output than there are threads. Combine with {@link #withColumnarStorage()} to hold very large data sets. See
+   * {@link Generators} for the available generators.
+   */
+  public DataBuilder generate(int rows, long seed, FieldGenerator... generators) {
+    if (rows < 0) {
+      throw new IllegalArgumentException("rows < 0: " + rows);
+    }
+    if (generators.length != fieldMask.size()) {
+      throw new IllegalArgumentException("generators.length {" + generators.length + "} != current fieldMask.size() {"
+          + fieldMask.size() + "}");
+    }
+    final int[] positions = new int[generators.length];
+    for (int i = 0; i < generators.length; i++) {
+      if (generators[i] == null) {
+        throw new IllegalArgumentException("generators[" + i + "] == null");
+      }
+      positions[i] = fields.getPos(fieldMask.get(i));
+    }
+    flushRow();
+
+    Random seeds = new Random(seed);
+    List<Callable<Object[][]>> tasks = new ArrayList<Callable<Object[][]>>();
+    for (int start = 0; start < rows; start += GENERATE_CHUNK_SIZE) {
+      tasks.add(new GenerateTask(start, Math.min(GENERATE_CHUNK_SIZE, rows - start), new Random(seeds.nextLong()),
+          generators, positions));
+    }
+    if (tasks.isEmpty()) {
+      return this;
+    }
+
+    int threads = Math.min(Runtime.getRuntime().availableProcessors(), tasks.size());
+    ExecutorService executor = newGenerateExecutor(threads);
+    try {
+      // Only one chunk per thread is in flight, so at most that many generated chunks are held besides the output
+      Deque<Future<Object[][]>> futures = new ArrayDeque<Future<Object[][]>>(threads);
+      Iterator<Callable<Object[][]>> remaining = tasks.iterator();
+      while (futures.size() < threads) {
+        futures.add(executor.submit(remaining.next()));
+      }
+      while (!futures.isEmpty()) {
+        Object[][] chunk = futures.poll().get();
+        if (remaining.hasNext()) {
+          futures.add(executor.submit(remaining.next()));
+        }
+        appendRows(chunk);
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Could not generate tuples", cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating tuples", e);
+    } finally {
+      executor.shutdownNow();
+    }
+    return this;
+  }
+
+  /** Creates the executor that generates the chunks for {@link #generate(int, long, FieldGenerator...)}. */
+  ExecutorService newGenerateExecutor(int threads) {
+    return Executors.newFixedThreadPool(threads);
+  }
+
   /** Makes a copy of the current {@link Tuple}. */
   public DataBuilder copyTuple() {
-    TupleEntry copy = new TupleEntry(tupleEntry);
-    flushTupleEntry();
-    tupleEntry = copy;
+    checkPending();
+    Object[] copy = row.clone();
+    flushRow();
+    row = copy;
+    pending = true;
     return this;
   }
 
@@ -167,10 +284,8 @@ public class DataBuilder {
    * field name, or the field position. See also the {@link ServiceLoader} for more information on this.
    */
   public DataBuilder set(Comparable<?> field, Object value) {
-    if (tupleEntry == null) {
-      throw new IllegalStateException();
-    }
-    tupleEntry.setRaw(field, value);
+    checkPending();
+    row[fields.getPos(field instanceof Fields ? ((Fields) field).get(0) : field)] = value;
     return this;
   }
 
@@ -183,21 +298,38 @@ public class DataBuilder {
   }
 
   public DataBuilder setTuple(Object... values) {
-    if (values.length != fieldMask.size()) {
+    checkPending();
+    if (values.length != fieldMaskPositions.length) {
       throw new IllegalArgumentException("arguments.length {" + values.length + "} != current fieldMask.size() {"
           + fieldMask.size() + ", values=" + Arrays.toString(values) + "}");
     }
-    for (int i = 0; i < fieldMask.size(); i++) {
-      tupleEntry.setRaw(fieldMask.get(i), values[i]);
+    for (int i = 0; i < fieldMaskPositions.length; i++) {
+      row[fieldMaskPositions[i]] = values[i];
     }
     return this;
   }
 
+  private void setRow(Tuple tuple) {
+    if (tuple.size() != fieldMaskPositions.length) {
+      throw new IllegalArgumentException("tuple.size() {" + tuple.size() + "} != current fieldMask.size() {"
+          + fieldMask.size() + ", tuple=" + tuple + "}");
+    }
+    for (int i = 0; i < fieldMaskPositions.length; i++) {
+      row[fieldMaskPositions[i]] = tuple.getObject(i);
+    }
+  }
+
   /** Copies the {@link Tuple Tuples} from the provided {@link Data} into this {@link DataBuilder}. */
   public DataBuilder copyTuplesFrom(Data source) {
     for (Tuple tuple : source.getTuples()) {
-      flushTupleEntry();
-      tupleEntry = new TupleEntry(fields, new Tuple(tuple));
+      flushRow();
+      if (tuple.size() != row.length) {
+        throw new IllegalArgumentException("tuple.size() {" + tuple.size() + "} != fields.size() {" + row.length + "}");
+      }
+      for (int i = 0; i < row.length; i++) {
+        row[i] = tuple.getObject(i);
+      }
+      pending = true;
     }
     return this;
   }
@@ -206,19 +338,52 @@ public class DataBuilder {
    * Builds the final {@link Data}.
    */
   public Data build() {
-    flushTupleEntry();
-    List<Tuple> tuples = Collections.unmodifiableList(new ArrayList<Tuple>(list));
+    flushRow();
+    List<Tuple> tuples;
+    if (list instanceof ColumnarTupleList) {
+      // Snapshots are already unmodifiable, and must remain recognisable so that Data can view them lazily
+      tuples = ((ColumnarTupleList) list).snapshot();
+    } else {
+      tuples = Collections.unmodifiableList(new ArrayList<Tuple>(list));
+    }
     return new Data(fields, tuples);
   }
 
-  private void flushTupleEntry() {
-    if (tupleEntry != null) {
-      if (types != null) {
-        CoercibleType<?>[] coercions = Coercions.coercibleArray(types.length, types);
-        Object[] values = Tuples.asArray(tupleEntry.selectTuple(fields), coercions, types, new Object[types.length]);
-        tupleEntry.setTuple(new Tuple(values));
+  private void checkPending() {
+    if (!pending) {
+      throw new IllegalStateException("There is no current tuple");
+    }
+  }
+
+  /** Adds the current tuple, if any, to the store, coercing its values to the declared types. */
+  private void flushRow() {
+    if (!pending) {
+      return;
+    }
+    pending = false;
+    if (coercions != null) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] = coercions[i].coerce(row[i], types[i]);
+      }
+    }
+    if (list instanceof ColumnarTupleList) {
+      ((ColumnarTupleList) list).addRow(row);
+    } else {
+      // The Tuple copies the values, leaving the row free to be reused
+      list.add(new Tuple(row));
+    }
+  }
+
+  private void appendRows(Object[][] rows) {
+    if (list instanceof ColumnarTupleList) {
+      ColumnarTupleList columns = (ColumnarTupleList) list;
+      for (Object[] row : rows) {
+        columns.addRow(row);
+      }
+    } else {
+      for (Object[] row : rows) {
+        list.add(new Tuple(row));
       }
-      list.add(tupleEntry.getTuple());
     }
   }
 
@@ -231,4 +396,39 @@ public class DataBuilder {
     return build().toTap();
   }
 
+  /** Generates one chunk of rows, coercing the values to the declared types as {@link #build()} would. */
+  private final class GenerateTask implements Callable<Object[][]> {
+    private final long start;
+    private final int count;
+    private final Random random;
+    private final FieldGenerator[] generators;
+    private final int[] positions;
+
+    private GenerateTask(long start, int count, Random random, FieldGenerator[] generators, int[] positions) {
+      this.start = start;
+      this.count = count;
+      this.random = random;
+      this.generators = generators;
+      this.positions = positions;
+    }
+
+    @Override
+    public Object[][] call() {
+      Object[][] rows = new Object[count][];
+      for (int i = 0; i < count; i++) {
+        Object[] values = new Object[fields.size()];
+        for (int j = 0; j < generators.length; j++) {
+          values[positions[j]] = generators[j].generate(start + i, random);
+        }
+        if (coercions != null) {
+          for (int j = 0; j < values.length; j++) {
+            values[j] = coercions[j].coerce(values[j], types[j]);
+          }
+        }
+        rows[i] = values;
+      }
+      return rows;
+    }
+  }
+
 }
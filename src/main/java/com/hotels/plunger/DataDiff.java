@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * The differences between two {@link Data} instances when the order of their tuples is ignored, obtained with
+ * {@link Data#diff(Data)}. Each differing tuple is reported once with the number of times it is missing or unexpected.
+ */
+public final class DataDiff {
+
+  /** The maximum number of missing and of unexpected tuples included in {@link #toString()}. */
+  static final int MAX_DESCRIBED_ROWS = 10;
+
+  private final Fields fields;
+  private final List<Row> missing;
+  private final List<Row> unexpected;
+
+  private DataDiff(Fields fields, List<Row> missing, List<Row> unexpected) {
+    this.fields = fields;
+    this.missing = missing;
+    this.unexpected = unexpected;
+  }
+
+  /** Whether the compared instances contain the same tuples, the same number of times. */
+  public boolean isEmpty() {
+    return missing.isEmpty() && unexpected.isEmpty();
+  }
+
+  public Fields getFields() {
+    return fields;
+  }
+
+  /** Tuples in the expected {@link Data} that occur fewer times, or not at all, in the actual {@link Data}. */
+  public List<Row> getMissing() {
+    return missing;
+  }
+
+  /** Tuples in the actual {@link Data} that occur fewer times, or not at all, in the expected {@link Data}. */
+  public List<Row> getUnexpected() {
+    return unexpected;
+  }
+
+  @Override
+  public String toString() {
+    if (isEmpty()) {
+      return "No differences";
+    }
+    StringBuilder builder = new StringBuilder();
+    describe(builder, "Missing", missing);
+    describe(builder, "Unexpected", unexpected);
+    return builder.toString();
+  }
+
+  private void describe(StringBuilder builder, String title, List<Row> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    long total = 0L;
+    for (Row row : rows) {
+      total += row.getCount();
+    }
+    builder.append(String.format("%s %d tuple(s) %s:%n", title, total, fields.print()));
+    for (int i = 0; i < rows.size() && i < MAX_DESCRIBED_ROWS; i++) {
+      builder.append(String.format("  %s%n", rows.get(i)));
+    }
+    if (rows.size() > MAX_DESCRIBED_ROWS) {
+      builder.append(String.format("  ... and %d more distinct tuple(s)%n", rows.size() - MAX_DESCRIBED_ROWS));
+    }
+  }
+
+  /** A tuple and the number of times that it is missing or unexpected. */
+  public static final class Row {
+
+    private final Tuple tuple;
+    private final int count;
+
+    Row(Tuple tuple, int count) {
+      this.tuple = tuple;
+      this.count = count;
+    }
+
+    public Tuple getTuple() {
+      return tuple;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    @Override
+    public String toString() {
+      return count + " x " + tuple;
+    }
+  }
+
+  /**
+   * Compares the projected tuples of each side as multisets in linear time, counting each distinct tuple exactly with
+   * {@link Tuple#equals(Object)} so that unequal values with equal hash codes are always told apart. Memory is
+   * proportional to the number of distinct tuples.
+   */
+  static DataDiff compute(Fields fields, Iterable<Tuple> actual, int[] actualPositions, Iterable<Tuple> expected,
+      int[] expectedPositions, int expectedSize) {
+    Map<Tuple, int[]> counts = new LinkedHashMap<Tuple, int[]>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+    count(counts, expected, expectedPositions, 1);
+    count(counts, actual, actualPositions, -1);
+
+    List<Row> missing = new ArrayList<Row>();
+    List<Row> unexpected = new ArrayList<Row>();
+    for (Entry<Tuple, int[]> entry : counts.entrySet()) {
+      int count = entry.getValue()[0];
+      if (count > 0) {
+        missing.add(new Row(entry.getKey(), count));
+      } else if (count < 0) {
+        unexpected.add(new Row(entry.getKey(), -count));
+      }
+    }
+    if (missing.isEmpty() && unexpected.isEmpty()) {
+      return new DataDiff(fields, Collections.<Row> emptyList(), Collections.<Row> emptyList());
+    }
+    return new DataDiff(fields, Collections.unmodifiableList(missing), Collections.unmodifiableList(unexpected));
+  }
+
+  private static void count(Map<Tuple, int[]> counts, Iterable<Tuple> tuples, int[] positions, int delta) {
+    for (Tuple tuple : tuples) {
+      Tuple projected = tuple.get(positions);
+      int[] count = counts.get(projected);
+      if (count == null) {
+        count = new int[1];
+        counts.put(projected, count);
+      }
+      count[0] += delta;
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * A statistical summary of the fields of a {@link Data} instance, obtained with {@link Data#profile()}. Use it to
+ * detect skewed keys and unexpected cardinalities before running an assembly on real data.
+ */
+public final class DataProfile {
+
+  /** The number of heavy hitters reported for each field by {@link Data#profile()}. */
+  public static final int DEFAULT_HEAVY_HITTERS = 10;
+
+  private final long rowCount;
+  private final List<FieldProfile> fieldProfiles;
+
+  private DataProfile(long rowCount, List<FieldProfile> fieldProfiles) {
+    this.rowCount = rowCount;
+    this.fieldProfiles = fieldProfiles;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** The profiles of the profiled fields, in field order. */
+  public List<FieldProfile> getFieldProfiles() {
+    return fieldProfiles;
+  }
+
+  /** Returns the profile of the named field. */
+  public FieldProfile getFieldProfile(Comparable<?> field) {
+    for (FieldProfile fieldProfile : fieldProfiles) {
+      if (fieldProfile.getField().equals(field)) {
+        return fieldProfile;
+      }
+    }
+    throw new IllegalArgumentException("Field not profiled: " + field);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("rows=").append(rowCount);
+    for (FieldProfile fieldProfile : fieldProfiles) {
+      builder.append('\n').append(fieldProfile);
+    }
+    return builder.toString();
+  }
+
+  /** Profiles the values at the given positions of each {@link Tuple}, in a single pass. */
+  static DataProfile profile(Fields fields, int[] positions, Iterable<Tuple> tuples, int heavyHitters) {
+    FieldProfile.Accumulator[] accumulators = new FieldProfile.Accumulator[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      accumulators[i] = new FieldProfile.Accumulator(fields.get(i), heavyHitters);
+    }
+    long rowCount = 0L;
+    for (Tuple tuple : tuples) {
+      for (int i = 0; i < positions.length; i++) {
+        accumulators[i].add(tuple.getObject(positions[i]));
+      }
+      rowCount++;
+    }
+    List<FieldProfile> fieldProfiles = new ArrayList<FieldProfile>(accumulators.length);
+    for (FieldProfile.Accumulator accumulator : accumulators) {
+      fieldProfiles.add(accumulator.toProfile());
+    }
+    return new DataProfile(rowCount, Collections.unmodifiableList(fieldProfiles));
+  }
+
+}
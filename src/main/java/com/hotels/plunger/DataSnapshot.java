@@ -0,0 +1,283 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Writes and reads {@link Data} in a compact binary snapshot format, so that large fixtures can be loaded without
+ * being rebuilt. The layout is:
+ * <ul>
+ * <li>a header holding the {@link Fields}, names and types included;</li>
+ * <li>blocks of up to {@link #DEFAULT_BLOCK_ROWS} rows, each stored column by column. Columns holding only
+ * {@link Integer}, {@link Long} or {@link Double} values are written as fixed width values with a null bitmap, all
+ * other columns as {@link TupleCodec} values with an offset per row. Blocks may be deflated;</li>
+ * <li>a footer locating each block, followed by the footer offset.</li>
+ * </ul>
+ * Reading memory-maps the blocks and decodes rows only when they are requested, see {@link SnapshotTupleList}.
+ */
+final class DataSnapshot {
+
+  static final int DEFAULT_BLOCK_ROWS = 64 * 1024;
+
+  static final byte INT_COLUMN = 1;
+  static final byte LONG_COLUMN = 2;
+  static final byte DOUBLE_COLUMN = 3;
+  static final byte OBJECT_COLUMN = 4;
+
+  /** "PLSN" */
+  private static final int MAGIC = 0x504c534e;
+  private static final byte VERSION = 1;
+  private static final int TRAILER_LENGTH = 12;
+  private static final int FOOTER_ENTRY_LENGTH = 20;
+
+  private DataSnapshot() {
+  }
+
+  /** Writes the selected fields of the {@link Data}, in its current order, to the file. */
+  static void write(Data data, File file, boolean compress) throws IOException {
+    write(data, file, compress, DEFAULT_BLOCK_ROWS);
+  }
+
+  static void write(Data data, File file, boolean compress, int blockRows) throws IOException {
+    if (blockRows < 1) {
+      throw new IllegalArgumentException("blockRows < 1: " + blockRows);
+    }
+    Fields fields = data.selectedFields();
+    List<Tuple> tuples = data.asTupleList();
+    List<long[]> footer = new ArrayList<long[]>();
+    Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      TupleCodec.writeValue(out, fields);
+      long position = out.size();
+
+      List<Tuple> rows = new ArrayList<Tuple>(Math.min(blockRows, tuples.size()));
+      for (Tuple tuple : tuples) {
+        rows.add(tuple);
+        if (rows.size() == blockRows) {
+          position = writeBlock(out, position, rows, fields.size(), deflater, footer);
+          rows.clear();
+        }
+      }
+      if (!rows.isEmpty()) {
+        position = writeBlock(out, position, rows, fields.size(), deflater, footer);
+      }
+
+      out.writeInt(footer.size());
+      for (long[] entry : footer) {
+        out.writeLong(entry[0]);
+        out.writeInt((int) entry[1]);
+        out.writeInt((int) entry[2]);
+        out.writeInt((int) entry[3]);
+      }
+      out.writeLong(position);
+      out.writeInt(MAGIC);
+    } finally {
+      if (deflater != null) {
+        deflater.end();
+      }
+    }
+  }
+
+  /** Maps the snapshot file and returns a {@link Data} instance that decodes its rows on demand. */
+  static Data read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long fileLength = channel.size();
+      if (fileLength < TRAILER_LENGTH) {
+        throw new IOException("Not a plunger snapshot: " + file);
+      }
+      ByteBuffer trailer = channel.map(MapMode.READ_ONLY, fileLength - TRAILER_LENGTH, TRAILER_LENGTH);
+      long footerOffset = trailer.getLong(0);
+      if (trailer.getInt(8) != MAGIC || footerOffset < 0 || footerOffset > fileLength - TRAILER_LENGTH - 4) {
+        throw new IOException("Not a plunger snapshot: " + file);
+      }
+      ByteBuffer footer = channel.map(MapMode.READ_ONLY, footerOffset, fileLength - TRAILER_LENGTH - footerOffset);
+      int blockCount = footer.getInt(0);
+      if (footer.capacity() != 4 + (long) blockCount * FOOTER_ENTRY_LENGTH) {
+        throw new IOException("Corrupt snapshot footer: " + file);
+      }
+
+      ByteBuffer[] blocks = new ByteBuffer[blockCount];
+      int[] lengths = new int[blockCount];
+      int[] firstRows = new int[blockCount];
+      long size = 0L;
+      for (int i = 0; i < blockCount; i++) {
+        int entry = 4 + i * FOOTER_ENTRY_LENGTH;
+        blocks[i] = channel.map(MapMode.READ_ONLY, footer.getLong(entry), footer.getInt(entry + 8));
+        lengths[i] = footer.getInt(entry + 12);
+        firstRows[i] = (int) size;
+        size += footer.getInt(entry + 16);
+        if (size > Integer.MAX_VALUE) {
+          throw new IOException("Snapshot holds more than " + Integer.MAX_VALUE + " rows: " + file);
+        }
+      }
+
+      long headerLength = blockCount == 0 ? footerOffset : footer.getLong(4);
+      DataInputStream header = new DataInputStream(new ByteBufferInputStream(channel.map(MapMode.READ_ONLY, 0L,
+          headerLength)));
+      if (header.readInt() != MAGIC) {
+        throw new IOException("Not a plunger snapshot: " + file);
+      }
+      byte version = header.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version + ": " + file);
+      }
+      Object fields = TupleCodec.readValue(header);
+      if (!(fields instanceof Fields)) {
+        throw new IOException("Corrupt snapshot header: " + file);
+      }
+      return new Data((Fields) fields, new SnapshotTupleList(((Fields) fields).size(), blocks, lengths, firstRows,
+          (int) size));
+    }
+  }
+
+  private static long writeBlock(DataOutputStream out, long position, List<Tuple> rows, int columnCount,
+      Deflater deflater, List<long[]> footer) throws IOException {
+    byte[] block = encodeBlock(rows, columnCount);
+    byte[] stored = deflater == null ? block : deflate(deflater, block);
+    out.write(stored);
+    // A block stored at its encoded length is not compressed
+    footer.add(new long[] { position, stored.length, block.length, rows.size() });
+    return position + stored.length;
+  }
+
+  /** Encodes the row count and the offset of each column, followed by the columns. */
+  private static byte[] encodeBlock(List<Tuple> rows, int columnCount) throws IOException {
+    byte[][] columns = new byte[columnCount][];
+    for (Tuple row : rows) {
+      if (row.size() != columnCount) {
+        throw new IllegalArgumentException("Tuple size != field count: " + row + ", " + columnCount);
+      }
+    }
+    int length = 4 + 4 * columnCount;
+    for (int column = 0; column < columnCount; column++) {
+      columns[column] = encodeColumn(rows, column);
+      length += columns[column].length;
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(length);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(rows.size());
+    int offset = 4 + 4 * columnCount;
+    for (byte[] column : columns) {
+      out.writeInt(offset);
+      offset += column.length;
+    }
+    for (byte[] column : columns) {
+      out.write(column);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] encodeColumn(List<Tuple> rows, int column) throws IOException {
+    byte kind = columnKind(rows, column);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(kind);
+    if (kind == OBJECT_COLUMN) {
+      ByteArrayOutputStream values = new ByteArrayOutputStream();
+      DataOutputStream valuesOut = new DataOutputStream(values);
+      for (Tuple row : rows) {
+        out.writeInt(valuesOut.size());
+        TupleCodec.writeValue(valuesOut, row.getObject(column));
+      }
+      out.writeInt(valuesOut.size());
+      values.writeTo(out);
+      return bytes.toByteArray();
+    }
+
+    byte[] nulls = new byte[(rows.size() + 7) >>> 3];
+    for (int i = 0; i < rows.size(); i++) {
+      if (rows.get(i).getObject(column) == null) {
+        nulls[i >>> 3] |= 1 << (i & 7);
+      }
+    }
+    out.write(nulls);
+    for (Tuple row : rows) {
+      Object value = row.getObject(column);
+      if (kind == INT_COLUMN) {
+        out.writeInt(value == null ? 0 : (Integer) value);
+      } else if (kind == LONG_COLUMN) {
+        out.writeLong(value == null ? 0L : (Long) value);
+      } else {
+        out.writeDouble(value == null ? 0d : (Double) value);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Selects a fixed width encoding if every non-null value in the column has the same boxed primitive type. */
+  private static byte columnKind(List<Tuple> rows, int column) {
+    Class<?> type = null;
+    for (Tuple row : rows) {
+      Object value = row.getObject(column);
+      if (value == null) {
+        continue;
+      }
+      if (type == null) {
+        type = value.getClass();
+      } else if (type != value.getClass()) {
+        return OBJECT_COLUMN;
+      }
+    }
+    if (type == null || type == Integer.class) {
+      return INT_COLUMN;
+    }
+    if (type == Long.class) {
+      return LONG_COLUMN;
+    }
+    if (type == Double.class) {
+      return DOUBLE_COLUMN;
+    }
+    return OBJECT_COLUMN;
+  }
+
+  private static byte[] deflate(Deflater deflater, byte[] block) {
+    deflater.reset();
+    deflater.setInput(block);
+    deflater.finish();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.length / 2 + 64);
+    byte[] buffer = new byte[8192];
+    while (!deflater.finished()) {
+      int length = deflater.deflate(buffer);
+      bytes.write(buffer, 0, length);
+      if (bytes.size() >= block.length) {
+        // Does not compress, store as is
+        return block;
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.Collections;
+import java.util.List;
+
+import cascading.tuple.TupleEntry;
+
+/**
+ * An {@link OutputSink} that retains nothing but folds every collected entry into a 64-bit checksum, so that the output
+ * of large call streams can be compared with an expected digest in constant memory. The ordered variant is sensitive to
+ * the order in which tuples are emitted; the unordered variant is not, but both are sensitive to duplicates.
+ * <p/>
+ * The checksum is derived from the {@link Object#hashCode() hashCode} of each value, so it is only repeatable across
+ * JVMs for values with a stable hash code such as strings, numbers and booleans.
+ */
+public final class DigestOutputSink implements OutputSink {
+
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private final boolean ordered;
+  private long digest;
+  private long count;
+
+  DigestOutputSink(boolean ordered) {
+    this.ordered = ordered;
+  }
+
+  @Override
+  public void collect(TupleEntry tupleEntry) {
+    long hash = TupleHasher.hash(tupleEntry.getTuple());
+    if (ordered) {
+      digest = TupleHasher.mix(digest * MULTIPLIER + hash);
+    } else {
+      digest += hash;
+    }
+    count++;
+  }
+
+  @Override
+  public List<TupleEntry> getRetained() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void reset() {
+    digest = 0L;
+    count = 0L;
+  }
+
+  /** The checksum of all entries collected since this sink was created or last reset. */
+  public long getDigest() {
+    return digest;
+  }
+
+  /** The number of entries folded into the {@link #getDigest() digest}. */
+  public long getCount() {
+    return count;
+  }
+
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  @Override
+  public String toString() {
+    return "DigestOutputSink [ordered=" + ordered + ", digest=" + Long.toHexString(digest) + ", count=" + count + "]";
+  }
+
+}
@@ -15,12 +15,14 @@
  */
 package com.hotels.plunger;
 
+import java.io.IOException;
 import java.io.PrintStream;
 
 import cascading.flow.FlowProcess;
 import cascading.operation.BaseOperation;
 import cascading.operation.Filter;
 import cascading.operation.FilterCall;
+import cascading.operation.OperationCall;
 import cascading.pipe.Each;
 import cascading.pipe.Pipe;
 import cascading.pipe.SubAssembly;
@@ -28,7 +30,9 @@ import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 
 /**
- * Dumps all {@link Tuple Tuples} to a {@link PrintStream} - do not use this in production. Not thread safe.
+ * Dumps all {@link Tuple Tuples} to a {@link PrintStream} - do not use this in production. The header is written once,
+ * before any row, but rows from different threads sharing a stream may interleave. Output may instead be written
+ * asynchronously, which keeps the same guarantees, or to a file per thread, see {@link DumpOptions}.
  */
 public class Dump extends SubAssembly {
 
@@ -59,56 +63,111 @@ public class Dump extends SubAssembly {
   }
 
   public Dump(String prefix, Pipe pipe, PrintStreamSupplier streamSupplier, Fields... fieldsOfInterest) {
+    this(prefix, pipe, streamSupplier, DumpOptions.synchronous(), fieldsOfInterest);
+  }
+
+  public Dump(Pipe pipe, DumpOptions options) {
+    this("", pipe, SystemPrintStreams.SYSOUT, options);
+  }
+
+  /** Dumps the {@link Tuple Tuples} as described by the supplied {@link DumpOptions}. */
+  public Dump(String prefix, Pipe pipe, PrintStreamSupplier streamSupplier, DumpOptions options,
+      Fields... fieldsOfInterest) {
     super(pipe);
+    if (options == null) {
+      throw new IllegalArgumentException("options == null");
+    }
     Fields mergedFieldsOfInterest;
     if (fieldsOfInterest != null && fieldsOfInterest.length > 0) {
       mergedFieldsOfInterest = Fields.merge(fieldsOfInterest);
     } else {
       mergedFieldsOfInterest = Fields.ALL;
     }
-    pipe = new Each(pipe, new DumpFilter(prefix, streamSupplier, mergedFieldsOfInterest));
+    pipe = new Each(pipe, new DumpFilter(prefix, streamSupplier, options, mergedFieldsOfInterest));
     setTails(pipe);
   }
 
-  private static class DumpFilter extends BaseOperation<Void> implements Filter<Void> {
+  private static class DumpFilter extends BaseOperation<DumpContext> implements Filter<DumpContext> {
 
     private static final long serialVersionUID = 1L;
 
     private final PrintStreamSupplier streamSupplier;
     private final String prefix;
+    private final DumpOptions options;
 
-    // This is not threadsafe - does this matter for LocalConnector?
-    private volatile boolean firstRecord = true;
+    // Guarded by this, read without the lock once set
+    private volatile boolean headerWritten;
 
     private final Fields fieldsOfInterest;
 
-    private DumpFilter(String prefix, PrintStreamSupplier streamSupplier, Fields fieldsOfInterest) {
+    private DumpFilter(String prefix, PrintStreamSupplier streamSupplier, DumpOptions options,
+        Fields fieldsOfInterest) {
       this.prefix = prefix;
       this.streamSupplier = streamSupplier;
+      this.options = options;
       this.fieldsOfInterest = fieldsOfInterest;
     }
 
     @Override
-    public boolean isRemove(@SuppressWarnings("rawtypes") FlowProcess flowProcess, FilterCall<Void> filterCall) {
-      PrintStream stream = streamSupplier.getPrintStream();
-      if (firstRecord) {
-        stream.append(prefix);
-        for (Comparable<?> value : filterCall.getArguments().getFields().select(fieldsOfInterest)) {
-          stream.append(value.toString());
-          stream.append('\t');
-        }
-        stream.append('\n');
-        firstRecord = false;
+    public void prepare(@SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        OperationCall<DumpContext> operationCall) {
+      try {
+        operationCall.setContext(new DumpContext(options.newWriter(streamSupplier, prefix)));
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to open dump output", e);
       }
-      stream.append(prefix);
-      for (String value : filterCall.getArguments().selectEntry(fieldsOfInterest).asIterableOf(String.class)) {
-        stream.append(value);
-        stream.append('\t');
+    }
+
+    @Override
+    public boolean isRemove(@SuppressWarnings("rawtypes") FlowProcess flowProcess, FilterCall<DumpContext> filterCall) {
+      DumpContext context = filterCall.getContext();
+      try {
+        if (options.isOutputPerCall()) {
+          if (!context.headerWritten) {
+            context.writer.writeHeader(filterCall.getArguments().getFields().select(fieldsOfInterest));
+            context.headerWritten = true;
+          }
+        } else if (!headerWritten) {
+          writeSharedHeader(context.writer, filterCall.getArguments().getFields());
+        }
+        context.writer.writeRow(filterCall.getArguments().selectEntry(fieldsOfInterest));
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to dump tuple", e);
       }
-      stream.append('\n');
       return false;
     }
 
+    @Override
+    public void cleanup(@SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        OperationCall<DumpContext> operationCall) {
+      try {
+        operationCall.getContext().writer.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to complete dump output", e);
+      }
+    }
+
+    /**
+     * Writes the header exactly once, other threads wait so that no row precedes it. Asynchronous writers for a stream
+     * share one queue, so this also holds for them once the header is queued.
+     */
+    private synchronized void writeSharedHeader(DumpWriter writer, Fields argumentFields) throws IOException {
+      if (!headerWritten) {
+        writer.writeHeader(argumentFields.select(fieldsOfInterest));
+        headerWritten = true;
+      }
+    }
+
+  }
+
+  /** The output of a single call of the {@link DumpFilter}. */
+  private static final class DumpContext {
+    private final DumpWriter writer;
+    private boolean headerWritten;
+
+    private DumpContext(DumpWriter writer) {
+      this.writer = writer;
+    }
   }
 
   /** Delivers a {@link PrintStream} to the {@link Dump} instance to avoid serialization issues. */
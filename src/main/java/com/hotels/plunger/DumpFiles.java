@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Combines the files written by a {@link Dump} configured with {@link DumpOptions#toFiles(File, DumpOptions.FileFormat)
+ * toFiles}. Each thread, or task, writes its own file so the rows of different files are in no particular order
+ * relative to each other; files are combined in name order and the rows of each file keep their order.
+ */
+public final class DumpFiles {
+
+  private static final String FILE_PREFIX = "plunger-dump-";
+  private static final String TEXT_SUFFIX = ".tsv";
+  private static final String BINARY_SUFFIX = ".bin";
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private DumpFiles() {
+  }
+
+  /**
+   * Writes the contents of every dump file in the directory to the stream as tab separated text. The header is written
+   * once, before the first row.
+   */
+  public static void merge(File directory, PrintStream out) throws IOException {
+    boolean headerWritten = false;
+    AppendableDumpWriter writer = new AppendableDumpWriter(out, "");
+    for (File file : files(directory)) {
+      if (file.getName().endsWith(TEXT_SUFFIX)) {
+        headerWritten = mergeText(file, out, headerWritten);
+      } else {
+        headerWritten = mergeBinary(file, writer, headerWritten);
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads the rows of every {@link DumpOptions.FileFormat#BINARY binary} dump file in the directory. Returns empty
+   * {@link Data} if the files declare their fields but hold no rows.
+   *
+   * @throws IOException if there are no binary dump files, none of them declare their fields, or they do not all
+   *           declare the same fields.
+   */
+  public static Data read(File directory) throws IOException {
+    Fields fields = null;
+    boolean found = false;
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (File file : files(directory)) {
+      if (!file.getName().endsWith(BINARY_SUFFIX)) {
+        continue;
+      }
+      found = true;
+      try (DataInputStream in = open(file)) {
+        for (byte tag = nextTag(in); tag != -1; tag = nextTag(in)) {
+          switch (tag) {
+          case BinaryDumpWriter.HEADER:
+            Fields fileFields = readFields(in, file);
+            if (fields != null && !fields.equals(fileFields)) {
+              throw new IOException("Dump files declare different fields: " + fields.print() + ", "
+                  + fileFields.print());
+            }
+            fields = fileFields;
+            break;
+          case BinaryDumpWriter.ROW:
+            tuples.add(TupleCodec.readTuple(in));
+            break;
+          case BinaryDumpWriter.NOTE:
+            TupleCodec.readString(in);
+            break;
+          default:
+            throw new IOException("Unknown record type " + tag + " in " + file);
+          }
+        }
+      }
+    }
+    if (!found) {
+      throw new IOException("No binary dump files found in " + directory);
+    }
+    if (fields == null) {
+      throw new IOException("No fields are declared by the binary dump files in " + directory);
+    }
+    return new Data(fields, tuples);
+  }
+
+  /** Creates a new, uniquely named, file in the directory and returns a writer for it. */
+  static DumpWriter newWriter(File directory, String prefix, DumpOptions.FileFormat format) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+      throw new IOException("Unable to create directory: " + directory);
+    }
+    switch (format) {
+    case TEXT:
+      File textFile = File.createTempFile(FILE_PREFIX, TEXT_SUFFIX, directory);
+      return new AppendableDumpWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(textFile),
+          StandardCharsets.UTF_8), BUFFER_SIZE), prefix, true);
+    case BINARY:
+      File binaryFile = File.createTempFile(FILE_PREFIX, BINARY_SUFFIX, directory);
+      return new BinaryDumpWriter(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFile),
+          BUFFER_SIZE)));
+    default:
+      throw new IllegalArgumentException("Unknown format: " + format);
+    }
+  }
+
+  private static List<File> files(File directory) throws IOException {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      throw new IOException("Not a directory: " + directory);
+    }
+    List<File> dumpFiles = new ArrayList<File>();
+    for (File file : files) {
+      String name = file.getName();
+      if (name.startsWith(FILE_PREFIX) && (name.endsWith(TEXT_SUFFIX) || name.endsWith(BINARY_SUFFIX))) {
+        dumpFiles.add(file);
+      }
+    }
+    File[] sorted = dumpFiles.toArray(new File[dumpFiles.size()]);
+    Arrays.sort(sorted);
+    return Arrays.asList(sorted);
+  }
+
+  /** Copies the lines of the file, skipping its header if one has already been written. */
+  private static boolean mergeText(File file, PrintStream out, boolean headerWritten) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+        StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      String header = reader.readLine();
+      if (header == null) {
+        return headerWritten;
+      }
+      if (!headerWritten) {
+        out.append(header).append('\n');
+      }
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        out.append(line).append('\n');
+      }
+      return true;
+    }
+  }
+
+  private static boolean mergeBinary(File file, AppendableDumpWriter writer, boolean headerWritten)
+    throws IOException {
+    try (DataInputStream in = open(file)) {
+      Fields fields = null;
+      for (byte tag = nextTag(in); tag != -1; tag = nextTag(in)) {
+        switch (tag) {
+        case BinaryDumpWriter.HEADER:
+          fields = readFields(in, file);
+          if (!headerWritten) {
+            writer.writeHeader(fields);
+            headerWritten = true;
+          }
+          break;
+        case BinaryDumpWriter.ROW:
+          Tuple tuple = TupleCodec.readTuple(in);
+          if (fields == null) {
+            throw new IOException("Row before header in " + file);
+          }
+          writer.writeRow(new TupleEntry(fields, tuple));
+          break;
+        case BinaryDumpWriter.NOTE:
+          writer.writeNote(TupleCodec.readString(in));
+          break;
+        default:
+          throw new IOException("Unknown record type " + tag + " in " + file);
+        }
+      }
+    }
+    return headerWritten;
+  }
+
+  private static DataInputStream open(File file) throws IOException {
+    return new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+  }
+
+  /** Returns the next record type, or -1 at the end of the file. */
+  private static byte nextTag(DataInputStream in) throws IOException {
+    try {
+      return in.readByte();
+    } catch (EOFException e) {
+      return -1;
+    }
+  }
+
+  private static Fields readFields(DataInputStream in, File file) throws IOException {
+    Object fields = TupleCodec.readValue(in);
+    if (!(fields instanceof Fields)) {
+      throw new IOException("Corrupt header in " + file);
+    }
+    return (Fields) fields;
+  }
+
+}
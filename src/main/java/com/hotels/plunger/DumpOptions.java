@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Serializable;
+
+/**
+ * Options that control how a {@link Dump} writes its output. By default each row is written synchronously to the
+ * {@link java.io.PrintStream PrintStream} from the flow thread. On a busy pipe this distorts the timing of the assembly
+ * under test, so the output can instead be handed off to a bounded buffer that is written by a background thread:
+ *
+ * <pre>
+ * pipe = new Dump(&quot;&quot;, pipe, SYSOUT, DumpOptions.async(10000).dropWhenFull());
+ * </pre>
+ *
+ * When the buffer is full the flow thread blocks by default. It may instead drop the row, or keep a sample of the rows
+ * that arrive while the buffer is full. The number of dropped rows is noted at the end of the output.
+ * <p/>
+ * To leave a {@link Dump} in an assembly under load, write only a sample of the rows, optionally capped at a number of
+ * rows per second:
+ *
+ * <pre>
+ * pipe = new Dump(pipe, DumpOptions.synchronous().bernoulli(0.001d, 42L).maxPerSecond(100));
+ * </pre>
+ *
+ * Sampling and rate limiting apply to each call of the operation, so to each thread or task, separately.
+ */
+public final class DumpOptions implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /** How rows are handled when the buffer of an asynchronous {@link Dump} is full. */
+  enum Overflow {
+    BLOCK,
+    DROP,
+    SAMPLE;
+  }
+
+  /** The format of the files written by {@link DumpOptions#toFiles(File, FileFormat)}. */
+  public enum FileFormat {
+    /** Tab separated text, as written to a {@link PrintStream}. */
+    TEXT,
+    /**
+     * The fields and values in a compact binary encoding, which can be read back as {@link Data}. The prefix is not
+     * retained.
+     */
+    BINARY;
+  }
+
+  /** Which rows are written by a {@link Dump}. */
+  enum Sampling {
+    ALL,
+    EVERY_NTH,
+    BERNOULLI,
+    RESERVOIR;
+  }
+
+  private final int capacity;
+  private final File directory;
+  private final FileFormat format;
+  private Overflow overflow = Overflow.BLOCK;
+  private int overflowSampleInterval = 1;
+  private Sampling sampling = Sampling.ALL;
+  private int sampleInterval;
+  private double sampleProbability;
+  private int reservoirSize;
+  private long seed;
+  private int maxPerSecond;
+
+  private DumpOptions(int capacity) {
+    this(capacity, null, null);
+  }
+
+  private DumpOptions(int capacity, File directory, FileFormat format) {
+    this.capacity = capacity;
+    this.directory = directory;
+    this.format = format;
+  }
+
+  /** Returns options that write each row synchronously from the flow thread. */
+  public static DumpOptions synchronous() {
+    return new DumpOptions(0);
+  }
+
+  /**
+   * Returns options that queue up to {@code capacity} rows for a background thread to write through a large buffer.
+   * All threads dumping asynchronously to the same {@link PrintStream} share one queue and background thread, so the
+   * header precedes every row and lines are never split; the capacity is that requested by the first of them. The
+   * output is complete once the operation has been cleaned up at the end of the flow.
+   */
+  public static DumpOptions async(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity < 1: " + capacity);
+    }
+    return new DumpOptions(capacity);
+  }
+
+  /**
+   * Returns options that write the output of each thread, or task, to its own file in {@code directory}, so that
+   * threads never contend for a shared stream. Each file starts with its own header. Use
+   * {@link DumpFiles#merge(File, PrintStream)} or {@link DumpFiles#read(File)} to combine the files once the flow has
+   * completed.
+   */
+  public static DumpOptions toFiles(File directory, FileFormat format) {
+    if (directory == null) {
+      throw new IllegalArgumentException("directory == null");
+    }
+    if (format == null) {
+      throw new IllegalArgumentException("format == null");
+    }
+    return new DumpOptions(0, directory, format);
+  }
+
+  /** Blocks the flow thread until there is space in the buffer. This is the default. */
+  public DumpOptions blockWhenFull() {
+    checkAsync();
+    overflow = Overflow.BLOCK;
+    overflowSampleInterval = 1;
+    return this;
+  }
+
+  /** Drops rows that arrive while the buffer is full. */
+  public DumpOptions dropWhenFull() {
+    checkAsync();
+    overflow = Overflow.DROP;
+    overflowSampleInterval = 1;
+    return this;
+  }
+
+  /**
+   * Keeps one in every {@code interval} rows that arrive while the buffer is full, waiting for space to queue it, and
+   * drops the others.
+   */
+  public DumpOptions sampleWhenFull(int interval) {
+    checkAsync();
+    if (interval < 1) {
+      throw new IllegalArgumentException("interval < 1: " + interval);
+    }
+    overflow = Overflow.SAMPLE;
+    overflowSampleInterval = interval;
+    return this;
+  }
+
+  /** Writes the first row and every {@code interval}th row after it. Replaces any other sampling. */
+  public DumpOptions everyNth(int interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("interval < 1: " + interval);
+    }
+    sampling = Sampling.EVERY_NTH;
+    sampleInterval = interval;
+    return this;
+  }
+
+  /**
+   * Writes each row with the supplied probability. The same seed selects the same rows from the same input. Replaces
+   * any other sampling.
+   */
+  public DumpOptions bernoulli(double probability, long seed) {
+    if (!(probability >= 0d && probability <= 1d)) {
+      throw new IllegalArgumentException("probability not in [0, 1]: " + probability);
+    }
+    sampling = Sampling.BERNOULLI;
+    sampleProbability = probability;
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Holds a uniform random sample of {@code size} rows and writes them, in the order they arrived, when the flow
+   * completes. The same seed selects the same rows from the same input. Replaces any other sampling and cannot be
+   * combined with {@link #maxPerSecond(int)}.
+   */
+  public DumpOptions reservoir(int size, long seed) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size < 1: " + size);
+    }
+    if (maxPerSecond > 0) {
+      throw new IllegalStateException("A reservoir sample is written all at once, so cannot be rate limited.");
+    }
+    sampling = Sampling.RESERVOIR;
+    reservoirSize = size;
+    this.seed = seed;
+    return this;
+  }
+
+  /** Writes at most {@code maxPerSecond} rows in any one second, after sampling, and drops the others. */
+  public DumpOptions maxPerSecond(int maxPerSecond) {
+    if (maxPerSecond < 1) {
+      throw new IllegalArgumentException("maxPerSecond < 1: " + maxPerSecond);
+    }
+    if (sampling == Sampling.RESERVOIR) {
+      throw new IllegalStateException("A reservoir sample is written all at once, so cannot be rate limited.");
+    }
+    this.maxPerSecond = maxPerSecond;
+    return this;
+  }
+
+  /** Creates the writer for a single call of the dump operation: sampling, then rate limiting, then output. */
+  DumpWriter newWriter(Dump.PrintStreamSupplier streamSupplier, String prefix) throws IOException {
+    DumpWriter writer;
+    if (directory != null) {
+      writer = DumpFiles.newWriter(directory, prefix, format);
+    } else if (capacity == 0) {
+      writer = new AppendableDumpWriter(streamSupplier.getPrintStream(), prefix);
+    } else {
+      writer = AsyncDumpWriter.forStream(streamSupplier.getPrintStream(), prefix, capacity, overflow,
+          overflowSampleInterval);
+    }
+    if (maxPerSecond > 0) {
+      writer = new RateLimitingDumpWriter(writer, maxPerSecond);
+    }
+    switch (sampling) {
+    case EVERY_NTH:
+      return SamplingDumpWriter.everyNth(writer, sampleInterval);
+    case BERNOULLI:
+      return SamplingDumpWriter.bernoulli(writer, sampleProbability, seed);
+    case RESERVOIR:
+      return SamplingDumpWriter.reservoir(writer, reservoirSize, seed);
+    default:
+      return writer;
+    }
+  }
+
+  /** Whether each call writes to its own output, and so must write its own header. */
+  boolean isOutputPerCall() {
+    return directory != null;
+  }
+
+  private void checkAsync() {
+    if (capacity == 0) {
+      throw new IllegalStateException("Only applicable to asynchronous output.");
+    }
+  }
+
+}
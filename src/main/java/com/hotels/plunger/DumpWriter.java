@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Writes the header and rows emitted by a {@link Dump}. A writer is created for each call of the dump operation.
+ * Closing a writer flushes it but never closes the underlying stream.
+ */
+interface DumpWriter extends Closeable, Flushable {
+
+  /** Writes the names of the dumped fields. */
+  void writeHeader(Fields fields) throws IOException;
+
+  /** Writes the values of a dumped {@link TupleEntry}. The entry may be reused once this method returns. */
+  void writeRow(TupleEntry entry) throws IOException;
+
+  /** Writes a line of commentary about the dump itself, such as the number of rows dropped. */
+  void writeNote(String note) throws IOException;
+
+}
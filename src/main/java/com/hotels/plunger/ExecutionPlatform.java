@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import cascading.flow.hadoop2.Hadoop2MR1FlowConnector;
+import cascading.flow.local.LocalFlowConnector;
+
+/** The Cascading platform on which a {@link Plunger} executes its flow. */
+public enum ExecutionPlatform {
+
+  /** Plans and runs the flow with the {@link LocalFlowConnector}, entirely in memory. */
+  LOCAL,
+
+  /**
+   * Plans and runs the flow with the {@link Hadoop2MR1FlowConnector} using the Hadoop local job runner. {@link Data}
+   * sources and {@link Bucket} sinks are transparently staged via temporary sequence files, so all operations in the
+   * assembly must be serializable as they would be on a cluster.
+   */
+  HADOOP;
+
+}
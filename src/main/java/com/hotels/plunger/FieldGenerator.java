@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.Random;
+
+/**
+ * Generates the values of a single field for {@link DataBuilder#generate(int, long, FieldGenerator...)}. See
+ * {@link Generators} for the standard implementations.
+ * <p/>
+ * Rows are generated concurrently in chunks, so implementations must be thread safe. Any randomness must be drawn from
+ * the supplied {@link Random} so that the generated data is reproducible for a given seed. The {@link Random} is only
+ * used by one thread at a time.
+ */
+public interface FieldGenerator {
+
+  /** Returns the value of the field at the given zero based row index. */
+  Object generate(long row, Random random);
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Summarizes the values of a single field of a {@link DataProfile}. Distinct counts and heavy hitters are approximate
+ * so that a profile can be computed in a single pass using a small, fixed amount of memory per field.
+ */
+public final class FieldProfile {
+
+  private final Comparable<?> field;
+  private final long count;
+  private final long nullCount;
+  private final long approximateDistinctCount;
+  private final Object min;
+  private final Object max;
+  private final List<HeavyHitter> heavyHitters;
+
+  private FieldProfile(Comparable<?> field, long count, long nullCount, long approximateDistinctCount, Object min,
+      Object max, List<HeavyHitter> heavyHitters) {
+    this.field = field;
+    this.count = count;
+    this.nullCount = nullCount;
+    this.approximateDistinctCount = approximateDistinctCount;
+    this.min = min;
+    this.max = max;
+    this.heavyHitters = heavyHitters;
+  }
+
+  /** The field name or position. */
+  public Comparable<?> getField() {
+    return field;
+  }
+
+  /** The number of values, including {@code null} values. */
+  public long getCount() {
+    return count;
+  }
+
+  public long getNullCount() {
+    return nullCount;
+  }
+
+  /** The proportion of values that are {@code null}, or {@code 0} if there are no values. */
+  public double getNullRatio() {
+    return count == 0L ? 0d : (double) nullCount / count;
+  }
+
+  /** The HyperLogLog estimate of the number of distinct non-null values, typically within 1% of the true count. */
+  public long getApproximateDistinctCount() {
+    return approximateDistinctCount;
+  }
+
+  /**
+   * The smallest non-null value, or {@code null} if there are no values or the values are not mutually
+   * {@link Comparable}.
+   */
+  public Object getMin() {
+    return min;
+  }
+
+  /**
+   * The largest non-null value, or {@code null} if there are no values or the values are not mutually
+   * {@link Comparable}.
+   */
+  public Object getMax() {
+    return max;
+  }
+
+  /** The most frequent non-null values ordered by descending count. */
+  public List<HeavyHitter> getHeavyHitters() {
+    return heavyHitters;
+  }
+
+  /**
+   * The proportion of non-null values taken by the most frequent value, an indication of how skewed a
+   * {@code GroupBy} or {@code CoGroup} on this field would be. Returns {@code 0} if there are no non-null values.
+   */
+  public double getTopValueRatio() {
+    long nonNull = count - nullCount;
+    if (heavyHitters.isEmpty() || nonNull == 0L) {
+      return 0d;
+    }
+    return (double) heavyHitters.get(0).getCount() / nonNull;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "%s: count=%d, nulls=%d (%.1f%%), distinct~%d, min=%s, max=%s, top=%s", field,
+        count, nullCount, getNullRatio() * 100d, approximateDistinctCount, min, max, heavyHitters);
+  }
+
+  /** A frequently occurring value and its approximate count. */
+  public static final class HeavyHitter {
+
+    private final Object value;
+    private final long count;
+    private final long error;
+
+    HeavyHitter(Object value, long count, long error) {
+      this.value = value;
+      this.count = count;
+      this.error = error;
+    }
+
+    public Object getValue() {
+      return value;
+    }
+
+    /** The estimated count, which exceeds the true count by at most {@link #getError()}. */
+    public long getCount() {
+      return count;
+    }
+
+    /** The maximum amount by which {@link #getCount()} may overestimate the true count. */
+    public long getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return value + "=" + count;
+    }
+  }
+
+  /** Accumulates the statistics of a single field, one value at a time. */
+  static final class Accumulator {
+
+    private final Comparable<?> field;
+    private final int heavyHitters;
+    private final HyperLogLog distinct = new HyperLogLog();
+    private final SpaceSaving frequent;
+    private long count;
+    private long nullCount;
+    private Comparable<Object> min;
+    private Comparable<Object> max;
+    private boolean comparable = true;
+
+    Accumulator(Comparable<?> field, int heavyHitters) {
+      this.field = field;
+      this.heavyHitters = heavyHitters;
+      // Track more values than are reported so that the reported counts are accurate
+      frequent = new SpaceSaving(Math.max(100, heavyHitters * 10));
+    }
+
+    void add(Object value) {
+      count++;
+      if (value == null) {
+        nullCount++;
+        return;
+      }
+      distinct.add(value);
+      frequent.add(value);
+      if (comparable) {
+        updateRange(value);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void updateRange(Object value) {
+      if (!(value instanceof Comparable)) {
+        disableRange();
+        return;
+      }
+      Comparable<Object> comparableValue = (Comparable<Object>) value;
+      try {
+        if (min == null || comparableValue.compareTo(min) < 0) {
+          min = comparableValue;
+        }
+        if (max == null || comparableValue.compareTo(max) > 0) {
+          max = comparableValue;
+        }
+      } catch (ClassCastException e) {
+        disableRange();
+      }
+    }
+
+    private void disableRange() {
+      comparable = false;
+      min = null;
+      max = null;
+    }
+
+    FieldProfile toProfile() {
+      List<HeavyHitter> top = new ArrayList<HeavyHitter>();
+      for (SpaceSaving.Counter counter : frequent.top(heavyHitters)) {
+        top.add(new HeavyHitter(counter.getValue(), counter.getCount(), counter.getError()));
+      }
+      return new FieldProfile(field, count, nullCount, distinct.estimate(), min, max,
+          Collections.unmodifiableList(top));
+    }
+  }
+
+}
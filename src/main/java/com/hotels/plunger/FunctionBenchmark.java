@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import cascading.flow.FlowProcess;
+import cascading.operation.Function;
+
+/**
+ * JMH benchmark of a {@link Function}. A single {@link FunctionCallStub} that discards its output is built from
+ * {@link #newCallStubBuilder()}, and each invocation {@link FunctionCallStub#reset() resets} and completes it. Every
+ * invocation therefore replays the same call stream without allocation by the harness itself. See
+ * {@link OperationBenchmark} for how to run it.
+ */
+public abstract class FunctionBenchmark<C> extends OperationBenchmark {
+
+  private FunctionCallStub<C> stub;
+  private Function<C> function;
+
+  protected FunctionBenchmark() {
+  }
+
+  /** Supplies the call stream that is replayed by each invocation, typically from {@link Plunger}. */
+  protected abstract FunctionCallStub.Builder<C> newCallStubBuilder();
+
+  /** Supplies the operation under test. The same instance is used for every invocation in a trial. */
+  protected abstract Function<C> newFunction();
+
+  @Override
+  final int prepare() {
+    FunctionCallStub.Builder<C> builder = newCallStubBuilder();
+    if (builder == null) {
+      throw new IllegalStateException("newCallStubBuilder() returned null");
+    }
+    stub = builder.discardOutput().build();
+    function = newFunction();
+    if (function == null) {
+      throw new IllegalStateException("newFunction() returned null");
+    }
+    return builder.tupleCount();
+  }
+
+  @Benchmark
+  public FunctionCallStub<C> operate() {
+    return stub.reset().complete(FlowProcess.NULL, function);
+  }
+
+}
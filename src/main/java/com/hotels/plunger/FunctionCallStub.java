@@ -16,8 +16,8 @@
 package com.hotels.plunger;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import cascading.flow.FlowProcess;
 import cascading.operation.Function;
@@ -36,13 +36,14 @@ import cascading.tuple.TupleEntry;
  */
 public final class FunctionCallStub<C> extends AbstractOperationCallStub<C> implements FunctionCall<C> {
 
-  private final Iterator<TupleEntry> arguments;
+  private final List<TupleEntry> arguments;
+  private int position;
 
   private TupleEntry currentArguments;
 
-  private FunctionCallStub(Fields argumentFields, Fields declaredFields, Iterable<TupleEntry> arguments) {
+  private FunctionCallStub(Fields argumentFields, Fields declaredFields, List<TupleEntry> arguments) {
     super(argumentFields, declaredFields);
-    this.arguments = arguments.iterator();
+    this.arguments = arguments;
   }
 
   @Override
@@ -52,14 +53,28 @@ public final class FunctionCallStub<C> extends AbstractOperationCallStub<C> impl
 
   /** Advances to the next arguments value. */
   public FunctionCallStub<C> nextOperateCall() {
-    currentArguments = arguments.next();
+    if (position >= arguments.size()) {
+      throw new NoSuchElementException();
+    }
+    currentArguments = arguments.get(position++);
+    return this;
+  }
+
+  /**
+   * Rewinds this stub to the first arguments value and clears the context and collected output, so that the same call
+   * stream can be replayed without rebuilding the input tuples.
+   */
+  public FunctionCallStub<C> reset() {
+    resetOutput();
+    position = 0;
+    currentArguments = null;
     return this;
   }
 
   /** Processes the groups with the provided {@link Function}. */
   public FunctionCallStub<C> complete(FlowProcess<?> flowProcess, Function<C> function) {
     function.prepare(flowProcess, this);
-    while (arguments.hasNext()) {
+    while (position < arguments.size()) {
       function.operate(flowProcess, nextOperateCall());
     }
     function.flush(flowProcess, this);
@@ -72,6 +87,8 @@ public final class FunctionCallStub<C> extends AbstractOperationCallStub<C> impl
     private final List<TupleEntry> tuples = new ArrayList<TupleEntry>();
     private Fields fieldMask;
     private Fields outputFields;
+    private OutputSink outputSink;
+    private boolean discardOutput;
 
     Builder(Fields fields) {
       if (fields == null) {
@@ -90,6 +107,31 @@ public final class FunctionCallStub<C> extends AbstractOperationCallStub<C> impl
       return this;
     }
 
+    /**
+     * Only count the tuples collected from the function, rather than retaining them for {@link #result()}. Useful when
+     * replaying large call streams. Like {@code output(OutputSinks.countOnly())}, but each stub built gets its own
+     * sink.
+     */
+    public Builder<C> discardOutput() {
+      outputSink = null;
+      discardOutput = true;
+      return this;
+    }
+
+    /**
+     * Specify how the tuples collected from the function are retained, see {@link OutputSinks}. The sink is used by
+     * every stub subsequently built by this builder, so supply a new sink before building another stub whose output
+     * must be kept separate. By default each stub gets its own {@link OutputSinks#retainAll() retainAll} sink.
+     */
+    public Builder<C> output(OutputSink outputSink) {
+      if (outputSink == null) {
+        throw new IllegalArgumentException("outputSink == null");
+      }
+      this.outputSink = outputSink;
+      discardOutput = false;
+      return this;
+    }
+
     public Builder<C> addTuple(Object... values) {
       values = FieldTypeValidator.validateValues(fieldMask, values);
       TupleEntry newTuple = new TupleEntry(fields, Tuple.size(fields.size()));
@@ -110,9 +152,24 @@ public final class FunctionCallStub<C> extends AbstractOperationCallStub<C> impl
       return this;
     }
 
+    /** Returns the sink for a newly built stub, default sinks are never shared between stubs. */
+    private OutputSink newOutputSink() {
+      if (outputSink != null) {
+        return outputSink;
+      }
+      return discardOutput ? OutputSinks.countOnly() : OutputSinks.retainAll();
+    }
+
     public FunctionCallStub<C> build() {
       Fields newFields = outputFields != null ? outputFields : fields;
-      return new FunctionCallStub<C>(fields, newFields, tuples);
+      FunctionCallStub<C> stub = new FunctionCallStub<C>(fields, newFields, new ArrayList<TupleEntry>(tuples));
+      stub.setOutputSink(newOutputSink());
+      return stub;
+    }
+
+    /** The number of argument tuples that each built stub will deliver. */
+    int tupleCount() {
+      return tuples.size();
     }
 
   }
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Factory methods for the standard {@link FieldGenerator} implementations used with
+ * {@link DataBuilder#generate(int, long, FieldGenerator...)}.
+ */
+public final class Generators {
+
+  private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+  private Generators() {
+  }
+
+  /** Returns the same value for every row. */
+  public static FieldGenerator constant(final Object value) {
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return value;
+      }
+    };
+  }
+
+  /** Generates the {@link Long} sequence {@code start, start + 1, ...} from the row index. */
+  public static FieldGenerator sequence(long start) {
+    return sequence(start, 1L);
+  }
+
+  /** Generates the {@link Long} sequence {@code start, start + step, ...} from the row index. */
+  public static FieldGenerator sequence(final long start, final long step) {
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return start + row * step;
+      }
+    };
+  }
+
+  /** Generates uniformly distributed {@link Integer Integers} in the range {@code [min, max)}. */
+  public static FieldGenerator uniformInt(final int min, final int max) {
+    if (min >= max) {
+      throw new IllegalArgumentException("min >= max: " + min + ", " + max);
+    }
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return nextInt(random, min, max);
+      }
+    };
+  }
+
+  /** Generates uniformly distributed {@link Long Longs} in the range {@code [min, max)}. */
+  public static FieldGenerator uniformLong(final long min, final long max) {
+    if (min >= max) {
+      throw new IllegalArgumentException("min >= max: " + min + ", " + max);
+    }
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return nextLong(random, min, max);
+      }
+    };
+  }
+
+  /** Generates uniformly distributed {@link Double Doubles} in the range {@code [min, max)}. */
+  public static FieldGenerator uniformDouble(final double min, final double max) {
+    if (!(min < max)) {
+      throw new IllegalArgumentException("min >= max: " + min + ", " + max);
+    }
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return nextDouble(random, min, max);
+      }
+    };
+  }
+
+  /**
+   * Generates {@link Integer Integers} in the range {@code [0, n)} following a Zipf distribution with the given
+   * exponent, so that {@code 0} is the most frequent value, {@code 1} the next most frequent, and so on. An exponent of
+   * around {@code 1.0} produces the hot keys typically seen in production data; larger exponents are more skewed.
+   */
+  public static FieldGenerator zipfian(int n, double exponent) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("n <= 0: " + n);
+    }
+    if (!(exponent > 0d)) {
+      throw new IllegalArgumentException("exponent <= 0: " + exponent);
+    }
+    final double[] cumulative = new double[n];
+    double total = 0d;
+    for (int rank = 0; rank < n; rank++) {
+      total += 1d / Math.pow(rank + 1, exponent);
+      cumulative[rank] = total;
+    }
+    final double sum = total;
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+      }
+    };
+  }
+
+  /**
+   * Generates lower case {@link String Strings} of the given length drawn uniformly from {@code cardinality} distinct
+   * values.
+   */
+  public static FieldGenerator strings(int cardinality, int length) {
+    return strings(uniformInt(0, checkCardinality(cardinality, length)), length);
+  }
+
+  /**
+   * Generates lower case {@link String Strings} of the given length, one distinct value for each non-negative
+   * {@link Number} produced by the supplied generator. Combine with {@link #zipfian(int, double)} to generate skewed
+   * string keys.
+   */
+  public static FieldGenerator strings(final FieldGenerator index, final int length) {
+    if (index == null) {
+      throw new IllegalArgumentException("index == null");
+    }
+    checkCardinality(1, length);
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        long value = ((Number) index.generate(row, random)).longValue();
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+          chars[i] = ALPHABET[(int) (value % ALPHABET.length)];
+          value /= ALPHABET.length;
+        }
+        return new String(chars);
+      }
+    };
+  }
+
+  /**
+   * Generates {@link Long} epoch millisecond timestamps uniformly distributed in the range
+   * {@code [startMillis, endMillis)}.
+   */
+  public static FieldGenerator timestamps(long startMillis, long endMillis) {
+    return uniformLong(startMillis, endMillis);
+  }
+
+  /** Generates one of the supplied values, chosen uniformly. */
+  public static FieldGenerator oneOf(final Object... values) {
+    if (values == null || values.length == 0) {
+      throw new IllegalArgumentException("values must not be empty");
+    }
+    final Object[] copy = values.clone();
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return copy[random.nextInt(copy.length)];
+      }
+    };
+  }
+
+  /** Formats the values of the supplied generator with {@link String#format(String, Object...)}. */
+  public static FieldGenerator format(final String format, final FieldGenerator generator) {
+    if (format == null) {
+      throw new IllegalArgumentException("format == null");
+    }
+    if (generator == null) {
+      throw new IllegalArgumentException("generator == null");
+    }
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        return String.format(format, generator.generate(row, random));
+      }
+    };
+  }
+
+  /** Replaces the values of the supplied generator with {@code null} in the given proportion of rows. */
+  public static FieldGenerator withNulls(final double nullRatio, final FieldGenerator generator) {
+    if (nullRatio < 0d || nullRatio > 1d) {
+      throw new IllegalArgumentException("nullRatio must be between 0 and 1: " + nullRatio);
+    }
+    if (generator == null) {
+      throw new IllegalArgumentException("generator == null");
+    }
+    return new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        if (random.nextDouble() < nullRatio) {
+          return null;
+        }
+        return generator.generate(row, random);
+      }
+    };
+  }
+
+  /** Returns a uniformly distributed value in the range {@code [min, max)}. */
+  static int nextInt(Random random, int min, int max) {
+    long range = (long) max - min;
+    if (range <= Integer.MAX_VALUE) {
+      return min + random.nextInt((int) range);
+    }
+    // More than half of all int values are in range, so few values are rejected
+    int value;
+    do {
+      value = random.nextInt();
+    } while (value < min || value >= max);
+    return value;
+  }
+
+  /** Returns a uniformly distributed value in the range {@code [min, max)}. */
+  static long nextLong(Random random, long min, long max) {
+    long range = max - min;
+    if (range <= 0L) {
+      // The range overflowed, so more than half of all long values are in range
+      long value;
+      do {
+        value = random.nextLong();
+      } while (value < min || value >= max);
+      return value;
+    }
+    // Reject the values of the final incomplete multiple of the range, so that every remainder is equally likely
+    long bits;
+    long value;
+    do {
+      bits = random.nextLong() >>> 1;
+      value = bits % range;
+    } while (bits - value + (range - 1) < 0L);
+    return min + value;
+  }
+
+  /** Returns a uniformly distributed value in the range {@code [min, max)}. */
+  static double nextDouble(Random random, double min, double max) {
+    double value = min + random.nextDouble() * (max - min);
+    // Rounding can produce max itself
+    return value < max ? value : Math.nextAfter(max, Double.NEGATIVE_INFINITY);
+  }
+
+  private static int checkCardinality(int cardinality, int length) {
+    if (cardinality <= 0) {
+      throw new IllegalArgumentException("cardinality <= 0: " + cardinality);
+    }
+    if (length <= 0) {
+      throw new IllegalArgumentException("length <= 0: " + length);
+    }
+    if (length < 14 && Math.pow(ALPHABET.length, length) < cardinality) {
+      throw new IllegalArgumentException("Strings of length " + length + " cannot have " + cardinality
+          + " distinct values");
+    }
+    return cardinality;
+  }
+
+}
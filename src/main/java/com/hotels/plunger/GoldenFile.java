@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static java.lang.String.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Compares captured output with the expected output held in a golden file on disk. The golden file is a
+ * {@link Plunger#writeSnapshot(Data, File, boolean) snapshot} that is memory-mapped and compared incrementally with the
+ * output, so neither needs to be held in memory:
+ *
+ * <pre>
+ * Bucket bucket = plunger.newBucket(fields, tail, BucketOptions.spillToDisk(100000));
+ * new GoldenFile(new File(&quot;src/test/resources/expected.golden&quot;)).ignoringOrder().assertMatches(bucket);
+ * </pre>
+ *
+ * When the system property {@value #UPDATE_PROPERTY} is {@code true}, or {@link #update(boolean) update} is set, the
+ * golden file is instead replaced with the captured output and no comparison is made. Run the tests once with
+ * {@code -Dplunger.golden.update=true} to create or regenerate the golden files.
+ */
+public final class GoldenFile {
+
+  /** The system property which, when {@code true}, causes golden files to be rewritten rather than compared. */
+  public static final String UPDATE_PROPERTY = "plunger.golden.update";
+
+  private final File file;
+  private boolean ignoreOrder;
+  private Boolean update;
+
+  public GoldenFile(File file) {
+    if (file == null) {
+      throw new IllegalArgumentException("file == null");
+    }
+    this.file = file;
+  }
+
+  /**
+   * Compares the output with the golden file ignoring the order of the tuples. Each distinct tuple is counted exactly
+   * as it is read, so memory grows with the number of distinct tuples, see {@link Data#diff(Data)}. By default tuples
+   * are compared in order, one pair at a time, in constant memory.
+   */
+  public GoldenFile ignoringOrder() {
+    ignoreOrder = true;
+    return this;
+  }
+
+  /** Overrides the {@value #UPDATE_PROPERTY} system property for this golden file. */
+  public GoldenFile update(boolean update) {
+    this.update = update;
+    return this;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /** Asserts that the {@link Bucket#result() result} of the {@link Bucket} matches the golden file. */
+  public void assertMatches(Bucket bucket) throws IOException {
+    assertMatches(bucket.result());
+  }
+
+  /**
+   * Asserts that the {@link Data#withFields(Fields...) selected fields} of the {@link Data}, in its current
+   * {@link Data#orderBy(Fields...) order}, match the golden file. In update mode the golden file is replaced instead.
+   *
+   * @throws AssertionError if the output differs from the golden file, or the golden file does not exist.
+   */
+  public void assertMatches(Data actual) throws IOException {
+    if (isUpdate()) {
+      write(actual);
+      return;
+    }
+    if (!file.isFile()) {
+      throw new AssertionError(format("Golden file %s does not exist, run with -D%s=true to create it", file,
+          UPDATE_PROPERTY));
+    }
+    Data expected = DataSnapshot.read(file);
+    Fields actualFields = actual.selectedFields();
+    Fields expectedFields = expected.selectedFields();
+    if (!actualFields.equals(expectedFields)) {
+      throw new AssertionError(format("Output does not match golden file %s: expected fields %s, but were %s", file,
+          expectedFields.print(), actualFields.print()));
+    }
+    String differences = ignoreOrder ? unorderedDifferences(actual, expected) : orderedDifferences(actual, expected);
+    if (differences != null) {
+      throw new AssertionError(format("Output does not match golden file %s:%n%s", file, differences));
+    }
+  }
+
+  private boolean isUpdate() {
+    return update != null ? update : Boolean.getBoolean(UPDATE_PROPERTY);
+  }
+
+  /** Writes to a temporary file alongside the golden file and then replaces it, so readers never see a partial file. */
+  private void write(Data actual) throws IOException {
+    File directory = file.getAbsoluteFile().getParentFile();
+    Files.createDirectories(directory.toPath());
+    File temporary = File.createTempFile("plunger-golden-", ".tmp", directory);
+    try {
+      DataSnapshot.write(actual, temporary, true);
+      try {
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+    }
+  }
+
+  private static String unorderedDifferences(Data actual, Data expected) {
+    DataDiff diff = actual.diff(expected);
+    return diff.isEmpty() ? null : diff.toString();
+  }
+
+  /** Walks both sides together, describing at most {@link DataDiff#MAX_DESCRIBED_ROWS} differing tuples. */
+  private static String orderedDifferences(Data actual, Data expected) {
+    List<Tuple> actualTuples = actual.asTupleList();
+    List<Tuple> expectedTuples = expected.asTupleList();
+    Iterator<Tuple> actualIterator = actualTuples.iterator();
+    Iterator<Tuple> expectedIterator = expectedTuples.iterator();
+    StringBuilder description = new StringBuilder();
+    long mismatches = 0L;
+    for (int index = 0; actualIterator.hasNext() && expectedIterator.hasNext(); index++) {
+      Tuple actualTuple = actualIterator.next();
+      Tuple expectedTuple = expectedIterator.next();
+      if (!actualTuple.equals(expectedTuple)) {
+        if (mismatches < DataDiff.MAX_DESCRIBED_ROWS) {
+          description.append(format("Tuple at index %s was expected to be %s, but was %s%n", index, expectedTuple,
+              actualTuple));
+        }
+        mismatches++;
+      }
+    }
+    if (mismatches > DataDiff.MAX_DESCRIBED_ROWS) {
+      description.append(format("... and %s more differing tuple(s)%n", mismatches - DataDiff.MAX_DESCRIBED_ROWS));
+    }
+    if (actualTuples.size() != expectedTuples.size()) {
+      description.append(format("Expected %s tuple(s), but was %s%n", expectedTuples.size(), actualTuples.size()));
+    }
+    return description.length() == 0 ? null : description.toString();
+  }
+
+}
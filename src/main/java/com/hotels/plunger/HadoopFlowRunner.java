@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import org.apache.hadoop.io.serializer.JavaSerialization;
+import org.apache.hadoop.io.serializer.WritableSerialization;
+
+import cascading.flow.Flow;
+import cascading.flow.FlowDef;
+import cascading.flow.hadoop2.Hadoop2MR1FlowConnector;
+import cascading.pipe.Pipe;
+import cascading.scheme.hadoop.SequenceFile;
+import cascading.tap.Tap;
+import cascading.tap.hadoop.Hfs;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryCollector;
+
+/**
+ * Runs a plunger {@link FlowDef} with the {@link Hadoop2MR1FlowConnector} in local mode. {@link TupleListTap} sources
+ * are written to temporary sequence files before the flow runs and {@link Bucket} sinks are replaced with temporary
+ * sequence files that are read back into the buckets once it has completed. Other taps are passed through unchanged
+ * and so must be Hadoop taps.
+ * <p/>
+ * <strong>WARNING:</strong> This is exceedingly brittle as it relies on cascading internals.
+ */
+class HadoopFlowRunner {
+
+  private final FlowDef flowDef;
+
+  HadoopFlowRunner(FlowDef flowDef) {
+    this.flowDef = flowDef;
+  }
+
+  /**
+   * Plans and runs the flow, returning the completed {@link Flow}. The temporary working directory is always deleted; a
+   * failure to delete it is thrown, or suppressed by the failure of the flow if it failed.
+   */
+  Flow<?> run() {
+    Path workingDirectory;
+    try {
+      workingDirectory = Files.createTempDirectory("plunger-hadoop-");
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to create a working directory for the Hadoop flow", e);
+    }
+    Flow<?> flow;
+    try {
+      flow = run(workingDirectory.toFile());
+    } catch (Throwable t) {
+      try {
+        delete(workingDirectory);
+      } catch (IOException e) {
+        t.addSuppressed(e);
+      }
+      throw t;
+    }
+    try {
+      delete(workingDirectory);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to delete the Hadoop flow working directory: " + workingDirectory, e);
+    }
+    return flow;
+  }
+
+  private Flow<?> run(File workingDirectory) {
+    try {
+      Map<Bucket, Hfs> bucketTaps = new LinkedHashMap<Bucket, Hfs>();
+      FlowDef hadoopFlowDef = adapt(workingDirectory, bucketTaps);
+
+      Flow<?> flow = new Hadoop2MR1FlowConnector(properties()).connect(hadoopFlowDef);
+      flow.complete();
+
+      for (Entry<Bucket, Hfs> entry : bucketTaps.entrySet()) {
+        fill(entry.getKey(), entry.getValue());
+      }
+      return flow;
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to stage data for the Hadoop flow", e);
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  private FlowDef adapt(File workingDirectory, Map<Bucket, Hfs> bucketTaps) throws IOException {
+    FlowDef hadoopFlowDef = FlowDef
+        .flowDef()
+        .setName(flowDef.getName())
+        .setAssertionLevel(flowDef.getAssertionLevel())
+        .setDebugLevel(flowDef.getDebugLevel())
+        .addTraps(flowDef.getTraps())
+        .addCheckpoints(flowDef.getCheckpoints());
+
+    int index = 0;
+    for (Entry<String, Tap> source : flowDef.getSources().entrySet()) {
+      Tap tap = source.getValue();
+      if (tap instanceof TupleListTap) {
+        tap = stage((TupleListTap) tap, new File(workingDirectory, "source-" + index++));
+      }
+      hadoopFlowDef.addSource(source.getKey(), tap);
+    }
+
+    index = 0;
+    for (Entry<String, Tap> sink : flowDef.getSinks().entrySet()) {
+      Tap tap = sink.getValue();
+      if (tap instanceof Bucket) {
+        Bucket bucket = (Bucket) tap;
+        Hfs hfs = new Hfs(new SequenceFile(bucket.getSinkFields()), new File(workingDirectory, "sink-" + index++)
+            .getAbsolutePath());
+        bucketTaps.put(bucket, hfs);
+        tap = hfs;
+      }
+      hadoopFlowDef.addSink(sink.getKey(), tap);
+    }
+
+    List<Pipe> tails = flowDef.getTails();
+    hadoopFlowDef.addTails(tails.toArray(new Pipe[tails.size()]));
+    return hadoopFlowDef;
+  }
+
+  private static Hfs stage(TupleListTap tap, File directory) throws IOException {
+    Fields fields = tap.getSourceFields();
+    List<Tuple> tuples;
+    if (tap.getInput() instanceof List) {
+      tuples = (List<Tuple>) tap.getInput();
+    } else {
+      tuples = new ArrayList<Tuple>();
+      for (Tuple tuple : tap.getInput()) {
+        tuples.add(tuple);
+      }
+    }
+    Hfs hfs = new Hfs(new SequenceFile(fields), directory.getAbsolutePath());
+    new TapDataWriter(new Data(fields, tuples)).toTap(hfs);
+    return hfs;
+  }
+
+  private static void fill(Bucket bucket, Hfs hfs) throws IOException {
+    TupleEntryCollector collector = bucket.openForWrite(null, null);
+    try (TapDataStream stream = new TapDataReader(hfs).stream()) {
+      for (TupleEntry entry : stream) {
+        collector.add(entry);
+      }
+    } finally {
+      collector.close();
+    }
+  }
+
+  private static Properties properties() {
+    Properties properties = new Properties();
+    properties.setProperty("mapreduce.framework.name", "local");
+    properties.setProperty("fs.defaultFS", "file:///");
+    // Allows serializable values that Cascading cannot serialize natively to be passed between map and reduce
+    properties.setProperty("io.serializations", WritableSerialization.class.getName() + ","
+        + JavaSerialization.class.getName());
+    return properties;
+  }
+
+  /** Deletes the directory and everything in it. */
+  static void delete(Path path) throws IOException {
+    Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path directory, IOException exception) throws IOException {
+        if (exception != null) {
+          throw exception;
+        }
+        Files.delete(directory);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+/**
+ * Estimates the number of distinct values in a stream using the HyperLogLog algorithm with {@code 2^precision} 8-bit
+ * registers. The standard error is approximately {@code 1.04 / sqrt(2^precision)}, about 0.8% at the default
+ * precision.
+ */
+final class HyperLogLog {
+
+  static final int DEFAULT_PRECISION = 14;
+
+  private final int precision;
+  private final byte[] registers;
+
+  HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18) {
+      throw new IllegalArgumentException("precision must be between 4 and 18: " + precision);
+    }
+    this.precision = precision;
+    registers = new byte[1 << precision];
+  }
+
+  /** Records a value. {@code null} values are ignored. */
+  void add(Object value) {
+    if (value != null) {
+      addHash(hash(value));
+    }
+  }
+
+  void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // Guarantee termination of the leading zero count with a sentinel bit below the remaining hash bits
+    long remaining = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /** Returns the estimated number of distinct values added. */
+  long estimate() {
+    int m = registers.length;
+    double sum = 0d;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1d / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double estimate = alpha(m) * m * (double) m / sum;
+    if (estimate <= 2.5d * m && zeros > 0) {
+      // Small range correction: linear counting is more accurate while registers remain empty
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+    case 16:
+      return 0.673d;
+    case 32:
+      return 0.697d;
+    case 64:
+      return 0.709d;
+    default:
+      return 0.7213d / (1d + 1.079d / m);
+    }
+  }
+
+  /** Spreads the {@link Object#hashCode() hashCode} of a value over 64 bits. */
+  static long hash(Object value) {
+    return TupleHasher.mix(value.hashCode() * 0x9E3779B97F4A7C15L);
+  }
+
+}
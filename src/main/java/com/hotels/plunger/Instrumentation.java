@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import cascading.flow.FlowDef;
+import cascading.operation.Operation;
+import cascading.operation.PlannedOperation;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.Operator;
+import cascading.pipe.Pipe;
+import cascading.pipe.SubAssembly;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Instruments the {@link Each} and {@link Every} pipes of a {@link FlowDef} with {@link OperationProbe
+ * OperationProbes} for the duration of a run and reports their measurements. The cost of a {@link cascading.pipe.Splice
+ * Splice} such as a {@link cascading.pipe.GroupBy GroupBy} is not measured directly; reading grouped values is
+ * attributed to the {@link Every} pipe that consumes them.
+ * <p/>
+ * <strong>WARNING:</strong> This is exceedingly brittle as it relies on cascading internals; the operation of each
+ * {@link Operator} is swapped reflectively and restored once the run completes.
+ */
+class Instrumentation {
+
+  static final Fields REPORT_FIELDS = new Fields("pipe", "operator", "operation", "tuples_in", "tuples_out",
+      "wall_ms", "self_ms", "allocated_bytes");
+
+  private static final ConcurrentMap<String, OperationProbe.Stats> REGISTRY = //
+      new ConcurrentHashMap<String, OperationProbe.Stats>();
+
+  private final List<Probe> probes = new ArrayList<Probe>();
+
+  /** Wraps the operation of every {@link Operator} reachable from the tails of the {@link FlowDef}. */
+  void install(FlowDef flowDef) {
+    Set<Pipe> visited = Collections.newSetFromMap(new IdentityHashMap<Pipe, Boolean>());
+    for (Pipe tail : flowDef.getTails()) {
+      visit(tail, visited);
+    }
+  }
+
+  /** Restores the original operations. */
+  void uninstall() {
+    for (Probe probe : probes) {
+      setOperation(probe.operator, probe.operation);
+      REGISTRY.remove(probe.statsId);
+    }
+  }
+
+  /** Returns one row per instrumented operation, in the order in which they appear in the assembly. */
+  Data report() {
+    List<Tuple> tuples = new ArrayList<Tuple>(probes.size());
+    for (Probe probe : probes) {
+      tuples.add(new Tuple(probe.operator.getName(), probe.operator.getClass().getSimpleName(), probe.operation
+          .getClass()
+          .getSimpleName(), probe.stats.tuplesIn.get(), probe.stats.tuplesOut.get(), TimeUnit.NANOSECONDS
+          .toMillis(probe.stats.wallNanos.get()), TimeUnit.NANOSECONDS.toMillis(probe.stats.selfNanos.get()),
+          probe.stats.allocatedBytes.get()));
+    }
+    return new Data(REPORT_FIELDS, Collections.unmodifiableList(tuples));
+  }
+
+  static OperationProbe.Stats getStats(String statsId) {
+    OperationProbe.Stats stats = REGISTRY.get(statsId);
+    if (stats == null) {
+      throw new IllegalStateException("No instrumentation registered for " + statsId
+          + ", probes can only report within the JVM that installed them.");
+    }
+    return stats;
+  }
+
+  /* Visits previous pipes first so that probes are in assembly order */
+  private void visit(Pipe pipe, Set<Pipe> visited) {
+    if (!visited.add(pipe)) {
+      return;
+    }
+    if (pipe instanceof SubAssembly) {
+      for (Pipe tail : ((SubAssembly) pipe).getTails()) {
+        visit(tail, visited);
+      }
+    }
+    for (Pipe previous : pipe.getPrevious()) {
+      visit(previous, visited);
+    }
+    if (pipe instanceof Operator) {
+      instrument((Operator) pipe);
+    }
+  }
+
+  private void instrument(Operator operator) {
+    Operation<?> operation = operator.getOperation();
+    if (operation instanceof PlannedOperation || operation instanceof OperationProbe) {
+      // Assertions and debug operations may be removed by the planner, leave them alone
+      return;
+    }
+    String statsId = UUID.randomUUID().toString();
+    OperationProbe.Stats stats = new OperationProbe.Stats();
+    REGISTRY.put(statsId, stats);
+    setOperation(operator, OperationProbe.wrap(operation, statsId));
+    probes.add(new Probe(operator, operation, statsId, stats));
+  }
+
+  private static void setOperation(Operator operator, Operation<?> operation) {
+    try {
+      Field field = Operator.class.getDeclaredField("operation");
+      field.setAccessible(true);
+      field.set(operator, operation);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      throw new IllegalStateException("Unable to instrument " + operator, e);
+    }
+  }
+
+  private static final class Probe {
+    private final Operator operator;
+    private final Operation<?> operation;
+    private final String statsId;
+    private final OperationProbe.Stats stats;
+
+    private Probe(Operator operator, Operation<?> operation, String statsId, OperationProbe.Stats stats) {
+      this.operator = operator;
+      this.operation = operation;
+      this.statsId = statsId;
+      this.stats = stats;
+    }
+  }
+
+}
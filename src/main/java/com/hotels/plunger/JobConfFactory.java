@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.Map.Entry;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+
+/**
+ * Supplies {@link JobConf JobConfs} for reading and writing Hadoop taps. Constructing a {@link JobConf} from scratch
+ * loads and parses the Hadoop default and site XML resources on first access; this factory does so once for a template
+ * and hands out copies of it, which only copy the already parsed properties.
+ */
+final class JobConfFactory {
+
+  /** Shared factory with the default Hadoop configuration. */
+  static final JobConfFactory DEFAULT = new JobConfFactory(null, null);
+
+  private final JobConfFactory base;
+  private final Configuration overrides;
+  private volatile JobConf template;
+
+  private JobConfFactory(JobConfFactory base, Configuration overrides) {
+    this.base = base;
+    this.overrides = overrides;
+  }
+
+  /**
+   * Returns a factory whose {@link JobConf JobConfs} are those of this factory with the supplied properties applied on
+   * top.
+   */
+  JobConfFactory withOverrides(Configuration overrides) {
+    if (overrides == null) {
+      throw new IllegalArgumentException("overrides cannot be null");
+    }
+    return new JobConfFactory(this, new Configuration(overrides));
+  }
+
+  /** Returns a new {@link JobConf} that may be freely modified by the caller. */
+  JobConf newJobConf() {
+    return new JobConf(getTemplate());
+  }
+
+  private JobConf getTemplate() {
+    JobConf result = template;
+    if (result == null) {
+      synchronized (this) {
+        result = template;
+        if (result == null) {
+          result = createTemplate();
+          template = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private JobConf createTemplate() {
+    JobConf conf = base == null ? new JobConf() : base.newJobConf();
+    if (overrides != null) {
+      for (Entry<String, String> entry : overrides) {
+        conf.set(entry.getKey(), entry.getValue());
+      }
+    }
+    // Forces the resources to be loaded and parsed now, copies will then share the parsed properties
+    conf.size();
+    return conf;
+  }
+
+}
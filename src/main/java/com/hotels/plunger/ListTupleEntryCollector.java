@@ -22,7 +22,11 @@ import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
 import cascading.tuple.TupleEntryCollector;
 
-/** A TupleEntryCollector that collections {@link Tuple Tuples} into a list. */
+/**
+ * A TupleEntryCollector that collections {@link Tuple Tuples} into a list. The last modified time is updated when the
+ * collector is opened and closed rather than for each {@link Tuple}, as reading the clock per {@link Tuple} is a
+ * measurable cost on large outputs.
+ */
 class ListTupleEntryCollector extends TupleEntryCollector {
 
   private final LastModifiedCallback callback;
@@ -35,12 +39,19 @@ class ListTupleEntryCollector extends TupleEntryCollector {
   ListTupleEntryCollector(List<Tuple> output, LastModifiedCallback callback) {
     this.output = output;
     this.callback = callback;
+    callback.modified();
   }
 
+  /** Copies the {@link Tuple} once, the incoming instance is reused by Cascading. */
   @Override
   protected void collect(TupleEntry tupleEntry) throws IOException {
-    callback.modified();
     output.add(tupleEntry.getTupleCopy());
   }
 
+  @Override
+  public void close() {
+    callback.modified();
+    super.close();
+  }
+
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Base class for JMH benchmarks that drive a Cascading operation through its full lifecycle using one of the call
+ * stubs. Each benchmark invocation replays the complete call stream held by the stub builder, so the measured time and
+ * allocation cover exactly {@link #getTuplesPerInvocation()} tuples.
+ * <p/>
+ * Extend {@link FunctionBenchmark}, {@link AggregatorBenchmark} or {@link BufferBenchmark} in a class that is
+ * processed by the JMH annotation processor and execute it with {@link #run(Class, int)} to obtain ops/sec, ns/tuple
+ * and bytes allocated per tuple. The JMH defaults declared here may be overridden with annotations on the subclass.
+ * <p/>
+ * These classes use JMH types in their API, but plunger only declares {@code org.openjdk.jmh:jmh-core} as a
+ * {@code provided} dependency. Projects declaring benchmarks must add {@code jmh-core} themselves so that it is
+ * present at runtime wherever the benchmarks are loaded or run, as well as
+ * {@code org.openjdk.jmh:jmh-generator-annprocess} when compiling them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public abstract class OperationBenchmark {
+
+  static final String ALLOCATION_RATE_NORM = "\u00b7gc.alloc.rate.norm";
+  /** Passes the expected number of tuples per invocation from {@link #run(Class, int)} to the forked benchmark. */
+  static final String EXPECTED_TUPLES_PROPERTY = "plunger.benchmark.tuplesPerInvocation";
+
+  private int tuplesPerInvocation;
+
+  OperationBenchmark() {
+  }
+
+  /**
+   * Creates the call stream and the operation under test. Invoked by JMH once per trial. When run with
+   * {@link #run(Class, int)} the number of tuples in the call stream must match the number expected there.
+   */
+  @Setup(Level.Trial)
+  public final void setup() {
+    tuplesPerInvocation = prepare();
+    if (tuplesPerInvocation <= 0) {
+      throw new IllegalStateException("The call stub builder must contain at least one tuple");
+    }
+    String expected = System.getProperty(EXPECTED_TUPLES_PROPERTY);
+    if (expected != null && Integer.parseInt(expected) != tuplesPerInvocation) {
+      throw new IllegalStateException("The call stub builder contains " + tuplesPerInvocation + " tuples, but "
+          + expected + " were expected per invocation");
+    }
+  }
+
+  /** The number of tuples delivered to the operation by each benchmark invocation. */
+  public int getTuplesPerInvocation() {
+    return tuplesPerInvocation;
+  }
+
+  /** Builds the call stream and operation, returning the number of tuples each invocation will deliver. */
+  abstract int prepare();
+
+  /**
+   * Runs the benchmarks declared by the supplied class with the JMH {@link GCProfiler} and normalizes the results by
+   * the supplied number of tuples in each invocation, which must be the number of tuples held by the call stub builder.
+   * Each forked benchmark checks this in its {@link #setup()}, so a mismatch fails the run rather than skewing the
+   * results.
+   */
+  public static List<OperationBenchmarkResult> run(Class<? extends OperationBenchmark> benchmarkClass,
+      int tuplesPerInvocation) throws RunnerException {
+    if (benchmarkClass == null) {
+      throw new IllegalArgumentException("benchmarkClass == null");
+    }
+    if (Modifier.isAbstract(benchmarkClass.getModifiers())) {
+      throw new IllegalArgumentException("Cannot run an abstract class: " + benchmarkClass.getName());
+    }
+    if (tuplesPerInvocation <= 0) {
+      throw new IllegalArgumentException("tuplesPerInvocation <= 0: " + tuplesPerInvocation);
+    }
+    Collection<RunResult> runResults = new Runner(new OptionsBuilder()
+        .include("^" + Pattern.quote(benchmarkClass.getName()) + "\\.")
+        .addProfiler(GCProfiler.class)
+        .jvmArgsAppend("-D" + EXPECTED_TUPLES_PROPERTY + "=" + tuplesPerInvocation)
+        .build()).run();
+
+    List<OperationBenchmarkResult> results = new ArrayList<OperationBenchmarkResult>(runResults.size());
+    for (RunResult runResult : runResults) {
+      Result<?> primary = runResult.getPrimaryResult();
+      double nanosPerInvocation = primary.getScore()
+          * TimeUnit.NANOSECONDS.convert(1, runResult.getParams().getTimeUnit());
+      Result<?> allocation = runResult.getSecondaryResults().get(ALLOCATION_RATE_NORM);
+      double bytesPerInvocation = allocation == null ? Double.NaN : allocation.getScore();
+      results.add(new OperationBenchmarkResult(runResult.getParams().getBenchmark(), tuplesPerInvocation,
+          nanosPerInvocation, bytesPerInvocation));
+    }
+    return results;
+  }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.Locale;
+
+/**
+ * The outcome of an {@link OperationBenchmark}, normalized by the number of tuples delivered to the operation in each
+ * benchmark invocation.
+ */
+public final class OperationBenchmarkResult {
+
+  private static final double NANOS_PER_SECOND = 1000000000d;
+
+  private final String benchmark;
+  private final int tuplesPerInvocation;
+  private final double nanosPerInvocation;
+  private final double bytesPerInvocation;
+
+  OperationBenchmarkResult(String benchmark, int tuplesPerInvocation, double nanosPerInvocation,
+      double bytesPerInvocation) {
+    this.benchmark = benchmark;
+    this.tuplesPerInvocation = tuplesPerInvocation;
+    this.nanosPerInvocation = nanosPerInvocation;
+    this.bytesPerInvocation = bytesPerInvocation;
+  }
+
+  /** The fully qualified name of the benchmark method. */
+  public String getBenchmark() {
+    return benchmark;
+  }
+
+  public int getTuplesPerInvocation() {
+    return tuplesPerInvocation;
+  }
+
+  /** Complete passes over the call stream per second. */
+  public double getOperationsPerSecond() {
+    return NANOS_PER_SECOND / nanosPerInvocation;
+  }
+
+  /** Tuples processed per second. */
+  public double getTuplesPerSecond() {
+    return getOperationsPerSecond() * tuplesPerInvocation;
+  }
+
+  public double getNanosPerTuple() {
+    return nanosPerInvocation / tuplesPerInvocation;
+  }
+
+  /** Bytes allocated per tuple, or {@link Double#NaN} if the JVM does not report allocation. */
+  public double getBytesPerTuple() {
+    return bytesPerInvocation / tuplesPerInvocation;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "%s: %.1f ops/s, %.1f ns/tuple, %.1f bytes/tuple (%d tuples/op)", benchmark,
+        getOperationsPerSecond(), getNanosPerTuple(), getBytesPerTuple(), tuplesPerInvocation);
+  }
+
+}
@@ -0,0 +1,423 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cascading.flow.FlowProcess;
+import cascading.operation.Aggregator;
+import cascading.operation.AggregatorCall;
+import cascading.operation.Buffer;
+import cascading.operation.BufferCall;
+import cascading.operation.Filter;
+import cascading.operation.FilterCall;
+import cascading.operation.Function;
+import cascading.operation.FunctionCall;
+import cascading.operation.Operation;
+import cascading.operation.OperationCall;
+import cascading.pipe.joiner.JoinerClosure;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryCollector;
+
+/**
+ * Wraps an {@link Operation} to record the number of {@link Tuple Tuples} it receives and emits, the time spent in
+ * it, and the bytes it allocates. Time and allocation are recorded both inclusive of, and exclusive of, the downstream
+ * work triggered by each emitted {@link Tuple}. Probes are serializable so that they can be shipped with a Hadoop job;
+ * they record into {@link Stats} held by {@link Instrumentation} under an identifier, which works only when the job
+ * runs in the same JVM.
+ * <p/>
+ * The wrapped operation's context is held in a {@link ProbeContext} alongside the call wrappers, so that nothing is
+ * allocated per {@link Tuple}.
+ */
+abstract class OperationProbe<O extends Operation<Object>> implements Operation<OperationProbe.ProbeContext>,
+    Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  final O delegate;
+  private final String statsId;
+  private transient Stats stats;
+
+  OperationProbe(O delegate, String statsId) {
+    this.delegate = delegate;
+    this.statsId = statsId;
+  }
+
+  /** Creates a probe appropriate for the type of the supplied {@link Operation}. */
+  @SuppressWarnings("unchecked")
+  static Operation<?> wrap(Operation<?> operation, String statsId) {
+    if (operation instanceof Function) {
+      return new FunctionProbe((Function<Object>) operation, statsId);
+    } else if (operation instanceof Filter) {
+      return new FilterProbe((Filter<Object>) operation, statsId);
+    } else if (operation instanceof Aggregator) {
+      return new AggregatorProbe((Aggregator<Object>) operation, statsId);
+    } else if (operation instanceof Buffer) {
+      return new BufferProbe((Buffer<Object>) operation, statsId);
+    }
+    throw new IllegalArgumentException("Unsupported operation type: " + operation.getClass());
+  }
+
+  @Override
+  public void prepare(FlowProcess flowProcess, OperationCall<ProbeContext> operationCall) {
+    ProbeContext context = new ProbeContext(stats());
+    operationCall.setContext(context);
+    delegate.prepare(flowProcess, context.wrap(operationCall));
+  }
+
+  @Override
+  public void flush(FlowProcess flowProcess, OperationCall<ProbeContext> operationCall) {
+    delegate.flush(flowProcess, operationCall.getContext().wrap(operationCall));
+  }
+
+  @Override
+  public void cleanup(FlowProcess flowProcess, OperationCall<ProbeContext> operationCall) {
+    delegate.cleanup(flowProcess, operationCall.getContext().wrap(operationCall));
+  }
+
+  @Override
+  public Fields getFieldDeclaration() {
+    return delegate.getFieldDeclaration();
+  }
+
+  @Override
+  public int getNumArgs() {
+    return delegate.getNumArgs();
+  }
+
+  @Override
+  public boolean isSafe() {
+    return delegate.isSafe();
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+
+  private Stats stats() {
+    if (stats == null) {
+      stats = Instrumentation.getStats(statsId);
+    }
+    return stats;
+  }
+
+  static long allocatedBytes() {
+    if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0L;
+  }
+
+  /** Accumulates the measurements of a single operation, may be updated concurrently. */
+  static final class Stats {
+    final AtomicLong tuplesIn = new AtomicLong();
+    final AtomicLong tuplesOut = new AtomicLong();
+    final AtomicLong wallNanos = new AtomicLong();
+    final AtomicLong selfNanos = new AtomicLong();
+    final AtomicLong allocatedBytes = new AtomicLong();
+  }
+
+  /** Holds the wrapped operation's context and the reusable call wrappers for a single operation call. */
+  static final class ProbeContext {
+    private final Stats stats;
+    private final ProbeCollector collector;
+    private final ProbeCall call = new ProbeCall();
+    private final CountingIterator arguments = new CountingIterator();
+    private Object delegateContext;
+    private long startNanos;
+    private long startBytes;
+
+    private ProbeContext(Stats stats) {
+      this.stats = stats;
+      collector = new ProbeCollector(stats);
+    }
+
+    private ProbeCall wrap(OperationCall<ProbeContext> operationCall) {
+      call.operationCall = operationCall;
+      return call;
+    }
+
+    private void start() {
+      collector.downstreamNanos = 0L;
+      collector.downstreamBytes = 0L;
+      startBytes = allocatedBytes();
+      startNanos = System.nanoTime();
+    }
+
+    private void stop(long tuplesIn) {
+      long wallNanos = System.nanoTime() - startNanos;
+      long bytes = allocatedBytes() - startBytes;
+      stats.tuplesIn.addAndGet(tuplesIn);
+      stats.wallNanos.addAndGet(wallNanos);
+      stats.selfNanos.addAndGet(wallNanos - collector.downstreamNanos);
+      stats.allocatedBytes.addAndGet(bytes - collector.downstreamBytes);
+    }
+
+    /**
+     * Presents the underlying call to the wrapped operation with its own context and a counting output collector.
+     * Implements all of the call types so that a single instance can be reused whatever the operation type.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private final class ProbeCall implements FunctionCall<Object>, FilterCall<Object>, AggregatorCall<Object>,
+        BufferCall<Object> {
+
+      private OperationCall<ProbeContext> operationCall;
+
+      @Override
+      public Object getContext() {
+        return delegateContext;
+      }
+
+      @Override
+      public void setContext(Object context) {
+        delegateContext = context;
+      }
+
+      @Override
+      public Fields getArgumentFields() {
+        return operationCall.getArgumentFields();
+      }
+
+      @Override
+      public TupleEntry getArguments() {
+        if (operationCall instanceof FunctionCall) {
+          return ((FunctionCall) operationCall).getArguments();
+        } else if (operationCall instanceof FilterCall) {
+          return ((FilterCall) operationCall).getArguments();
+        }
+        return ((AggregatorCall) operationCall).getArguments();
+      }
+
+      @Override
+      public Fields getDeclaredFields() {
+        if (operationCall instanceof FunctionCall) {
+          return ((FunctionCall) operationCall).getDeclaredFields();
+        } else if (operationCall instanceof AggregatorCall) {
+          return ((AggregatorCall) operationCall).getDeclaredFields();
+        }
+        return ((BufferCall) operationCall).getDeclaredFields();
+      }
+
+      @Override
+      public TupleEntryCollector getOutputCollector() {
+        TupleEntryCollector output;
+        if (operationCall instanceof FunctionCall) {
+          output = ((FunctionCall) operationCall).getOutputCollector();
+        } else if (operationCall instanceof AggregatorCall) {
+          output = ((AggregatorCall) operationCall).getOutputCollector();
+        } else {
+          output = ((BufferCall) operationCall).getOutputCollector();
+        }
+        collector.delegate = output;
+        return collector;
+      }
+
+      @Override
+      public TupleEntry getGroup() {
+        if (operationCall instanceof AggregatorCall) {
+          return ((AggregatorCall) operationCall).getGroup();
+        }
+        return ((BufferCall) operationCall).getGroup();
+      }
+
+      @Override
+      public Iterator<TupleEntry> getArgumentsIterator() {
+        arguments.delegate = ((BufferCall) operationCall).getArgumentsIterator();
+        return arguments;
+      }
+
+      @Override
+      public void setRetainValues(boolean retainValues) {
+        ((BufferCall) operationCall).setRetainValues(retainValues);
+      }
+
+      @Override
+      public boolean isRetainValues() {
+        return ((BufferCall) operationCall).isRetainValues();
+      }
+
+      @Override
+      public JoinerClosure getJoinerClosure() {
+        return ((BufferCall) operationCall).getJoinerClosure();
+      }
+    }
+  }
+
+  /** Counts emitted {@link Tuple Tuples} and the time and allocation spent downstream of the operation. */
+  private static final class ProbeCollector extends TupleEntryCollector {
+    private final Stats stats;
+    private TupleEntryCollector delegate;
+    private long downstreamNanos;
+    private long downstreamBytes;
+
+    private ProbeCollector(Stats stats) {
+      this.stats = stats;
+    }
+
+    @Override
+    public void setFields(Fields declared) {
+      delegate.setFields(declared);
+    }
+
+    @Override
+    public void add(TupleEntry tupleEntry) {
+      long bytes = allocatedBytes();
+      long nanos = System.nanoTime();
+      delegate.add(tupleEntry);
+      downstreamNanos += System.nanoTime() - nanos;
+      downstreamBytes += allocatedBytes() - bytes;
+      stats.tuplesOut.incrementAndGet();
+    }
+
+    @Override
+    public void add(Tuple tuple) {
+      long bytes = allocatedBytes();
+      long nanos = System.nanoTime();
+      delegate.add(tuple);
+      downstreamNanos += System.nanoTime() - nanos;
+      downstreamBytes += allocatedBytes() - bytes;
+      stats.tuplesOut.incrementAndGet();
+    }
+
+    @Override
+    protected void collect(TupleEntry tupleEntry) {
+      add(tupleEntry);
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+
+  /** Counts the arguments consumed by a {@link Buffer}. */
+  private static final class CountingIterator implements Iterator<TupleEntry> {
+    private Iterator<TupleEntry> delegate;
+    private long count;
+
+    @Override
+    public boolean hasNext() {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public TupleEntry next() {
+      TupleEntry next = delegate.next();
+      count++;
+      return next;
+    }
+
+    @Override
+    public void remove() {
+      delegate.remove();
+    }
+  }
+
+  static final class FunctionProbe extends OperationProbe<Function<Object>> implements Function<ProbeContext> {
+    private static final long serialVersionUID = 1L;
+
+    FunctionProbe(Function<Object> delegate, String statsId) {
+      super(delegate, statsId);
+    }
+
+    @Override
+    public void operate(FlowProcess flowProcess, FunctionCall<ProbeContext> functionCall) {
+      ProbeContext context = functionCall.getContext();
+      context.start();
+      delegate.operate(flowProcess, context.wrap(functionCall));
+      context.stop(1L);
+    }
+  }
+
+  static final class FilterProbe extends OperationProbe<Filter<Object>> implements Filter<ProbeContext> {
+    private static final long serialVersionUID = 1L;
+
+    FilterProbe(Filter<Object> delegate, String statsId) {
+      super(delegate, statsId);
+    }
+
+    @Override
+    public boolean isRemove(FlowProcess flowProcess, FilterCall<ProbeContext> filterCall) {
+      ProbeContext context = filterCall.getContext();
+      context.start();
+      boolean remove = delegate.isRemove(flowProcess, context.wrap(filterCall));
+      context.stop(1L);
+      if (!remove) {
+        context.stats.tuplesOut.incrementAndGet();
+      }
+      return remove;
+    }
+  }
+
+  static final class AggregatorProbe extends OperationProbe<Aggregator<Object>> implements Aggregator<ProbeContext> {
+    private static final long serialVersionUID = 1L;
+
+    AggregatorProbe(Aggregator<Object> delegate, String statsId) {
+      super(delegate, statsId);
+    }
+
+    @Override
+    public void start(FlowProcess flowProcess, AggregatorCall<ProbeContext> aggregatorCall) {
+      ProbeContext context = aggregatorCall.getContext();
+      context.start();
+      delegate.start(flowProcess, context.wrap(aggregatorCall));
+      context.stop(0L);
+    }
+
+    @Override
+    public void aggregate(FlowProcess flowProcess, AggregatorCall<ProbeContext> aggregatorCall) {
+      ProbeContext context = aggregatorCall.getContext();
+      context.start();
+      delegate.aggregate(flowProcess, context.wrap(aggregatorCall));
+      context.stop(1L);
+    }
+
+    @Override
+    public void complete(FlowProcess flowProcess, AggregatorCall<ProbeContext> aggregatorCall) {
+      ProbeContext context = aggregatorCall.getContext();
+      context.start();
+      delegate.complete(flowProcess, context.wrap(aggregatorCall));
+      context.stop(0L);
+    }
+  }
+
+  static final class BufferProbe extends OperationProbe<Buffer<Object>> implements Buffer<ProbeContext> {
+    private static final long serialVersionUID = 1L;
+
+    BufferProbe(Buffer<Object> delegate, String statsId) {
+      super(delegate, statsId);
+    }
+
+    @Override
+    public void operate(FlowProcess flowProcess, BufferCall<ProbeContext> bufferCall) {
+      ProbeContext context = bufferCall.getContext();
+      context.arguments.count = 0L;
+      context.start();
+      delegate.operate(flowProcess, context.wrap(bufferCall));
+      context.stop(context.arguments.count);
+    }
+  }
+
+}
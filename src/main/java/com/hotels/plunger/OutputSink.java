@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.List;
+
+import cascading.tuple.TupleEntry;
+
+/**
+ * Receives the {@link TupleEntry TupleEntries} emitted by an operation driven by one of the call stubs. Implementations
+ * decide how much of the output is retained, allowing large call streams to be verified in constant memory. See
+ * {@link OutputSinks} for the standard implementations.
+ */
+public interface OutputSink {
+
+  /**
+   * Receives a single emitted {@link TupleEntry}. The entry and its tuple may be reused by the stub after this method
+   * returns, so implementations must copy any values that they retain.
+   */
+  void collect(TupleEntry tupleEntry);
+
+  /** The entries retained by this sink in the order that they were collected. Backs the stub's {@code result()}. */
+  List<TupleEntry> getRetained();
+
+  /** Discards any state held by this sink. Invoked when the stub is reset. */
+  void reset();
+
+}
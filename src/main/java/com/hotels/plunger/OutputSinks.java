@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import cascading.tuple.TupleEntry;
+
+/**
+ * Factory methods for the standard {@link OutputSink} implementations. Set a sink with {@code output(OutputSink)} on
+ * any of the call stub builders.
+ */
+public final class OutputSinks {
+
+  private OutputSinks() {
+  }
+
+  /** Retains a copy of every collected entry. This is the default for all call stubs. */
+  public static OutputSink retainAll() {
+    return new FirstNOutputSink(Integer.MAX_VALUE);
+  }
+
+  /** Retains nothing; the number of collected entries is still available from the stub's {@code getOutputCount()}. */
+  public static OutputSink countOnly() {
+    return new FirstNOutputSink(0);
+  }
+
+  /** Retains a copy of the first {@code n} collected entries only. */
+  public static OutputSink firstN(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("n < 0: " + n);
+    }
+    return new FirstNOutputSink(n);
+  }
+
+  /** Computes a checksum of all collected entries that depends on the order in which they were emitted. */
+  public static DigestOutputSink orderedDigest() {
+    return new DigestOutputSink(true);
+  }
+
+  /** Computes a checksum of all collected entries that is independent of the order in which they were emitted. */
+  public static DigestOutputSink unorderedDigest() {
+    return new DigestOutputSink(false);
+  }
+
+  /** Passes each collected entry to the supplied callback and retains nothing. */
+  public static OutputSink callback(Callback callback) {
+    if (callback == null) {
+      throw new IllegalArgumentException("callback == null");
+    }
+    return new CallbackOutputSink(callback);
+  }
+
+  /** Receives the entries passed to a {@link OutputSinks#callback(Callback) callback sink}. */
+  public interface Callback {
+    /** The entry may be reused once this method returns, copy any values that need to be retained. */
+    void collect(TupleEntry tupleEntry);
+  }
+
+  private static final class FirstNOutputSink implements OutputSink {
+    private final int limit;
+    private final List<TupleEntry> retained = new ArrayList<TupleEntry>();
+
+    private FirstNOutputSink(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void collect(TupleEntry tupleEntry) {
+      if (retained.size() < limit) {
+        retained.add(new TupleEntry(tupleEntry));
+      }
+    }
+
+    @Override
+    public List<TupleEntry> getRetained() {
+      return Collections.unmodifiableList(retained);
+    }
+
+    @Override
+    public void reset() {
+      retained.clear();
+    }
+  }
+
+  private static final class CallbackOutputSink implements OutputSink {
+    private final Callback callback;
+
+    private CallbackOutputSink(Callback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void collect(TupleEntry tupleEntry) {
+      callback.collect(tupleEntry);
+    }
+
+    @Override
+    public List<TupleEntry> getRetained() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public void reset() {
+    }
+  }
+
+}
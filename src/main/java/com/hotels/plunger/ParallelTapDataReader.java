@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+
+import cascading.flow.hadoop.HadoopFlowProcess;
+import cascading.scheme.Scheme;
+import cascading.tap.CompositeTap;
+import cascading.tap.Tap;
+import cascading.tap.hadoop.Hfs;
+import cascading.tap.partition.BasePartitionTap;
+import cascading.tap.partition.Partition;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryIterator;
+
+/**
+ * Reads data from {@link Tap Taps} using a bounded pool of threads. Hadoop taps are broken down into units of work
+ * that can be read independently: the children of a {@link CompositeTap}, the partitions of a {@link BasePartitionTap}
+ * that its source partition filters accept, and the input splits of an {@link Hfs}. Any other tap is read as a single
+ * unit of work.
+ * <p/>
+ * When ordering is preserved the {@link Tuple Tuples} are returned in the order of the units of work that produced
+ * them, which for a given set of input files is deterministic. Otherwise units are merged as they complete.
+ */
+class ParallelTapDataReader {
+
+  private final Tap<?, ?, ?> source;
+  private final JobConfFactory jobConfFactory;
+  private final int threads;
+  private final boolean preserveOrder;
+
+  ParallelTapDataReader(Tap<?, ?, ?> source, JobConfFactory jobConfFactory, int threads, boolean preserveOrder) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be greater than 0: " + threads);
+    }
+    this.source = source;
+    this.jobConfFactory = jobConfFactory;
+    this.threads = threads;
+    this.preserveOrder = preserveOrder;
+  }
+
+  Data read() throws IOException {
+    List<Callable<List<Tuple>>> tasks = new ArrayList<Callable<List<Tuple>>>();
+    addTasks(source, tasks);
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+    try {
+      List<Tuple> tuples = preserveOrder ? readInOrder(executor, tasks) : readAsCompleted(executor, tasks);
+      return new Data(source.getSourceFields(), Collections.unmodifiableList(tuples));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void addTasks(Tap<?, ?, ?> tap, List<Callable<List<Tuple>>> tasks) throws IOException {
+    if (!Configuration.class.equals(TapTypeUtil.getTapConfigClass(tap))) {
+      tasks.add(new TapReadTask(tap, jobConfFactory));
+    } else if (tap instanceof CompositeTap) {
+      Iterator<?> childTaps = ((CompositeTap<?>) tap).getChildTaps();
+      while (childTaps.hasNext()) {
+        addTasks((Tap<?, ?, ?>) childTaps.next(), tasks);
+      }
+    } else if (tap instanceof BasePartitionTap) {
+      addPartitionTasks(tap, tasks);
+    } else if (tap instanceof Hfs) {
+      addSplitTasks((Hfs) tap, tasks);
+    } else {
+      tasks.add(new TapReadTask(tap, jobConfFactory));
+    }
+  }
+
+  private void addPartitionTasks(Tap<?, ?, ?> tap, List<Callable<List<Tuple>>> tasks) throws IOException {
+    @SuppressWarnings("unchecked")
+    BasePartitionTap<Configuration, ?, ?> partitionTap = (BasePartitionTap<Configuration, ?, ?>) tap;
+    JobConf conf = jobConfFactory.newJobConf();
+    String parentIdentifier = new Path(partitionTap.getParent().getFullIdentifier(conf)).toString();
+    // Initialise the tap as a flow would, so that only the partitions accepted by its source partition filters are read
+    partitionTap.sourceConfInit(new HadoopFlowProcess(conf), conf);
+    Path[] childPaths = FileInputFormat.getInputPaths(conf);
+    if (childPaths.length == 0) {
+      tasks.add(new TapReadTask(tap, jobConfFactory));
+      return;
+    }
+
+    Partition partition = partitionTap.getPartition();
+    Fields partitionFields = partition.getPartitionFields();
+    @SuppressWarnings("unchecked")
+    Scheme<Configuration, RecordReader, OutputCollector, ?, ?> scheme = (Scheme<Configuration, RecordReader, OutputCollector, ?, ?>) partitionTap
+        .getParent()
+        .getScheme();
+
+    List<Callable<List<Tuple>>> partitionTasks = new ArrayList<Callable<List<Tuple>>>();
+    for (Path childPath : childPaths) {
+      String childIdentifier = childPath.toString();
+      if (!childIdentifier.startsWith(parentIdentifier + "/")) {
+        // Unable to derive the partition values ourselves, defer to the tap
+        tasks.add(new TapReadTask(tap, jobConfFactory));
+        return;
+      }
+      String partitionPath = childIdentifier.substring(parentIdentifier.length() + 1);
+      if (isHidden(partitionPath)) {
+        continue;
+      }
+      TupleEntry partitionEntry = new TupleEntry(partitionFields, Tuple.size(partitionFields.size()));
+      partition.toTuple(partitionPath, partitionEntry);
+      partitionTasks.add(new PartitionReadTask(new Hfs(scheme, childIdentifier), jobConfFactory,
+          partitionEntry.getTuple()));
+    }
+    tasks.addAll(partitionTasks);
+  }
+
+  private void addSplitTasks(Hfs hfs, List<Callable<List<Tuple>>> tasks) throws IOException {
+    JobConf conf = jobConfFactory.newJobConf();
+    hfs.sourceConfInit(new HadoopFlowProcess(conf), conf);
+    InputSplit[] splits = conf.getInputFormat().getSplits(conf, threads);
+    for (InputSplit split : splits) {
+      tasks.add(new SplitReadTask(hfs, conf, split));
+    }
+  }
+
+  private static boolean isHidden(String path) {
+    for (String element : path.split("/")) {
+      if (element.startsWith("_") || element.startsWith(".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<Tuple> readInOrder(ExecutorService executor, List<Callable<List<Tuple>>> tasks)
+    throws IOException {
+    List<Future<List<Tuple>>> futures = new ArrayList<Future<List<Tuple>>>(tasks.size());
+    for (Callable<List<Tuple>> task : tasks) {
+      futures.add(executor.submit(task));
+    }
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (Future<List<Tuple>> future : futures) {
+      tuples.addAll(getResult(future));
+    }
+    return tuples;
+  }
+
+  private static List<Tuple> readAsCompleted(ExecutorService executor, List<Callable<List<Tuple>>> tasks)
+    throws IOException {
+    CompletionService<List<Tuple>> completionService = new ExecutorCompletionService<List<Tuple>>(executor);
+    for (Callable<List<Tuple>> task : tasks) {
+      completionService.submit(task);
+    }
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < tasks.size(); i++) {
+      try {
+        tuples.addAll(getResult(completionService.take()));
+      } catch (InterruptedException e) {
+        throw interrupted(e);
+      }
+    }
+    return tuples;
+  }
+
+  private static List<Tuple> getResult(Future<List<Tuple>> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw interrupted(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static InterruptedIOException interrupted(InterruptedException e) {
+    Thread.currentThread().interrupt();
+    InterruptedIOException exception = new InterruptedIOException("Interrupted while reading tap");
+    exception.initCause(e);
+    return exception;
+  }
+
+  private static List<Tuple> readAll(TupleEntryIterator iterator) throws IOException {
+    try {
+      List<Tuple> tuples = new ArrayList<Tuple>();
+      while (iterator.hasNext()) {
+        tuples.add(iterator.next().getTupleCopy());
+      }
+      return tuples;
+    } finally {
+      iterator.close();
+    }
+  }
+
+  /** Reads an entire {@link Tap} on a single thread. */
+  private static final class TapReadTask implements Callable<List<Tuple>> {
+    private final Tap<?, ?, ?> tap;
+    private final JobConfFactory jobConfFactory;
+
+    TapReadTask(Tap<?, ?, ?> tap, JobConfFactory jobConfFactory) {
+      this.tap = tap;
+      this.jobConfFactory = jobConfFactory;
+    }
+
+    @Override
+    public List<Tuple> call() throws IOException {
+      return new TapDataReader(tap, jobConfFactory).read().getTuples();
+    }
+  }
+
+  /** Reads a single partition and appends the partition values to each {@link Tuple}. */
+  private static final class PartitionReadTask implements Callable<List<Tuple>> {
+    private final Hfs child;
+    private final JobConfFactory jobConfFactory;
+    private final Tuple partitionTuple;
+
+    PartitionReadTask(Hfs child, JobConfFactory jobConfFactory, Tuple partitionTuple) {
+      this.child = child;
+      this.jobConfFactory = jobConfFactory;
+      this.partitionTuple = partitionTuple;
+    }
+
+    @Override
+    public List<Tuple> call() throws IOException {
+      List<Tuple> tuples = new ArrayList<Tuple>();
+      for (Tuple tuple : new TapDataReader(child, jobConfFactory).read().getTuples()) {
+        tuples.add(tuple.append(partitionTuple));
+      }
+      return tuples;
+    }
+  }
+
+  /** Reads a single {@link InputSplit} of an {@link Hfs} with its own {@link JobConf}. */
+  private static final class SplitReadTask implements Callable<List<Tuple>> {
+    private final Hfs hfs;
+    private final JobConf conf;
+    private final InputSplit split;
+
+    SplitReadTask(Hfs hfs, JobConf conf, InputSplit split) {
+      this.hfs = hfs;
+      this.conf = conf;
+      this.split = split;
+    }
+
+    @Override
+    public List<Tuple> call() throws IOException {
+      JobConf splitConf = new JobConf(conf);
+      RecordReader<?, ?> recordReader = splitConf.getInputFormat().getRecordReader(split, splitConf, Reporter.NULL);
+      return readAll(hfs.openForRead(new HadoopFlowProcess(splitConf), recordReader));
+    }
+  }
+
+}
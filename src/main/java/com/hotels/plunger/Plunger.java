@@ -15,9 +15,12 @@
  */
 package com.hotels.plunger;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.UUID;
 
+import org.apache.hadoop.conf.Configuration;
+
 import cascading.flow.Flow;
 import cascading.operation.Aggregator;
 import cascading.operation.Buffer;
@@ -38,6 +41,15 @@ public final class Plunger {
     flow = new PlungerFlow();
   }
 
+  /**
+   * Creates a {@link Plunger} whose flow executes on the specified {@link ExecutionPlatform}. Use
+   * {@link ExecutionPlatform#HADOOP} to plan and run the same assembly as in production, via the Hadoop local job
+   * runner.
+   */
+  public Plunger(ExecutionPlatform platform) {
+    flow = new PlungerFlow(platform);
+  }
+
   /** Creates a named {@link Pipe} to deliver the provided {@link Data}. */
   public Pipe newNamedPipe(String name, Data data) {
     return new PipeFactory(data, name, flow).newInstance();
@@ -56,6 +68,14 @@ public final class Plunger {
     return new Bucket(fields, tail, flow);
   }
 
+  /**
+   * Creates a {@link Bucket} as with {@link #newBucket(Fields, Pipe)}, retaining the captured {@link Tuple Tuples} as
+   * described by the supplied {@link BucketOptions}.
+   */
+  public Bucket newBucket(Fields fields, Pipe tail, BucketOptions options) {
+    return new Bucket(fields, tail, flow, options);
+  }
+
   /** Supplies a {@link TapDataWriter} for writing the provided {@link Data} to a {@link Tap} instance. */
   public static TapDataWriter writeData(Data data) {
     return new TapDataWriter(data);
@@ -66,11 +86,89 @@ public final class Plunger {
     return new TapDataReader(source).read();
   }
 
+  /**
+   * Reads data from the supplied {@link Tap}, applying the supplied properties on top of the default Hadoop
+   * configuration when reading Hadoop taps.
+   */
+  public static Data readDataFromTap(Tap<?, ?, ?> source, Configuration configuration) throws IOException {
+    return new TapDataReader(source, JobConfFactory.DEFAULT.withOverrides(configuration)).read();
+  }
+
+  /**
+   * Reads data from the supplied {@link Tap} using up to {@code threads} threads. Hadoop taps are split by child tap,
+   * partition, or input split and each part is read concurrently. If {@code preserveOrder} is {@code true} the parts
+   * are concatenated in a deterministic order, otherwise they are merged as they complete.
+   */
+  public static Data readDataFromTap(Tap<?, ?, ?> source, int threads, boolean preserveOrder) throws IOException {
+    return new TapDataReader(source).read(threads, preserveOrder);
+  }
+
+  /**
+   * As {@link #readDataFromTap(Tap, int, boolean)}, applying the supplied properties on top of the default Hadoop
+   * configuration when reading Hadoop taps.
+   */
+  public static Data readDataFromTap(Tap<?, ?, ?> source, Configuration configuration, int threads,
+      boolean preserveOrder) throws IOException {
+    return new TapDataReader(source, JobConfFactory.DEFAULT.withOverrides(configuration)).read(threads, preserveOrder);
+  }
+
+  /**
+   * Opens the supplied {@link Tap} and streams its data without reading it all into memory. The returned stream must be
+   * closed by the caller.
+   */
+  public static TapDataStream streamDataFromTap(Tap<?, ?, ?> source) throws IOException {
+    return new TapDataReader(source).stream();
+  }
+
+  /**
+   * Writes the selected fields of the provided {@link Data}, in its current order, to a compact binary snapshot that
+   * can be loaded with {@link #readSnapshot(File)}. If {@code compress} is {@code true} each block of rows is deflated.
+   */
+  public static void writeSnapshot(Data data, File file, boolean compress) throws IOException {
+    DataSnapshot.write(data, file, compress);
+  }
+
+  /**
+   * Opens a snapshot written by {@link #writeSnapshot(Data, File, boolean)}. The file is memory-mapped and rows are
+   * decoded only when they are requested, so large fixtures load quickly and their pages are shared between JVMs
+   * reading the same file. The file should not be modified while the returned {@link Data} is in use.
+   */
+  public static Data readSnapshot(File file) throws IOException {
+    return DataSnapshot.read(file);
+  }
+
   /** Returns the internal {@link Flow} used by this instance. */
   public Flow<?> getFlow() {
     return flow.getFlow();
   }
 
+  /**
+   * Instruments each {@link cascading.pipe.Each Each} and {@link cascading.pipe.Every Every} operation in the assembly
+   * to record the tuples in and out, the time spent, and the bytes allocated when the flow is executed. The
+   * measurements are available from {@link #getOperationStats()}. Must be called before the flow is executed.
+   */
+  public Plunger withInstrumentation() {
+    flow.enableInstrumentation();
+    return this;
+  }
+
+  /**
+   * Returns one row per instrumented operation, in assembly order, with the fields {@code pipe}, {@code operator},
+   * {@code operation}, {@code tuples_in}, {@code tuples_out}, {@code wall_ms}, {@code self_ms}, and
+   * {@code allocated_bytes}. Self time and allocation exclude the work done downstream of each emitted tuple. Returns
+   * {@code null} if the flow has not yet been executed.
+   *
+   * @throws IllegalStateException if {@link #withInstrumentation()} was not called.
+   */
+  public Data getOperationStats() {
+    return flow.getOperationStats();
+  }
+
+  /** Returns the {@link ExecutionPlatform} on which this instance executes its flow. */
+  public ExecutionPlatform getPlatform() {
+    return flow.getPlatform();
+  }
+
   /** Returns the {@link FlowStats} generated by this instance. */
   public FlowStats getStats() {
     return flow.getStats();
@@ -21,17 +21,29 @@ import cascading.flow.local.LocalFlowConnector;
 import cascading.stats.FlowStats;
 
 /**
- * Simplifies the execution of {@link LocalFlowConnector LocalFlowConnectors} in a test environment.
+ * Simplifies the execution of {@link LocalFlowConnector LocalFlowConnectors} in a test environment. Can optionally run
+ * the flow with the Hadoop planner in local mode instead.
  */
 class PlungerFlow {
 
   private final FlowDef flowDef;
+  private final ExecutionPlatform platform;
   private volatile boolean complete;
   private volatile Flow<?> flow;
+  private Instrumentation instrumentation;
 
   /** Constructs a new plunger flow */
   PlungerFlow() {
+    this(ExecutionPlatform.LOCAL);
+  }
+
+  /** Constructs a new plunger flow that will execute on the specified platform */
+  PlungerFlow(ExecutionPlatform platform) {
+    if (platform == null) {
+      throw new IllegalArgumentException("platform cannot be null");
+    }
     flowDef = new FlowDef();
+    this.platform = platform;
   }
 
   /**
@@ -51,12 +63,47 @@ class PlungerFlow {
   /** Execute the flow */
   synchronized void complete() {
     if (!complete) {
-      flow = new LocalFlowConnector().connect(flowDef);
-      flow.complete();
+      if (instrumentation != null) {
+        instrumentation.install(flowDef);
+      }
+      try {
+        if (platform == ExecutionPlatform.HADOOP) {
+          flow = new HadoopFlowRunner(flowDef).run();
+        } else {
+          flow = new LocalFlowConnector().connect(flowDef);
+          flow.complete();
+        }
+      } finally {
+        if (instrumentation != null) {
+          instrumentation.uninstall();
+        }
+      }
       complete = true;
     }
   }
 
+  /** Instruments the operations in the flow when it is executed. */
+  synchronized void enableInstrumentation() {
+    if (complete) {
+      throw new IllegalStateException("Instrumentation must be enabled before the flow is executed.");
+    }
+    if (instrumentation == null) {
+      instrumentation = new Instrumentation();
+    }
+  }
+
+  /** Returns the measurements of the instrumented operations, or {@code null} if the flow has not been executed. */
+  synchronized Data getOperationStats() {
+    if (instrumentation == null) {
+      throw new IllegalStateException("Instrumentation has not been enabled.");
+    }
+    return complete ? instrumentation.report() : null;
+  }
+
+  ExecutionPlatform getPlatform() {
+    return platform;
+  }
+
   Flow<?> getFlow() {
     return flow;
   }
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Writes at most a fixed number of rows per second to a delegate {@link DumpWriter}, dropping the others. The number
+ * of rows dropped is noted when the writer is closed.
+ */
+final class RateLimitingDumpWriter implements DumpWriter {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+  private static final Clock SYSTEM_CLOCK = new Clock() {
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+  };
+
+  private final DumpWriter delegate;
+  private final int maxPerSecond;
+  private final Clock clock;
+  private long windowStart;
+  private int writtenInWindow;
+  private long dropped;
+
+  RateLimitingDumpWriter(DumpWriter delegate, int maxPerSecond) {
+    this(delegate, maxPerSecond, SYSTEM_CLOCK);
+  }
+
+  RateLimitingDumpWriter(DumpWriter delegate, int maxPerSecond, Clock clock) {
+    this.delegate = delegate;
+    this.maxPerSecond = maxPerSecond;
+    this.clock = clock;
+    windowStart = clock.nanoTime();
+  }
+
+  @Override
+  public void writeHeader(Fields fields) throws IOException {
+    delegate.writeHeader(fields);
+  }
+
+  @Override
+  public void writeRow(TupleEntry entry) throws IOException {
+    long now = clock.nanoTime();
+    if (now - windowStart >= NANOS_PER_SECOND) {
+      windowStart = now;
+      writtenInWindow = 0;
+    }
+    if (writtenInWindow < maxPerSecond) {
+      writtenInWindow++;
+      delegate.writeRow(entry);
+    } else {
+      dropped++;
+    }
+  }
+
+  @Override
+  public void writeNote(String note) throws IOException {
+    delegate.writeNote(note);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    delegate.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (dropped > 0) {
+      delegate.writeNote(String.format("%s row(s) dropped, over the limit of %s per second", dropped, maxPerSecond));
+    }
+    delegate.close();
+  }
+
+  /** Source of the time used to start each one second window, replaced in tests. */
+  interface Clock {
+    long nanoTime();
+  }
+
+}
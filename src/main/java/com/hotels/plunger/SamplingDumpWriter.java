@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Writes a sample of the rows it receives to a delegate {@link DumpWriter}. Rows are either written as they arrive,
+ * when taking every nth row or a Bernoulli sample, or held in a reservoir and written when the writer is closed. The
+ * number of rows sampled is noted when the writer is closed.
+ */
+final class SamplingDumpWriter implements DumpWriter {
+
+  private final DumpWriter delegate;
+  private final DumpOptions.Sampling sampling;
+  private final int interval;
+  private final double probability;
+  private final Random random;
+  private final int reservoirSize;
+  private final TupleEntry[] reservoir;
+  /** The arrival index of each entry in the reservoir, so that they can be written in arrival order. */
+  private final long[] arrivals;
+  private int held;
+  private long seen;
+  private long written;
+
+  private SamplingDumpWriter(DumpWriter delegate, DumpOptions.Sampling sampling, int interval, double probability,
+      int reservoirSize, long seed) {
+    this.delegate = delegate;
+    this.sampling = sampling;
+    this.interval = interval;
+    this.probability = probability;
+    random = new Random(seed);
+    this.reservoirSize = reservoirSize;
+    reservoir = reservoirSize > 0 ? new TupleEntry[reservoirSize] : null;
+    arrivals = reservoirSize > 0 ? new long[reservoirSize] : null;
+  }
+
+  /** Writes the first row and every {@code interval}th row after it. */
+  static SamplingDumpWriter everyNth(DumpWriter delegate, int interval) {
+    return new SamplingDumpWriter(delegate, DumpOptions.Sampling.EVERY_NTH, interval, 0d, 0, 0L);
+  }
+
+  /** Writes each row with the given probability, the same seed selects the same rows. */
+  static SamplingDumpWriter bernoulli(DumpWriter delegate, double probability, long seed) {
+    return new SamplingDumpWriter(delegate, DumpOptions.Sampling.BERNOULLI, 0, probability, 0, seed);
+  }
+
+  /** Holds a uniform sample of {@code size} rows and writes them, in arrival order, when closed. */
+  static SamplingDumpWriter reservoir(DumpWriter delegate, int size, long seed) {
+    return new SamplingDumpWriter(delegate, DumpOptions.Sampling.RESERVOIR, 0, 0d, size, seed);
+  }
+
+  @Override
+  public void writeHeader(Fields fields) throws IOException {
+    delegate.writeHeader(fields);
+  }
+
+  @Override
+  public void writeRow(TupleEntry entry) throws IOException {
+    long index = seen++;
+    switch (sampling) {
+    case EVERY_NTH:
+      if (index % interval == 0) {
+        write(entry);
+      }
+      break;
+    case BERNOULLI:
+      if (random.nextDouble() < probability) {
+        write(entry);
+      }
+      break;
+    case RESERVOIR:
+      sample(entry, index);
+      break;
+    default:
+      throw new IllegalStateException("Unknown sampling: " + sampling);
+    }
+  }
+
+  @Override
+  public void writeNote(String note) throws IOException {
+    delegate.writeNote(note);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    delegate.flush();
+  }
+
+  /** Writes the reservoir, if any, and notes the number of rows sampled before closing the delegate. */
+  @Override
+  public void close() throws IOException {
+    if (reservoir != null) {
+      for (int slot : slotsInArrivalOrder()) {
+        write(reservoir[slot]);
+        reservoir[slot] = null;
+      }
+      held = 0;
+    }
+    if (written < seen) {
+      delegate.writeNote(String.format("sampled %s of %s row(s)", written, seen));
+    }
+    delegate.close();
+  }
+
+  private void write(TupleEntry entry) throws IOException {
+    delegate.writeRow(entry);
+    written++;
+  }
+
+  /** Algorithm R, the entry replaces a random member of a full reservoir with probability size / (index + 1). */
+  private void sample(TupleEntry entry, long index) {
+    int slot;
+    if (index < reservoirSize) {
+      slot = held++;
+    } else {
+      long candidate = Generators.nextLong(random, 0L, index + 1);
+      if (candidate >= reservoirSize) {
+        return;
+      }
+      slot = (int) candidate;
+    }
+    reservoir[slot] = new TupleEntry(entry);
+    arrivals[slot] = index;
+  }
+
+  private Integer[] slotsInArrivalOrder() {
+    Integer[] slots = new Integer[held];
+    for (int i = 0; i < held; i++) {
+      slots[i] = i;
+    }
+    Arrays.sort(slots, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer slot1, Integer slot2) {
+        return Long.compare(arrivals[slot1], arrivals[slot2]);
+      }
+    });
+    return slots;
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import cascading.tuple.Tuple;
+
+/**
+ * An unmodifiable {@link Tuple} list backed by the memory-mapped blocks of a {@link DataSnapshot}. Values are read
+ * directly from the mapped blocks when a row is requested, so opening a snapshot costs only the mapping. Compressed
+ * blocks are inflated when first accessed; the most recently inflated block is retained so that sequential reads
+ * inflate each block once.
+ */
+final class SnapshotTupleList extends AbstractList<Tuple> implements RandomAccess {
+
+  private final int columnCount;
+  private final ByteBuffer[] blocks;
+  private final int[] lengths;
+  private final int[] firstRows;
+  private final int size;
+  private volatile InflatedBlock inflated;
+
+  /**
+   * @param blocks the stored bytes of each block.
+   * @param lengths the encoded length of each block, a block whose stored length differs is deflated.
+   * @param firstRows the index of the first row held by each block.
+   */
+  SnapshotTupleList(int columnCount, ByteBuffer[] blocks, int[] lengths, int[] firstRows, int size) {
+    this.columnCount = columnCount;
+    this.blocks = blocks;
+    this.lengths = lengths;
+    this.firstRows = firstRows;
+    this.size = size;
+  }
+
+  /** Materializes a new {@link Tuple} from the values held at the requested row. */
+  @Override
+  public Tuple get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    int block = Arrays.binarySearch(firstRows, index);
+    if (block < 0) {
+      block = -block - 2;
+    }
+    ByteBuffer buffer = block(block);
+    int row = index - firstRows[block];
+    int rows = buffer.getInt(0);
+    Object[] values = new Object[columnCount];
+    for (int column = 0; column < columnCount; column++) {
+      values[column] = value(buffer, buffer.getInt(4 + 4 * column), rows, row);
+    }
+    return new Tuple(values);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  int getBlockCount() {
+    return blocks.length;
+  }
+
+  private ByteBuffer block(int block) {
+    ByteBuffer stored = blocks[block];
+    if (stored.capacity() == lengths[block]) {
+      return stored;
+    }
+    InflatedBlock current = inflated;
+    if (current == null || current.block != block) {
+      current = new InflatedBlock(block, inflate(stored.duplicate(), lengths[block]));
+      inflated = current;
+    }
+    return current.buffer;
+  }
+
+  private static Object value(ByteBuffer buffer, int offset, int rows, int row) {
+    byte kind = buffer.get(offset);
+    if (kind == DataSnapshot.OBJECT_COLUMN) {
+      int offsets = offset + 1;
+      int values = offsets + 4 * (rows + 1);
+      ByteBuffer value = buffer.duplicate();
+      value.limit(values + buffer.getInt(offsets + 4 * (row + 1)));
+      value.position(values + buffer.getInt(offsets + 4 * row));
+      try {
+        return TupleCodec.readValue(new DataInputStream(new ByteBufferInputStream(value)));
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to decode snapshot value", e);
+      }
+    }
+
+    int nulls = offset + 1;
+    if ((buffer.get(nulls + (row >>> 3)) & (1 << (row & 7))) != 0) {
+      return null;
+    }
+    int values = nulls + ((rows + 7) >>> 3);
+    switch (kind) {
+    case DataSnapshot.INT_COLUMN:
+      return buffer.getInt(values + 4 * row);
+    case DataSnapshot.LONG_COLUMN:
+      return buffer.getLong(values + 8 * row);
+    case DataSnapshot.DOUBLE_COLUMN:
+      return buffer.getDouble(values + 8 * row);
+    default:
+      throw new IllegalStateException("Unknown column kind: " + kind);
+    }
+  }
+
+  private static ByteBuffer inflate(ByteBuffer stored, int length) {
+    byte[] input = new byte[stored.remaining()];
+    stored.get(input);
+    byte[] output = new byte[length];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(input);
+      int inflatedLength = 0;
+      while (inflatedLength < length && !inflater.finished()) {
+        int count = inflater.inflate(output, inflatedLength, length - inflatedLength);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        inflatedLength += count;
+      }
+      if (inflatedLength != length) {
+        throw new IllegalStateException("Corrupt snapshot block, inflated " + inflatedLength + " of " + length
+            + " bytes");
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupt snapshot block", e);
+    } finally {
+      inflater.end();
+    }
+    return ByteBuffer.wrap(output);
+  }
+
+  private static final class InflatedBlock {
+    private final int block;
+    private final ByteBuffer buffer;
+
+    InflatedBlock(int block, ByteBuffer buffer) {
+      this.block = block;
+      this.buffer = buffer;
+    }
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the most frequent values in a stream with the Space-Saving algorithm using a fixed number of counters. Any
+ * value occurring more than {@code n / capacity} times in a stream of {@code n} values is guaranteed to be tracked, and
+ * each reported count overestimates the true count by at most its recorded error. Counters are held in a min-heap so
+ * that each value is recorded in {@code O(log capacity)} time.
+ */
+final class SpaceSaving {
+
+  private final Counter[] heap;
+  private final Map<Object, Counter> counters;
+  private int size;
+
+  SpaceSaving(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity < 1: " + capacity);
+    }
+    heap = new Counter[capacity];
+    counters = new HashMap<Object, Counter>(capacity * 2);
+  }
+
+  /** Records a value. {@code null} values are ignored. */
+  void add(Object value) {
+    if (value == null) {
+      return;
+    }
+    Counter counter = counters.get(value);
+    if (counter != null) {
+      counter.count++;
+      siftDown(counter.index);
+    } else if (size < heap.length) {
+      counter = new Counter(value, 1L, 0L);
+      counter.index = size;
+      heap[size++] = counter;
+      counters.put(value, counter);
+      siftUp(counter.index);
+    } else {
+      // Replace the least frequent value, inheriting its count as the error bound of the new value
+      Counter minimum = heap[0];
+      counters.remove(minimum.value);
+      minimum.value = value;
+      minimum.error = minimum.count;
+      minimum.count++;
+      counters.put(value, minimum);
+      siftDown(0);
+    }
+  }
+
+  /** Returns up to {@code limit} counters ordered by descending count. */
+  List<Counter> top(int limit) {
+    Counter[] sorted = Arrays.copyOf(heap, size);
+    Arrays.sort(sorted, new Comparator<Counter>() {
+      @Override
+      public int compare(Counter a, Counter b) {
+        return Long.compare(b.count, a.count);
+      }
+    });
+    List<Counter> top = new ArrayList<Counter>(Math.min(limit, sorted.length));
+    for (int i = 0; i < sorted.length && i < limit; i++) {
+      top.add(sorted[i]);
+    }
+    return Collections.unmodifiableList(top);
+  }
+
+  private void siftUp(int index) {
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (heap[parent].count <= heap[index].count) {
+        return;
+      }
+      swap(index, parent);
+      index = parent;
+    }
+  }
+
+  private void siftDown(int index) {
+    while (true) {
+      int smallest = index;
+      int left = 2 * index + 1;
+      int right = left + 1;
+      if (left < size && heap[left].count < heap[smallest].count) {
+        smallest = left;
+      }
+      if (right < size && heap[right].count < heap[smallest].count) {
+        smallest = right;
+      }
+      if (smallest == index) {
+        return;
+      }
+      swap(index, smallest);
+      index = smallest;
+    }
+  }
+
+  private void swap(int i, int j) {
+    Counter counter = heap[i];
+    heap[i] = heap[j];
+    heap[j] = counter;
+    heap[i].index = i;
+    heap[j].index = j;
+  }
+
+  static final class Counter {
+    private Object value;
+    private long count;
+    private long error;
+    private int index;
+
+    private Counter(Object value, long count, long error) {
+      this.value = value;
+      this.count = count;
+      this.error = error;
+    }
+
+    Object getValue() {
+      return value;
+    }
+
+    long getCount() {
+      return count;
+    }
+
+    long getError() {
+      return error;
+    }
+  }
+
+}
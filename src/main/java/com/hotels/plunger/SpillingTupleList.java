@@ -0,0 +1,550 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractSequentialList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * A {@link Tuple} list that holds at most a fixed number of {@link Tuple Tuples} in memory. When that number is reached
+ * the buffered {@link Tuple Tuples} are written to a temporary file as a run using the {@link TupleCodec} encoding. If
+ * sort fields are supplied each run is sorted before it is written and iteration merges the runs, so that the list is
+ * presented in sort order; otherwise the list is presented in insertion order.
+ * <p/>
+ * The list can only be appended to and read sequentially. Each iteration streams the runs from disk; at most
+ * {@value #MAX_OPEN_ITERATORS} unfinished iterators hold runs open at once, and opening another closes the oldest,
+ * which then fails if it is used again. {@link #get(int) Reads by index} continue from the previous read where they
+ * can. {@link #close() Closing} the list deletes the temporary files.
+ */
+final class SpillingTupleList extends AbstractSequentialList<Tuple> implements Closeable {
+
+  /** The number of unfinished iterators that may hold spilled runs open at the same time. */
+  static final int MAX_OPEN_ITERATORS = 4;
+
+  private final int maxTuplesInMemory;
+  private final Fields sortFields;
+  private final Comparator<Tuple> comparator;
+  private final File directory;
+  private final List<Run> runs = new ArrayList<Run>();
+  private final List<Tuple> buffer = new ArrayList<Tuple>();
+  private final Deque<ForwardListIterator> openIterators = new ArrayDeque<ForwardListIterator>();
+  private ForwardListIterator cursor;
+  private int cursorModCount;
+  private boolean bufferSorted = true;
+  private boolean closed;
+  private int size;
+
+  /**
+   * @param sortFields the fields by which the list should be ordered, or {@code null} to retain insertion order.
+   * @param directory the directory in which to create the temporary files, or {@code null} to use the default.
+   */
+  SpillingTupleList(Fields declaredFields, int maxTuplesInMemory, Fields sortFields, File directory) {
+    if (maxTuplesInMemory < 1) {
+      throw new IllegalArgumentException("maxTuplesInMemory < 1: " + maxTuplesInMemory);
+    }
+    this.maxTuplesInMemory = maxTuplesInMemory;
+    this.sortFields = sortFields;
+    comparator = sortFields == null ? null : new TupleComparator(declaredFields, sortFields);
+    this.directory = directory;
+  }
+
+  /** Appends the {@link Tuple}, spilling the buffer to disk if it is full. */
+  @Override
+  public synchronized boolean add(Tuple tuple) {
+    checkOpen();
+    buffer.add(tuple);
+    bufferSorted = comparator == null;
+    size++;
+    modCount++;
+    if (buffer.size() >= maxTuplesInMemory) {
+      spill();
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the {@link Tuple} at the index. Reads continue from the position of the previous read unless the index is
+   * behind it, so reading the list in index order does not stream the runs again for every {@link Tuple}.
+   */
+  @Override
+  public synchronized Tuple get(int index) {
+    checkOpen();
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    if (cursor == null || cursor.isReleased() || cursorModCount != modCount || cursor.nextIndex() > index) {
+      if (cursor != null) {
+        closeIterator(cursor);
+      }
+      cursor = newIterator(index);
+      cursorModCount = modCount;
+    }
+    while (cursor.nextIndex() < index) {
+      cursor.next();
+    }
+    return cursor.next();
+  }
+
+  /**
+   * Returns an iterator that streams the {@link Tuple Tuples} from the spilled runs. Only forward iteration is
+   * supported. In insertion order runs are opened only as they are reached, in sort order all runs are merged.
+   */
+  @Override
+  public synchronized ListIterator<Tuple> listIterator(int index) {
+    checkOpen();
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return newIterator(index);
+  }
+
+  /** Returns the fields by which this list is ordered, or {@code null} if it is in insertion order. */
+  Fields getSortFields() {
+    return sortFields;
+  }
+
+  /** Returns the number of runs that have been written to disk. */
+  synchronized int getSpilledRunCount() {
+    return runs.size();
+  }
+
+  /** Returns the number of iterators that currently hold spilled runs open. */
+  synchronized int getOpenIteratorCount() {
+    return openIterators.size();
+  }
+
+  /** Returns a read only view of this list that {@link Data} can still stream. */
+  List<Tuple> unmodifiableView() {
+    return new UnmodifiableView(this);
+  }
+
+  /** Releases any open files and deletes the spilled runs. The list cannot be used once closed. */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    IOException exception = null;
+    for (ForwardListIterator iterator : new ArrayList<ForwardListIterator>(openIterators)) {
+      try {
+        iterator.close();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    cursor = null;
+    for (Run run : runs) {
+      if (run.file.exists() && !run.file.delete()) {
+        exception = new IOException("Unable to delete spill file: " + run.file);
+      }
+    }
+    runs.clear();
+    buffer.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("List has been closed.");
+    }
+  }
+
+  private void sortBuffer() {
+    if (!bufferSorted) {
+      // Stable, so equal tuples retain their insertion order
+      Collections.sort(buffer, comparator);
+      bufferSorted = true;
+    }
+  }
+
+  private void spill() {
+    sortBuffer();
+    try {
+      File file = File.createTempFile("plunger-bucket-", ".run", directory);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+        for (Tuple tuple : buffer) {
+          TupleCodec.writeTuple(out, tuple);
+        }
+      }
+      runs.add(new Run(file, buffer.size()));
+      buffer.clear();
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to spill tuples to disk", e);
+    }
+  }
+
+  private ForwardListIterator newIterator(int index) {
+    sortBuffer();
+    if (openIterators.size() >= MAX_OPEN_ITERATORS) {
+      closeIterator(openIterators.peekFirst());
+    }
+    ForwardListIterator iterator = new ForwardListIterator(size);
+    List<Iterator<Tuple>> sources = new ArrayList<Iterator<Tuple>>(runs.size() + 1);
+    int skip = index;
+    for (Run run : runs) {
+      if (comparator == null && skip >= run.count) {
+        // Runs before the index need not be read when they are concatenated
+        skip -= run.count;
+        iterator.index += run.count;
+      } else {
+        sources.add(iterator.newRunIterator(run));
+      }
+    }
+    sources.add(Collections.unmodifiableList(new ArrayList<Tuple>(buffer)).iterator());
+    iterator.iterator = comparator == null ? new ConcatenatingIterator(sources) : new MergingIterator(sources,
+        comparator);
+    if (iterator.hasNext()) {
+      openIterators.addLast(iterator);
+    }
+    while (iterator.nextIndex() < index) {
+      iterator.next();
+    }
+    return iterator;
+  }
+
+  private static void closeIterator(ForwardListIterator iterator) {
+    try {
+      iterator.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to close spilled tuples", e);
+    }
+  }
+
+  private synchronized void release(ForwardListIterator iterator) {
+    openIterators.remove(iterator);
+  }
+
+  private static final class Run {
+    private final File file;
+    private final int count;
+
+    private Run(File file, int count) {
+      this.file = file;
+      this.count = count;
+    }
+  }
+
+  /**
+   * Reads the tuples of a run, opening the file when the first tuple is requested and closing it once the last tuple
+   * has been read.
+   */
+  private static final class RunIterator implements Iterator<Tuple>, Closeable {
+    private final Run run;
+    private DataInputStream in;
+    private int remaining;
+
+    private RunIterator(Run run) {
+      this.run = run;
+      remaining = run.count;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    @Override
+    public Tuple next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        if (in == null) {
+          in = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file)));
+        }
+        Tuple tuple = TupleCodec.readTuple(in);
+        if (--remaining == 0) {
+          close();
+        }
+        return tuple;
+      } catch (IOException e) {
+        throw new RuntimeException("Unable to read spilled tuples from " + run.file, e);
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+      remaining = 0;
+      if (in != null) {
+        in.close();
+      }
+    }
+  }
+
+  private static final class ConcatenatingIterator implements Iterator<Tuple> {
+    private final Iterator<Iterator<Tuple>> sources;
+    private Iterator<Tuple> current = Collections.<Tuple> emptyList().iterator();
+
+    private ConcatenatingIterator(List<Iterator<Tuple>> sources) {
+      this.sources = sources.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext() && sources.hasNext()) {
+        current = sources.next();
+      }
+      return current.hasNext();
+    }
+
+    @Override
+    public Tuple next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** Merges sorted sources, taking equal tuples from earlier sources first. */
+  private static final class MergingIterator implements Iterator<Tuple> {
+    private final PriorityQueue<Head> heads;
+
+    private MergingIterator(List<Iterator<Tuple>> sources, final Comparator<Tuple> comparator) {
+      heads = new PriorityQueue<Head>(Math.max(1, sources.size()), new Comparator<Head>() {
+        @Override
+        public int compare(Head head1, Head head2) {
+          int compare = comparator.compare(head1.tuple, head2.tuple);
+          return compare != 0 ? compare : Integer.compare(head1.sourceIndex, head2.sourceIndex);
+        }
+      });
+      for (int i = 0; i < sources.size(); i++) {
+        Iterator<Tuple> source = sources.get(i);
+        if (source.hasNext()) {
+          heads.add(new Head(source.next(), i, source));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public Tuple next() {
+      Head head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      Tuple tuple = head.tuple;
+      if (head.source.hasNext()) {
+        heads.add(new Head(head.source.next(), head.sourceIndex, head.source));
+      }
+      return tuple;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final class Head {
+    private final Tuple tuple;
+    private final int sourceIndex;
+    private final Iterator<Tuple> source;
+
+    private Head(Tuple tuple, int sourceIndex, Iterator<Tuple> source) {
+      this.tuple = tuple;
+      this.sourceIndex = sourceIndex;
+      this.source = source;
+    }
+  }
+
+  /**
+   * Adapts a forward only {@link Iterator} to the read only parts of the {@link ListIterator} interface, and releases
+   * the runs it reads once the last {@link Tuple} has been read or the list closes it.
+   */
+  private final class ForwardListIterator implements ListIterator<Tuple>, Closeable {
+    private final List<RunIterator> runIterators = new ArrayList<RunIterator>();
+    private final int end;
+    private Iterator<Tuple> iterator;
+    private int index;
+    private volatile boolean released;
+
+    private ForwardListIterator(int end) {
+      this.end = end;
+    }
+
+    private RunIterator newRunIterator(Run run) {
+      RunIterator runIterator = new RunIterator(run);
+      runIterators.add(runIterator);
+      return runIterator;
+    }
+
+    private boolean isReleased() {
+      return released;
+    }
+
+    @Override
+    public boolean hasNext() {
+      checkNotReleased();
+      return index < end;
+    }
+
+    @Override
+    public Tuple next() {
+      checkNotReleased();
+      if (index >= end) {
+        throw new NoSuchElementException();
+      }
+      Tuple next = iterator.next();
+      index++;
+      if (index == end) {
+        closeIterator(this);
+      }
+      return next;
+    }
+
+    private void checkNotReleased() {
+      if (released && index < end) {
+        throw new IllegalStateException("Iterator has been closed, either the list was closed or more than "
+            + MAX_OPEN_ITERATORS + " iterators were opened over it.");
+      }
+    }
+
+    @Override
+    public int nextIndex() {
+      return index;
+    }
+
+    @Override
+    public int previousIndex() {
+      return index - 1;
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return index > 0;
+    }
+
+    /** @throws UnsupportedOperationException always - the underlying runs can only be streamed forwards. */
+    @Override
+    public Tuple previous() {
+      throw new UnsupportedOperationException("only forward iteration is supported");
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(Tuple tuple) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void add(Tuple tuple) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (released) {
+        return;
+      }
+      released = true;
+      release(this);
+      IOException exception = null;
+      for (RunIterator runIterator : runIterators) {
+        try {
+          runIterator.close();
+        } catch (IOException e) {
+          exception = e;
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /** A read only view of a {@link SpillingTupleList}, which {@link Data} recognises so that it can stream it. */
+  static final class UnmodifiableView extends AbstractSequentialList<Tuple> {
+    private final SpillingTupleList list;
+
+    private UnmodifiableView(SpillingTupleList list) {
+      this.list = list;
+    }
+
+    /** Returns the fields by which the list is ordered, or {@code null} if it is in insertion order. */
+    Fields getSortFields() {
+      return list.getSortFields();
+    }
+
+    @Override
+    public Tuple get(int index) {
+      return list.get(index);
+    }
+
+    @Override
+    public void add(int index, Tuple tuple) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+      return list.size();
+    }
+
+    @Override
+    public ListIterator<Tuple> listIterator(int index) {
+      return list.listIterator(index);
+    }
+  }
+
+}
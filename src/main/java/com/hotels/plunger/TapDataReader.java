@@ -39,9 +39,15 @@ import cascading.tuple.TupleEntryIterator;
 class TapDataReader {
 
   private final Tap<?, ?, ?> source;
+  private final JobConfFactory jobConfFactory;
 
   TapDataReader(Tap<?, ?, ?> source) {
+    this(source, JobConfFactory.DEFAULT);
+  }
+
+  TapDataReader(Tap<?, ?, ?> source, JobConfFactory jobConfFactory) {
     this.source = source;
+    this.jobConfFactory = jobConfFactory;
   }
 
   /**
@@ -51,15 +57,7 @@ class TapDataReader {
   Data read() throws IOException {
     TupleEntryIterator tuples = null;
     try {
-      Class<?> tapConfigClass = TapTypeUtil.getTapConfigClass(source);
-
-      if (Configuration.class.equals(tapConfigClass)) {
-        tuples = getHadoopTupleEntryIterator();
-      } else if (Properties.class.equals(tapConfigClass)) {
-        tuples = getLocalTupleEntryIterator();
-      } else {
-        throw new IllegalArgumentException("Unsupported tap type: " + source.getClass());
-      }
+      tuples = openIterator();
       List<Tuple> resultTuples = new ArrayList<Tuple>();
       while (tuples.hasNext()) {
         Tuple copy = new Tuple(tuples.next().getTupleCopy());
@@ -73,10 +71,38 @@ class TapDataReader {
     }
   }
 
+  /**
+   * Reads the {@link Tuple Tuples} from the {@link Tap} using up to {@code threads} threads. Hadoop taps are read
+   * concurrently by child tap, partition or input split; other taps are read on a single thread. When
+   * {@code preserveOrder} is {@code true} the {@link Tuple Tuples} are ordered by the unit of work that produced them,
+   * otherwise they are merged as each unit completes.
+   */
+  Data read(int threads, boolean preserveOrder) throws IOException {
+    return new ParallelTapDataReader(source, jobConfFactory, threads, preserveOrder).read();
+  }
+
+  /**
+   * Opens the {@link Tap} for reading and returns a {@link TapDataStream} that delivers its {@link Tuple Tuples} one at
+   * a time. The caller is responsible for closing the stream.
+   */
+  TapDataStream stream() throws IOException {
+    return new TapDataStream(source.getSourceFields(), openIterator());
+  }
+
+  private TupleEntryIterator openIterator() throws IOException {
+    Class<?> tapConfigClass = TapTypeUtil.getTapConfigClass(source);
+    if (Configuration.class.equals(tapConfigClass)) {
+      return getHadoopTupleEntryIterator();
+    } else if (Properties.class.equals(tapConfigClass)) {
+      return getLocalTupleEntryIterator();
+    }
+    throw new IllegalArgumentException("Unsupported tap type: " + source.getClass());
+  }
+
   private TupleEntryIterator getHadoopTupleEntryIterator() throws IOException {
     @SuppressWarnings("unchecked")
     Tap<JobConf, ?, ?> hadoopTap = (Tap<JobConf, ?, ?>) source;
-    JobConf conf = new JobConf();
+    JobConf conf = jobConfFactory.newJobConf();
     FlowProcess<JobConf> flowProcess = new HadoopFlowProcess(conf);
     hadoopTap.sourceConfInit(flowProcess, conf);
     return hadoopTap.openForRead(flowProcess);
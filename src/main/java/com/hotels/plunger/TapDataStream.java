@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryIterator;
+
+/**
+ * Delivers the {@link Tuple Tuples} of a {@link Tap} one at a time so that large outputs can be verified without
+ * holding them in memory. The underlying resources are released when the stream is exhausted or {@link #close()
+ * closed}, whichever happens first; use a try-with-resources block to ensure the latter:
+ * 
+ * <pre>
+ * try (TapDataStream stream = Plunger.streamDataFromTap(tap)) {
+ *   for (TupleEntry entry : stream) {
+ *     ...
+ *   }
+ * }
+ * </pre>
+ * 
+ * The same {@link TupleEntry} instance is returned on each iteration with its {@link Tuple} replaced. Callers that
+ * wish to retain an entry beyond the current iteration should take a copy with {@link TupleEntry#TupleEntry(TupleEntry)}
+ * or {@link TupleEntry#getTupleCopy()}. A stream can only be iterated once.
+ */
+public class TapDataStream implements Iterable<TupleEntry>, Closeable {
+
+  private final Fields fields;
+  private final TupleEntryIterator tupleEntryIterator;
+  private boolean iterated;
+  private boolean closed;
+
+  TapDataStream(Fields fields, TupleEntryIterator tupleEntryIterator) {
+    this.fields = fields;
+    this.tupleEntryIterator = tupleEntryIterator;
+  }
+
+  /** Returns the {@link Fields} declared by the source {@link Tap}. */
+  public Fields getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns an iterator over the entries in the source {@link Tap}.
+   * 
+   * @throws IllegalStateException if called more than once.
+   * @throws RuntimeException if the source cannot be read or closed.
+   */
+  @Override
+  public Iterator<TupleEntry> iterator() {
+    if (iterated) {
+      throw new IllegalStateException("A " + getClass().getSimpleName() + " can only be iterated once.");
+    }
+    iterated = true;
+    return new Iterator<TupleEntry>() {
+
+      @Override
+      public boolean hasNext() {
+        if (closed) {
+          return false;
+        }
+        boolean hasNext = tupleEntryIterator.hasNext();
+        if (!hasNext) {
+          closeUnchecked();
+        }
+        return hasNext;
+      }
+
+      @Override
+      public TupleEntry next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return tupleEntryIterator.next();
+      }
+
+      /** @throws UnsupportedOperationException always. */
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("may not remove elements from this iterator");
+      }
+    };
+  }
+
+  /** Releases the resources held by the source {@link Tap}. Subsequent calls have no effect. */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      tupleEntryIterator.close();
+    }
+  }
+
+  private void closeUnchecked() {
+    try {
+      close();
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to close the source tap", e);
+    }
+  }
+
+}
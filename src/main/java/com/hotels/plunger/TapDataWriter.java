@@ -16,15 +16,25 @@
 package com.hotels.plunger;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
 
 import cascading.cascade.Cascade;
 import cascading.flow.Flow;
@@ -45,6 +55,7 @@ import cascading.stats.local.LocalStepStats;
 import cascading.tap.Tap;
 import cascading.tap.hadoop.util.Hadoop18TapUtil;
 import cascading.tap.partition.BasePartitionTap;
+import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
 import cascading.tuple.TupleEntryCollector;
@@ -57,16 +68,47 @@ import cascading.tuple.TupleEntryCollector;
 public class TapDataWriter {
 
   private final Data data;
+  private int maxOpenPartitionWriters;
+  private JobConfFactory jobConfFactory = JobConfFactory.DEFAULT;
 
   TapDataWriter(Data data) {
     this.data = data;
   }
 
+  /**
+   * Applies the supplied properties on top of the default Hadoop configuration when writing to Hadoop taps. The default
+   * configuration is loaded once and shared by all writers and readers.
+   */
+  public TapDataWriter withConfiguration(Configuration configuration) {
+    jobConfFactory = JobConfFactory.DEFAULT.withOverrides(configuration);
+    return this;
+  }
+
+  /**
+   * Writes to Hadoop partition taps one partition at a time rather than through a single collector. The {@link Data}
+   * is first sorted by the partition fields and each group of tuples with the same partition values is then written by
+   * its own collector so that each partition file is opened only once. Groups are written in parallel with at most
+   * {@code maxOpenWriters} open at any one time. Has no effect on other tap types.
+   * <p/>
+   * The sort holds an array with a reference to every {@link Tuple} on top of the {@link Data} itself. Columnar,
+   * snapshot and spilled {@link Data} are otherwise read as they are written, so the sort materializes all of their
+   * {@link Tuple Tuples} at once.
+   */
+  public TapDataWriter withParallelPartitionWrites(int maxOpenWriters) {
+    if (maxOpenWriters < 1) {
+      throw new IllegalArgumentException("maxOpenWriters must be greater than 0: " + maxOpenWriters);
+    }
+    maxOpenPartitionWriters = maxOpenWriters;
+    return this;
+  }
+
   /** Writes the {@link Tuple Tuples} provided in the {@link Data} instance to the supplied {@link Tap}. */
   public Tap<?, ?, ?> toTap(Tap<?, ?, ?> tap) throws IOException {
     Class<?> tapConfigClass = TapTypeUtil.getTapConfigClass(tap);
     if (Configuration.class.equals(tapConfigClass)) {
-      if (tap instanceof BasePartitionTap) {
+      if (tap instanceof BasePartitionTap && maxOpenPartitionWriters > 0) {
+        writeToHadoopPartitionTapInParallel(tap);
+      } else if (tap instanceof BasePartitionTap) {
         writeToHadoopPartitionTap(tap);
       } else {
         writeToHadoopTap(tap);
@@ -83,7 +125,7 @@ public class TapDataWriter {
   private void writeToHadoopTap(Tap<?, ?, ?> tap) throws IOException {
     @SuppressWarnings("unchecked")
     Tap<JobConf, ?, ?> hadoopTap = (Tap<JobConf, ?, ?>) tap;
-    JobConf conf = new JobConf();
+    JobConf conf = jobConfFactory.newJobConf();
 
     HadoopFlowProcess flowProcess = new HadoopFlowProcess(conf);
     hadoopTap.sinkConfInit(flowProcess, conf);
@@ -98,7 +140,7 @@ public class TapDataWriter {
   private void writeToHadoopPartitionTap(Tap<?, ?, ?> tap) throws IOException {
     @SuppressWarnings("unchecked")
     BasePartitionTap<JobConf, ?, ?> hadoopTap = (BasePartitionTap<JobConf, ?, ?>) tap;
-    JobConf conf = new JobConf();
+    JobConf conf = jobConfFactory.newJobConf();
 
     // Avoids deletion of results when using a partition tap (close() will delete the _temporary before the copy has
     // been done if not in a flow)
@@ -119,6 +161,94 @@ public class TapDataWriter {
     deleteTemporaryPath(new Path(basePath), FileSystem.get(conf));
   }
 
+  /* WARNING: This is exceedingly brittle as it relies on cascading internals */
+  private void writeToHadoopPartitionTapInParallel(Tap<?, ?, ?> tap) throws IOException {
+    @SuppressWarnings("unchecked")
+    final BasePartitionTap<JobConf, ?, ?> hadoopTap = (BasePartitionTap<JobConf, ?, ?>) tap;
+    Fields partitionFields = hadoopTap.getPartition().getPartitionFields();
+    final Fields fields = data.selectedFields();
+
+    // A stable sort keeps the order of the data within each partition, the sorted array only references the tuples
+    final Tuple[] sorted = new TupleSorter(fields, partitionFields, TupleSorter.DEFAULT_PARALLEL_SORT_THRESHOLD)
+        .sort(data.asTupleList());
+    TupleComparator comparator = new TupleComparator(fields, partitionFields);
+    List<Integer> groupStarts = new ArrayList<Integer>();
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || comparator.compare(sorted[i - 1], sorted[i]) != 0) {
+        groupStarts.add(i);
+      }
+    }
+    groupStarts.add(sorted.length);
+    int groups = groupStarts.size() - 1;
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxOpenPartitionWriters, groups)));
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>(groups);
+      for (int group = 0; group < groups; group++) {
+        final int groupTaskNumber = group;
+        final int start = groupStarts.get(group);
+        final int end = groupStarts.get(group + 1);
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            writePartitionGroup(hadoopTap, fields, sorted, start, end, groupTaskNumber);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        getResult(future);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    JobConf conf = jobConfFactory.newJobConf();
+    String basePath = hadoopTap.getParent().getFullIdentifier(conf);
+    deleteTemporaryPath(new Path(basePath), FileSystem.get(conf));
+  }
+
+  /* WARNING: This is exceedingly brittle as it relies on cascading internals */
+  private void writePartitionGroup(BasePartitionTap<JobConf, ?, ?> hadoopTap, Fields fields, Tuple[] sorted,
+      int start, int end, int taskNumber) throws IOException {
+    JobConf conf = jobConfFactory.newJobConf();
+    HadoopUtil.setIsInflow(conf);
+    // Each group must commit its own task attempt directory so that concurrent writers do not move each other's files
+    conf.set("mapred.task.id", new TaskAttemptID("plunger", 1, TaskType.MAP, taskNumber, 0).toString());
+
+    HadoopFlowProcess flowProcess = new HadoopFlowProcess(conf);
+    hadoopTap.sinkConfInit(flowProcess, conf);
+    TupleEntryCollector collector = hadoopTap.openForWrite(flowProcess);
+    try {
+      for (int i = start; i < end; i++) {
+        collector.add(new TupleEntry(fields, sorted[i], true));
+      }
+    } finally {
+      collector.close();
+    }
+  }
+
+  private static void getResult(Future<Void> future) throws IOException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException exception = new InterruptedIOException("Interrupted while writing partitions");
+      exception.initCause(e);
+      throw exception;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
   private void deleteTemporaryPath(Path outputPath, FileSystem fileSystem) throws IOException {
     if (fileSystem.exists(outputPath)) {
       Path tmpDir = new Path(outputPath, Hadoop18TapUtil.TEMPORARY_PATH);
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import cascading.tuple.Tuple;
+
+/**
+ * A compact binary encoding of {@link Tuple Tuples}. Each value is written as a one byte type tag followed by its
+ * value; common types have dedicated encodings and any other {@link java.io.Serializable} value falls back to Java
+ * serialization.
+ */
+final class TupleCodec {
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte INTEGER = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte FLOAT = 6;
+  private static final byte SHORT = 7;
+  private static final byte BYTE = 8;
+  private static final byte CHARACTER = 9;
+  private static final byte TUPLE = 10;
+  private static final byte SERIALIZED = 11;
+
+  private TupleCodec() {
+  }
+
+  static void writeTuple(DataOutput out, Tuple tuple) throws IOException {
+    writeVarInt(out, tuple.size());
+    for (int i = 0; i < tuple.size(); i++) {
+      writeValue(out, tuple.getObject(i));
+    }
+  }
+
+  static Tuple readTuple(DataInput in) throws IOException {
+    int size = readVarInt(in);
+    Object[] values = new Object[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = readValue(in);
+    }
+    return new Tuple(values);
+  }
+
+  static void writeValue(DataOutput out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (value instanceof Character) {
+      out.writeByte(CHARACTER);
+      out.writeChar((Character) value);
+    } else if (value instanceof Tuple) {
+      out.writeByte(TUPLE);
+      writeTuple(out, (Tuple) value);
+    } else {
+      out.writeByte(SERIALIZED);
+      writeBytes(out, serialize(value));
+    }
+  }
+
+  static Object readValue(DataInput in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+    case NULL:
+      return null;
+    case STRING:
+      return readString(in);
+    case INTEGER:
+      return in.readInt();
+    case LONG:
+      return in.readLong();
+    case DOUBLE:
+      return in.readDouble();
+    case BOOLEAN:
+      return in.readBoolean();
+    case FLOAT:
+      return in.readFloat();
+    case SHORT:
+      return in.readShort();
+    case BYTE:
+      return in.readByte();
+    case CHARACTER:
+      return in.readChar();
+    case TUPLE:
+      return readTuple(in);
+    case SERIALIZED:
+      return deserialize(readBytes(in));
+    default:
+      throw new IOException("Unknown type tag: " + tag);
+    }
+  }
+
+  static void writeString(DataOutput out, String value) throws IOException {
+    writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static String readString(DataInput in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  /** Writes a non-negative int using 7 bits per byte so that small values occupy a single byte. */
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    if (value < 0) {
+      throw new IllegalArgumentException("value < 0: " + value);
+    }
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable length int");
+  }
+
+  private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInput in) throws IOException {
+    byte[] bytes = new byte[readVarInt(in)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Unable to deserialize value", e);
+    }
+  }
+
+}
@@ -27,23 +27,25 @@ import cascading.tuple.Tuple;
  */
 class TupleComparator implements Comparator<Tuple> {
 
-  private final Fields declaredFields;
-  private final Fields sortFields;
+  private final int[] positions;
 
   TupleComparator(Fields declaredFields, Fields sortFields) {
     if (Fields.merge(declaredFields, sortFields).size() != declaredFields.size()) {
       throw new IllegalArgumentException("Declared fields must contain sort fields: sortFields=" + sortFields
           + ", declaredFields=" + declaredFields);
     }
-    this.declaredFields = declaredFields;
-    this.sortFields = sortFields;
+    positions = declaredFields.getPos(sortFields);
+  }
+
+  /** Returns the positions of the sort fields within the declared fields, in sort order. */
+  int[] getPositions() {
+    return positions.clone();
   }
 
   @SuppressWarnings({ "rawtypes", "unchecked" })
   @Override
   public int compare(Tuple o1, Tuple o2) {
-    for (Comparable<?> field : sortFields) {
-      int position = declaredFields.getPos(field);
+    for (int position : positions) {
       Comparable value1 = (Comparable) o1.getObject(position);
       Comparable value2 = (Comparable) o2.getObject(position);
       if (value1 == null && value2 != null) {
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import cascading.tuple.Tuple;
+
+/**
+ * Computes compact 64-bit hashes of {@link Tuple} values for digests and cardinality estimates. Hashes are derived from
+ * the {@link Object#hashCode() hashCode} of each value and are sensitive to value positions. Unequal values with equal
+ * hash codes, such as {@code 0L} and {@code -1L}, give equal hashes, so a hash must never be taken as proof of equality.
+ */
+final class TupleHasher {
+
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+  private static final int NULL_HASH = 0x6A09E667;
+
+  private TupleHasher() {
+  }
+
+  /** Hashes all values of the {@link Tuple}. */
+  static long hash(Tuple tuple) {
+    long hash = tuple.size();
+    for (int i = 0; i < tuple.size(); i++) {
+      hash = combine(hash, tuple.getObject(i));
+    }
+    return mix(hash);
+  }
+
+  /** Hashes the values at the given positions of the {@link Tuple}, as if it had been projected onto them. */
+  static long hash(Tuple tuple, int[] positions) {
+    long hash = positions.length;
+    for (int position : positions) {
+      hash = combine(hash, tuple.getObject(position));
+    }
+    return mix(hash);
+  }
+
+  private static long combine(long hash, Object value) {
+    return hash * MULTIPLIER + (value == null ? NULL_HASH : value.hashCode());
+  }
+
+  /** The MurmurHash3 64-bit finalizer. */
+  static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+}
@@ -38,14 +38,16 @@ public class TupleListTap extends Tap<Properties, Iterator<Tuple>, List<Tuple>>
 
   private final String id;
   private final long lastModified;
-  private final Iterator<Tuple> input;
+  private final Iterable<Tuple> input;
 
   /**
-   * Constructs a tap that can provided the declared {@link Tuple Tuples} into a {@link Pipe}.
+   * Constructs a tap that can provided the declared {@link Tuple Tuples} into a {@link Pipe}. The tap may be read any
+   * number of times; the {@link Tuple Tuples} are not copied so the supplied {@link Iterable} should not be modified
+   * while the tap is in use.
    */
   TupleListTap(Fields fields, Iterable<Tuple> input) {
     super(new TupleScheme(fields));
-    this.input = input.iterator();
+    this.input = input;
     id = getClass().getSimpleName() + ":" + UUID.randomUUID().toString();
     lastModified = System.currentTimeMillis();
   }
@@ -59,12 +61,13 @@ public class TupleListTap extends Tap<Properties, Iterator<Tuple>, List<Tuple>>
   /**
    * {@inheritDoc}
    * <p/>
-   * Returned type is a {@link ListTupleEntryIterator}.
+   * Returned type is a {@link ListTupleEntryIterator} over a new iterator of the input {@link Tuple Tuples}, so each
+   * call delivers all of them.
    */
   @Override
   public TupleEntryIterator openForRead(FlowProcess<? extends Properties> flowProcess, Iterator<Tuple> input)
     throws IOException {
-    return new ListTupleEntryIterator(getSourceFields(), this.input);
+    return new ListTupleEntryIterator(getSourceFields(), this.input.iterator());
   }
 
   /**
@@ -103,7 +106,7 @@ public class TupleListTap extends Tap<Properties, Iterator<Tuple>, List<Tuple>>
   }
 
   /** Returns the tuples that are delivered by this tap. */
-  Iterator<Tuple> getInput() {
+  Iterable<Tuple> getInput() {
     return input;
   }
 
@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Sorts {@link Tuple Tuples} by the supplied sort fields, using the same ordering as {@link TupleComparator}. When
+ * there is a single sort field whose non-null values are all of the same integral or floating point type, the values
+ * are extracted as {@code long} keys and radix sorted. Otherwise the tuples are sorted with a {@link TupleComparator},
+ * with a fork/join merge sort if there are at least as many tuples as the configured threshold. All sorts are
+ * stable.
+ */
+class TupleSorter {
+
+  /** The default number of tuples at which a comparator based sort is performed in parallel. */
+  static final int DEFAULT_PARALLEL_SORT_THRESHOLD = 100000;
+
+  /** The smallest range that a parallel sort sorts on a single thread. */
+  static final int MIN_PARALLEL_SORT_RANGE = 8192;
+
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+
+  /** Shared between sorts, its worker threads are daemons that are started on demand and expire when idle. */
+  private static final ForkJoinPool POOL = new ForkJoinPool();
+
+  private final TupleComparator comparator;
+  private final int[] positions;
+  private final int parallelSortThreshold;
+
+  TupleSorter(Fields declaredFields, Fields sortFields, int parallelSortThreshold) {
+    if (parallelSortThreshold < 1) {
+      throw new IllegalArgumentException("parallelSortThreshold < 1: " + parallelSortThreshold);
+    }
+    comparator = new TupleComparator(declaredFields, sortFields);
+    positions = comparator.getPositions();
+    this.parallelSortThreshold = parallelSortThreshold;
+  }
+
+  /** Returns a new array containing the supplied tuples in sorted order. */
+  Tuple[] sort(Collection<Tuple> tuples) {
+    Tuple[] sorted = tuples.toArray(new Tuple[tuples.size()]);
+    if (sorted.length < 2) {
+      return sorted;
+    }
+    if (positions.length == 1 && sortByKey(sorted, positions[0])) {
+      return sorted;
+    }
+    if (sorted.length >= parallelSortThreshold) {
+      int range = Math.max(MIN_PARALLEL_SORT_RANGE, sorted.length / (POOL.getParallelism() * 4));
+      POOL.invoke(new MergeSortTask(sorted, new Tuple[sorted.length], 0, sorted.length, range));
+    } else {
+      Arrays.sort(sorted, comparator);
+    }
+    return sorted;
+  }
+
+  /**
+   * Attempts to sort the tuples using {@code long} keys extracted from the value at the given position. Nulls are
+   * ordered first. Returns {@code false}, leaving the array untouched, if the values are not suitable.
+   */
+  private static boolean sortByKey(Tuple[] tuples, int position) {
+    KeyType keyType = null;
+    Class<?> valueType = null;
+    int nullCount = 0;
+    for (Tuple tuple : tuples) {
+      Object value = tuple.getObject(position);
+      if (value == null) {
+        nullCount++;
+      } else if (valueType == null) {
+        valueType = value.getClass();
+        keyType = KeyType.of(valueType);
+        if (keyType == null) {
+          return false;
+        }
+      } else if (value.getClass() != valueType) {
+        return false;
+      }
+    }
+    if (keyType == null) {
+      // all null, already in order
+      return true;
+    }
+
+    int keyCount = tuples.length - nullCount;
+    long[] keys = new long[keyCount];
+    int[] index = new int[keyCount];
+    Tuple[] nulls = new Tuple[nullCount];
+    int k = 0;
+    int n = 0;
+    for (int i = 0; i < tuples.length; i++) {
+      Object value = tuples[i].getObject(position);
+      if (value == null) {
+        nulls[n++] = tuples[i];
+      } else {
+        keys[k] = keyType.toKey((Number) value);
+        index[k] = i;
+        k++;
+      }
+    }
+    radixSort(keys, index);
+
+    Tuple[] unsorted = tuples.clone();
+    System.arraycopy(nulls, 0, tuples, 0, nullCount);
+    for (int i = 0; i < keyCount; i++) {
+      tuples[nullCount + i] = unsorted[index[i]];
+    }
+    return true;
+  }
+
+  /** Stable least significant digit radix sort of unsigned keys, permuting the index alongside the keys. */
+  static void radixSort(long[] keys, int[] index) {
+    int length = keys.length;
+    long[] keyBuffer = new long[length];
+    int[] indexBuffer = new int[length];
+    int[] counts = new int[RADIX];
+    long[] sourceKeys = keys;
+    int[] sourceIndex = index;
+    for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < length; i++) {
+        counts[(int) ((sourceKeys[i] >>> shift) & (RADIX - 1))]++;
+      }
+      if (isSingleBucket(counts, length)) {
+        continue;
+      }
+      int offset = 0;
+      for (int bucket = 0; bucket < RADIX; bucket++) {
+        int count = counts[bucket];
+        counts[bucket] = offset;
+        offset += count;
+      }
+      for (int i = 0; i < length; i++) {
+        int bucket = (int) ((sourceKeys[i] >>> shift) & (RADIX - 1));
+        int target = counts[bucket]++;
+        keyBuffer[target] = sourceKeys[i];
+        indexBuffer[target] = sourceIndex[i];
+      }
+      long[] swapKeys = sourceKeys;
+      sourceKeys = keyBuffer;
+      keyBuffer = swapKeys;
+      int[] swapIndex = sourceIndex;
+      sourceIndex = indexBuffer;
+      indexBuffer = swapIndex;
+    }
+    if (sourceKeys != keys) {
+      System.arraycopy(sourceKeys, 0, keys, 0, length);
+      System.arraycopy(sourceIndex, 0, index, 0, length);
+    }
+  }
+
+  private static boolean isSingleBucket(int[] counts, int length) {
+    for (int count : counts) {
+      if (count == length) {
+        return true;
+      }
+      if (count != 0) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sorts a range of the array by sorting each half concurrently and then merging them. Ranges no larger than the
+   * supplied size are sorted on the current thread. Ties are taken from the lower half first, so the sort is stable.
+   */
+  private final class MergeSortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Tuple[] tuples;
+    private final Tuple[] buffer;
+    private final int from;
+    private final int to;
+    private final int range;
+
+    private MergeSortTask(Tuple[] tuples, Tuple[] buffer, int from, int to, int range) {
+      this.tuples = tuples;
+      this.buffer = buffer;
+      this.from = from;
+      this.to = to;
+      this.range = range;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= range) {
+        Arrays.sort(tuples, from, to, comparator);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new MergeSortTask(tuples, buffer, from, middle, range),
+          new MergeSortTask(tuples, buffer, middle, to, range));
+      if (comparator.compare(tuples[middle - 1], tuples[middle]) <= 0) {
+        // the halves are already in order
+        return;
+      }
+      System.arraycopy(tuples, from, buffer, from, to - from);
+      int lower = from;
+      int upper = middle;
+      for (int i = from; i < to; i++) {
+        if (upper >= to || lower < middle && comparator.compare(buffer[lower], buffer[upper]) <= 0) {
+          tuples[i] = buffer[lower++];
+        } else {
+          tuples[i] = buffer[upper++];
+        }
+      }
+    }
+  }
+
+  /** Maps values to {@code long} keys whose unsigned order matches the natural order of the values. */
+  private enum KeyType {
+    INTEGRAL {
+      @Override
+      long toKey(Number value) {
+        return value.longValue() ^ Long.MIN_VALUE;
+      }
+    },
+    FLOATING_POINT {
+      @Override
+      long toKey(Number value) {
+        long bits = Double.doubleToLongBits(value.doubleValue());
+        return bits ^ ((bits >> (Long.SIZE - 1)) | Long.MIN_VALUE);
+      }
+    };
+
+    abstract long toKey(Number value);
+
+    static KeyType of(Class<?> type) {
+      if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+        return INTEGRAL;
+      }
+      if (type == Double.class || type == Float.class) {
+        return FLOATING_POINT;
+      }
+      return null;
+    }
+  }
+
+}
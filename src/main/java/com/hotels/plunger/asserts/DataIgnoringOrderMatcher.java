@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger.asserts;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+import com.hotels.plunger.Data;
+import com.hotels.plunger.DataDiff;
+
+class DataIgnoringOrderMatcher extends TypeSafeDiagnosingMatcher<Data> {
+  private final Data expected;
+
+  DataIgnoringOrderMatcher(Data expected) {
+    if (expected == null) {
+      throw new IllegalArgumentException(
+          "expected cannot be null. Consider using org.hamcrest.CoreMatchers.nullValue() instead.");
+    }
+    this.expected = expected;
+  }
+
+  @Override
+  public void describeTo(Description description) {
+    description.appendText("Data should contain the same tuples in any order");
+  }
+
+  @Override
+  protected boolean matchesSafely(Data actual, Description description) {
+    DataDiff diff;
+    try {
+      diff = actual.diff(expected);
+    } catch (IllegalArgumentException e) {
+      description.appendText(e.getMessage());
+      return false;
+    }
+    if (diff.isEmpty()) {
+      return true;
+    }
+    description.appendText(diff.toString());
+    return false;
+  }
+}
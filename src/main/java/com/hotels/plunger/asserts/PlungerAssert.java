@@ -21,6 +21,8 @@ import java.util.List;
 
 import org.hamcrest.Matcher;
 
+import com.hotels.plunger.Data;
+
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
@@ -62,4 +64,20 @@ public final class PlungerAssert {
     return new TupleEntryListMatcher(expected);
   }
 
+  /**
+   * Matches a {@link TupleEntry} list identical to the expected list, describing at most {@code maxReportedMismatches}
+   * mismatching items in full. Any further mismatches are summarized as counts of differing values per field.
+   */
+  public static TupleEntryListMatcher tupleEntryList(List<TupleEntry> expected, int maxReportedMismatches) {
+    return new TupleEntryListMatcher(expected, maxReportedMismatches);
+  }
+
+  /**
+   * Matches {@link Data} containing the same tuples as the expected {@link Data}, in any order. Compares in linear
+   * time and describes only the missing and unexpected tuples. See {@link Data#diff(Data)}.
+   */
+  public static Matcher<Data> dataIgnoringOrder(Data expected) {
+    return new DataIgnoringOrderMatcher(expected);
+  }
+
 }
@@ -15,26 +15,46 @@
  */
 package com.hotels.plunger.asserts;
 
-import static java.lang.Math.min;
 import static java.lang.String.format;
 
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.hamcrest.Description;
 import org.hamcrest.StringDescription;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 
+import cascading.tuple.Fields;
 import cascading.tuple.TupleEntry;
 
 class TupleEntryListMatcher extends TypeSafeDiagnosingMatcher<List<TupleEntry>> {
+
+  /** The number of mismatching items described in full when no limit is specified. */
+  static final int DEFAULT_MAX_REPORTED_MISMATCHES = 20;
+
+  private static final String FIELDS_MISMATCH = "<fields>";
+
   private final List<TupleEntry> expected;
+  private final int maxReportedMismatches;
 
   TupleEntryListMatcher(List<TupleEntry> expected) {
+    this(expected, DEFAULT_MAX_REPORTED_MISMATCHES);
+  }
+
+  TupleEntryListMatcher(List<TupleEntry> expected, int maxReportedMismatches) {
     if (expected == null) {
       throw new IllegalArgumentException(
           "expected cannot be null. Consider using org.hamcrest.CoreMatchers.nullValue() instead.");
     }
+    if (maxReportedMismatches < 0) {
+      throw new IllegalArgumentException("maxReportedMismatches < 0: " + maxReportedMismatches);
+    }
     this.expected = expected;
+    this.maxReportedMismatches = maxReportedMismatches;
   }
 
   @Override
@@ -53,15 +73,105 @@ class TupleEntryListMatcher extends TypeSafeDiagnosingMatcher<List<TupleEntry>>
       description.appendText(format("Expected size was %s, but was %s%n", expected.size(), actual.size()));
       result = false;
     }
-    int size = min(actual.size(), expected.size());
-    for (int i = 0; i < size; i++) {
-      Description stringDescription = new StringDescription();
-      if (!new TupleEntryMatcher(expected.get(i)).matchesSafely(actual.get(i), stringDescription)) {
-        description.appendText(format("Items at index %s do not match:%n", i));
-        description.appendText(stringDescription.toString());
+
+    // Iterate rather than index, the lists may be sequential
+    Iterator<TupleEntry> actualIterator = actual.iterator();
+    Iterator<TupleEntry> expectedIterator = expected.iterator();
+    Map<Comparable<?>, long[]> mismatchesByField = new LinkedHashMap<Comparable<?>, long[]>();
+    Fields lastActualFields = null;
+    Fields lastExpectedFields = null;
+    boolean sameStructure = false;
+    long mismatches = 0L;
+    for (int i = 0; actualIterator.hasNext() && expectedIterator.hasNext(); i++) {
+      TupleEntry actualEntry = actualIterator.next();
+      TupleEntry expectedEntry = expectedIterator.next();
+      // Lists generally share a single Fields instance, so the structure is compared only when it changes
+      if (actualEntry.getFields() != lastActualFields || expectedEntry.getFields() != lastExpectedFields) {
+        lastActualFields = actualEntry.getFields();
+        lastExpectedFields = expectedEntry.getFields();
+        sameStructure = sameStructure(lastActualFields, lastExpectedFields);
+      }
+      if (sameStructure ? countValueMismatches(actualEntry, expectedEntry, mismatchesByField) : countFieldsMismatch(
+          mismatchesByField)) {
+        if (mismatches < maxReportedMismatches) {
+          Description stringDescription = new StringDescription();
+          new TupleEntryMatcher(expectedEntry).matchesSafely(actualEntry, stringDescription);
+          description.appendText(format("Items at index %s do not match:%n", i));
+          description.appendText(stringDescription.toString());
+        }
+        mismatches++;
         result = false;
       }
     }
+    if (mismatches > maxReportedMismatches) {
+      description.appendText(format("... and %s more mismatching items%n", mismatches - maxReportedMismatches));
+    }
+    if (mismatches > 0L) {
+      description.appendText(format("%s mismatching items, mismatches by field: %s%n", mismatches,
+          summarize(mismatchesByField)));
+    }
     return result;
   }
-}
\ No newline at end of file
+
+  private static boolean countValueMismatches(TupleEntry actual, TupleEntry expected,
+      Map<Comparable<?>, long[]> mismatchesByField) {
+    boolean mismatch = false;
+    for (int pos = 0; pos < expected.size(); pos++) {
+      if (!equal(actual.getObject(pos), expected.getObject(pos))) {
+        increment(mismatchesByField, expected.getFields().get(pos));
+        mismatch = true;
+      }
+    }
+    return mismatch;
+  }
+
+  private static boolean countFieldsMismatch(Map<Comparable<?>, long[]> mismatchesByField) {
+    increment(mismatchesByField, FIELDS_MISMATCH);
+    return true;
+  }
+
+  private static void increment(Map<Comparable<?>, long[]> mismatchesByField, Comparable<?> field) {
+    long[] count = mismatchesByField.get(field);
+    if (count == null) {
+      count = new long[1];
+      mismatchesByField.put(field, count);
+    }
+    count[0]++;
+  }
+
+  private static String summarize(Map<Comparable<?>, long[]> mismatchesByField) {
+    StringBuilder summary = new StringBuilder();
+    for (Entry<Comparable<?>, long[]> entry : mismatchesByField.entrySet()) {
+      if (summary.length() > 0) {
+        summary.append(", ");
+      }
+      summary.append(entry.getKey()).append('=').append(entry.getValue()[0]);
+    }
+    return summary.toString();
+  }
+
+  /** Whether both {@link Fields} declare the same names, in the same positions, with the same types. */
+  private static boolean sameStructure(Fields actual, Fields expected) {
+    if (actual == expected) {
+      return true;
+    }
+    if (actual.size() != expected.size()) {
+      return false;
+    }
+    for (int pos = 0; pos < expected.size(); pos++) {
+      if (!equal(actual.get(pos), expected.get(pos))) {
+        return false;
+      }
+      Type actualType = actual.getType(pos);
+      Type expectedType = expected.getType(pos);
+      if (!equal(actualType, expectedType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean equal(Object o1, Object o2) {
+    return o1 == o2 || o1 != null && o1.equals(o2);
+  }
+}
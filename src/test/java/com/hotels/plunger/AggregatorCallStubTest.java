@@ -173,4 +173,84 @@ public class AggregatorCallStubTest {
     assertThat(actual.get(1), tupleEntry(OUTPUT_FIELDS, "d"));
   }
 
+  @Test
+  public void resetReplaysGroups() {
+    stub = new AggregatorCallStub.Builder<String>(GROUP_FIELDS, NON_GROUP_FIELDS)
+        .newGroup("x")
+        .addTuple(1)
+        .newGroup("y")
+        .addTuple(2)
+        .build();
+    stub.nextGroup();
+    stub.nextAggregateCall();
+    stub.setContext("VALUE");
+    stub.getOutputCollector().add(new Tuple(1));
+
+    stub.reset();
+    assertThat(stub.getGroup(), is(nullValue()));
+    assertThat(stub.getArguments(), is(nullValue()));
+    assertThat(stub.getContext(), is(nullValue()));
+    assertThat(stub.getOutputCount(), is(0L));
+    assertThat(stub.result().asTupleEntryList().isEmpty(), is(true));
+
+    stub.nextGroup();
+    stub.nextAggregateCall();
+    assertThat(stub.getGroup(), is(new TupleEntry(GROUP_FIELDS, new Tuple("x"))));
+    assertThat(stub.getArguments(), is(new TupleEntry(NON_GROUP_FIELDS, new Tuple(1))));
+  }
+
+  @Test
+  public void stubsFromOneBuilderDoNotShareOutput() {
+    AggregatorCallStub.Builder<Tuple[]> builder = new AggregatorCallStub.Builder<Tuple[]>(GROUP_FIELDS,
+        NON_GROUP_FIELDS).newGroup(1).addTuple("a").newGroup(2).addTuple("c");
+    AggregatorCallStub<Tuple[]> first = builder.build().complete(mock(FlowProcess.class),
+        new First(NON_GROUP_FIELDS));
+    AggregatorCallStub<Tuple[]> second = builder.build().complete(mock(FlowProcess.class),
+        new First(NON_GROUP_FIELDS));
+
+    first.reset();
+    assertThat(first.result().asTupleEntryList().isEmpty(), is(true));
+
+    List<TupleEntry> actual = second.result().asTupleEntryList();
+    assertThat(actual.size(), is(2));
+    assertThat(actual.get(0), tupleEntry(NON_GROUP_FIELDS, "a"));
+    assertThat(actual.get(1), tupleEntry(NON_GROUP_FIELDS, "c"));
+  }
+
+  @Test
+  public void completeAfterReset() {
+    AggregatorCallStub<Tuple[]> stub = new AggregatorCallStub.Builder<Tuple[]>(GROUP_FIELDS, NON_GROUP_FIELDS)
+        .newGroup(1)
+        .addTuple("a")
+        .newGroup(2)
+        .addTuple("c")
+        .build()
+        .complete(mock(FlowProcess.class), new First(NON_GROUP_FIELDS));
+
+    List<TupleEntry> actual = stub
+        .reset()
+        .complete(mock(FlowProcess.class), new First(NON_GROUP_FIELDS))
+        .result()
+        .asTupleEntryList();
+
+    assertThat(actual.size(), is(2));
+    assertThat(actual.get(0), tupleEntry(NON_GROUP_FIELDS, "a"));
+    assertThat(actual.get(1), tupleEntry(NON_GROUP_FIELDS, "c"));
+  }
+
+  @Test
+  public void discardOutput() {
+    AggregatorCallStub<Tuple[]> stub = new AggregatorCallStub.Builder<Tuple[]>(GROUP_FIELDS, NON_GROUP_FIELDS)
+        .discardOutput()
+        .newGroup(1)
+        .addTuple("a")
+        .newGroup(2)
+        .addTuple("c")
+        .build()
+        .complete(mock(FlowProcess.class), new First(NON_GROUP_FIELDS));
+
+    assertThat(stub.getOutputCount(), is(2L));
+    assertThat(stub.result().asTupleEntryList().isEmpty(), is(true));
+  }
+
 }
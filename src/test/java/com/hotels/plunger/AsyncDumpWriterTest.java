@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class AsyncDumpWriterTest {
+
+  private static final Fields FIELDS = new Fields("A");
+
+  private final BlockingDumpWriter delegate = new BlockingDumpWriter();
+
+  @Test
+  public void writesInOrder() throws IOException {
+    AsyncDumpWriter writer = new AsyncDumpWriter(delegate, 2, DumpOptions.Overflow.BLOCK, 1);
+    delegate.release();
+
+    writer.writeHeader(FIELDS);
+    TupleEntry entry = new TupleEntry(FIELDS, Tuple.size(1));
+    for (int i = 0; i < 100; i++) {
+      // The entry is reused, rows must be copied when queued
+      entry.setObject(0, i);
+      writer.writeRow(entry);
+    }
+    writer.close();
+
+    assertThat(delegate.lines.size(), is(101));
+    assertThat(delegate.lines.get(0), is("header A"));
+    assertThat(delegate.lines.get(1), is("row 0"));
+    assertThat(delegate.lines.get(100), is("row 99"));
+    assertThat(delegate.closed, is(true));
+  }
+
+  @Test
+  public void dropsWhenFull() throws Exception {
+    AsyncDumpWriter writer = new AsyncDumpWriter(delegate, 2, DumpOptions.Overflow.DROP, 1);
+    blockDelegate(writer);
+
+    for (int i = 0; i < 5; i++) {
+      writer.writeRow(row(i));
+    }
+    delegate.release();
+    writer.close();
+
+    assertThat(writer.getDroppedCount(), is(3L));
+    assertThat(delegate.lines, is(Arrays.asList("header A", "row 0", "row 1",
+        "note 3 row(s) dropped, the dump buffer was full")));
+  }
+
+  @Test
+  public void samplesWhenFull() throws Exception {
+    AsyncDumpWriter writer = new AsyncDumpWriter(delegate, 2, DumpOptions.Overflow.SAMPLE, 2);
+    blockDelegate(writer);
+
+    for (int i = 0; i < 3; i++) {
+      writer.writeRow(row(i));
+    }
+    delegate.release();
+    writer.close();
+
+    assertThat(writer.getDroppedCount(), is(1L));
+    assertThat(delegate.lines.get(1), is("row 0"));
+    assertThat(delegate.lines.get(2), is("row 1"));
+  }
+
+  @Test(expected = IOException.class)
+  public void failureIsReportedOnClose() throws IOException {
+    delegate.failure = new IOException("failed");
+    delegate.release();
+    AsyncDumpWriter writer = new AsyncDumpWriter(delegate, 2, DumpOptions.Overflow.BLOCK, 1);
+
+    writer.writeRow(row(1));
+    writer.close();
+  }
+
+  @Test
+  public void writersForAStreamShareOneQueue() throws Exception {
+    final int threads = 4;
+    final int rows = 20000;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final PrintStream stream = new PrintStream(bytes, false, "UTF-8");
+    final String padding = new String(new char[100]).replace('\0', 'x');
+
+    AsyncDumpWriter first = AsyncDumpWriter.forStream(stream, "0 ", 16, DumpOptions.Overflow.BLOCK, 1);
+    first.writeHeader(FIELDS);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int i = 0; i < threads; i++) {
+      final AsyncDumpWriter writer = i == 0 ? first : AsyncDumpWriter.forStream(stream, i + " ", 16,
+          DumpOptions.Overflow.BLOCK, 1);
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          for (int row = 0; row < rows; row++) {
+            writer.writeRow(new TupleEntry(FIELDS, new Tuple(row + padding)));
+          }
+          writer.close();
+          return null;
+        }
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    String[] lines = new String(bytes.toByteArray(), "UTF-8").split("\n");
+    assertThat(lines.length, is(threads * rows + 1));
+    assertThat(lines[0], is("0 A\t"));
+    int[] next = new int[threads];
+    for (int i = 1; i < lines.length; i++) {
+      // Each line is whole, and each writer's rows are in the order written
+      String[] parts = lines[i].split(" ");
+      int thread = Integer.parseInt(parts[0]);
+      assertThat(lines[i], is(thread + " " + next[thread]++ + padding + "\t"));
+    }
+  }
+
+  /** Waits until the background thread is blocked writing the header, so that the queue is empty. */
+  private void blockDelegate(AsyncDumpWriter writer) throws IOException, InterruptedException {
+    writer.writeHeader(FIELDS);
+    delegate.writing.await();
+  }
+
+  private static TupleEntry row(int value) {
+    return new TupleEntry(FIELDS, new Tuple(value));
+  }
+
+  private static class BlockingDumpWriter implements DumpWriter {
+    private final List<String> lines = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private IOException failure;
+    private volatile boolean closed;
+
+    void release() {
+      released.countDown();
+    }
+
+    @Override
+    public void writeHeader(Fields fields) throws IOException {
+      writing.countDown();
+      await();
+      lines.add("header " + fields.get(0));
+    }
+
+    @Override
+    public void writeRow(TupleEntry entry) throws IOException {
+      await();
+      if (failure != null) {
+        throw failure;
+      }
+      lines.add("row " + entry.getObject(0));
+    }
+
+    @Override
+    public void writeNote(String note) throws IOException {
+      lines.add("note " + note);
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+    }
+
+    private void await() throws IOException {
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+}
@@ -16,16 +16,20 @@
 package com.hotels.plunger;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -47,6 +51,9 @@ public class BucketTest {
   private static final Tuple TUPLE_1 = new Tuple(1, "x");
   private static final Tuple TUPLE_2 = new Tuple(2, "y");
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Mock
   private PlungerFlow flow;
   @Mock
@@ -145,4 +152,93 @@ public class BucketTest {
     assertThat(modifiedTime < System.currentTimeMillis(), is(true));
   }
 
+  @Test
+  public void resultViewsAreShared() throws IOException {
+    Bucket sink = new Bucket(FIELDS, pipe, flow);
+    TupleEntryCollector collector = sink.openForWrite(null, null);
+    collector.add(TUPLE_1);
+    List<Tuple> tupleList = sink.result().asTupleList();
+    assertThat(sink.result().asTupleList(), is(sameInstance(tupleList)));
+  }
+
+  @Test
+  public void spillToDisk() throws IOException {
+    Bucket sink = new Bucket(FIELDS, pipe, flow, BucketOptions
+        .spillToDisk(1)
+        .spillDirectory(temporaryFolder.getRoot()));
+    TupleEntryCollector collector = sink.openForWrite(null, null);
+    collector.add(TUPLE_2);
+    collector.add(TUPLE_1);
+    collector.close();
+
+    assertThat(temporaryFolder.getRoot().list().length, is(2));
+    assertThat(sink.result().asTupleList(), is(Arrays.asList(TUPLE_2, TUPLE_1)));
+    assertThat(sink.result().orderBy(new Fields("A")).asTupleList(), is(Arrays.asList(TUPLE_1, TUPLE_2)));
+    assertThat(sink.result().withFields(new Fields("B")).asTupleEntryList().get(1).getTuple(), is(new Tuple("x")));
+
+    sink.close();
+    assertThat(temporaryFolder.getRoot().list().length, is(0));
+  }
+
+  @Test
+  public void spillToDiskSorted() throws IOException {
+    Bucket sink = new Bucket(FIELDS, pipe, flow, BucketOptions
+        .spillToDisk(1)
+        .sortedBy(new Fields("B"))
+        .spillDirectory(temporaryFolder.getRoot()));
+    TupleEntryCollector collector = sink.openForWrite(null, null);
+    collector.add(TUPLE_2);
+    collector.add(TUPLE_1);
+    collector.close();
+
+    assertThat(sink.result().asTupleList(), is(Arrays.asList(TUPLE_1, TUPLE_2)));
+    assertThat(sink.result().orderBy(new Fields("B")).asTupleList(), is(Arrays.asList(TUPLE_1, TUPLE_2)));
+    sink.close();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void spillToDiskResultIsImmutable() throws IOException {
+    Bucket sink = new Bucket(FIELDS, pipe, flow, BucketOptions.spillToDisk(1).spillDirectory(temporaryFolder.getRoot()));
+    sink.result().asTupleList().add(new Tuple());
+  }
+
+  @Test
+  public void closeInMemory() throws IOException {
+    Bucket sink = new Bucket(FIELDS, pipe, flow);
+    sink.openForWrite(null, null).add(TUPLE_1);
+    sink.close();
+    assertThat(sink.result().asTupleList().size(), is(1));
+  }
+
+  @Test
+  public void expectedTuplesGrows() throws IOException {
+    Bucket sink = new Bucket(FIELDS, pipe, flow, BucketOptions.inMemory().expectedTuples(1));
+    TupleEntryCollector collector = sink.openForWrite(null, null);
+    collector.add(TUPLE_1);
+    collector.add(TUPLE_2);
+    collector.close();
+
+    assertThat(sink.result().asTupleList(), is(Arrays.asList(TUPLE_1, TUPLE_2)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void expectedTuplesRequiresInMemory() {
+    BucketOptions.spillToDisk(1).expectedTuples(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidExpectedTuples() {
+    BucketOptions.inMemory().expectedTuples(-1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void sortedByRequiresSpilling() {
+    BucketOptions.inMemory().sortedBy(new Fields("A"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidSpillThreshold() {
+    BucketOptions.spillToDisk(0);
+  }
+
 }
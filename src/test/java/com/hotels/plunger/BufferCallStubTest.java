@@ -118,6 +118,61 @@ public class BufferCallStubTest {
     stub.getOutputCollector().add(new Tuple(1, 2));
   }
 
+  @Test
+  public void completeAfterReset() {
+    BufferCallStub<Void> stub = new BufferCallStub.Builder<Void>(GROUP_FIELDS, NON_GROUP_FIELDS)
+        .outputFields(OUTPUT)
+        .newGroup(1)
+        .addTuple("a")
+        .addTuple("b")
+        .build()
+        .complete(mock(FlowProcess.class), new CountBuffer());
+
+    List<TupleEntry> actual = stub
+        .reset()
+        .complete(mock(FlowProcess.class), new CountBuffer())
+        .result()
+        .asTupleEntryList();
+
+    assertThat(actual.size(), is(2));
+    assertThat(actual.get(0), tupleEntry(OUTPUT, 1));
+    assertThat(actual.get(1), tupleEntry(OUTPUT, 2));
+  }
+
+  @Test
+  public void stubsFromOneBuilderDoNotShareOutput() {
+    BufferCallStub.Builder<Void> builder = new BufferCallStub.Builder<Void>(GROUP_FIELDS, NON_GROUP_FIELDS)
+        .outputFields(OUTPUT)
+        .newGroup(1)
+        .addTuple("a")
+        .addTuple("b");
+    BufferCallStub<Void> first = builder.build().complete(mock(FlowProcess.class), new CountBuffer());
+    BufferCallStub<Void> second = builder.build().complete(mock(FlowProcess.class), new CountBuffer());
+
+    first.reset();
+    assertThat(first.result().asTupleEntryList().isEmpty(), is(true));
+
+    List<TupleEntry> actual = second.result().asTupleEntryList();
+    assertThat(actual.size(), is(2));
+    assertThat(actual.get(0), tupleEntry(OUTPUT, 1));
+    assertThat(actual.get(1), tupleEntry(OUTPUT, 2));
+  }
+
+  @Test
+  public void discardOutput() {
+    BufferCallStub<Void> stub = new BufferCallStub.Builder<Void>(GROUP_FIELDS, NON_GROUP_FIELDS)
+        .outputFields(OUTPUT)
+        .discardOutput()
+        .newGroup(1)
+        .addTuple("a")
+        .addTuple("b")
+        .build()
+        .complete(mock(FlowProcess.class), new CountBuffer());
+
+    assertThat(stub.getOutputCount(), is(2L));
+    assertThat(stub.result().asTupleEntryList().isEmpty(), is(true));
+  }
+
   static class CountBuffer extends BaseOperation<Void> implements Buffer<Void> {
     private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+public class ColumnarTupleListTest {
+
+  private static final Fields FIELDS = new Fields("A", "B", "C", "D");
+  private static final Class<?>[] TYPES = new Class<?>[] { int.class, Long.class, double.class, String.class };
+  private static final Fields PRIMITIVE_FIELDS = new Fields(Fields.names("A", "B", "C"), Fields.types(int.class,
+      long.class, double.class));
+
+  @Test
+  public void addAndGet() {
+    ColumnarTupleList list = new ColumnarTupleList(FIELDS, TYPES);
+    list.add(new Tuple(1, 2L, 3.0d, "x"));
+    list.add(new Tuple(4, null, 6.0d, null));
+
+    assertThat(list.size(), is(2));
+    assertThat(list.get(0), is(new Tuple(1, 2L, 3.0d, "x")));
+    assertThat(list.get(1), is(new Tuple(4, null, 6.0d, null)));
+  }
+
+  @Test
+  public void addRow() {
+    ColumnarTupleList list = new ColumnarTupleList(FIELDS, TYPES);
+    list.addRow(new Object[] { 1, 2L, 3.0d, "x" });
+
+    assertThat(list.get(0), is(new Tuple(1, 2L, 3.0d, "x")));
+  }
+
+  @Test
+  public void untyped() {
+    ColumnarTupleList list = new ColumnarTupleList(new Fields("A", "B"), null);
+    list.add(new Tuple(1, "x"));
+
+    assertThat(list.get(0), is(new Tuple(1, "x")));
+  }
+
+  @Test
+  public void nullsAcrossBitmapWords() {
+    ColumnarTupleList list = new ColumnarTupleList(new Fields("A"), new Class<?>[] { Integer.class });
+    for (int i = 0; i < 200; i++) {
+      list.add(i % 3 == 0 ? new Tuple((Object) null) : new Tuple(i));
+    }
+    for (int i = 0; i < 200; i++) {
+      assertThat(list.get(i).getObject(0), is(i % 3 == 0 ? null : (Object) i));
+    }
+  }
+
+  @Test
+  public void equalsTupleList() {
+    ColumnarTupleList list = new ColumnarTupleList(FIELDS, TYPES);
+    list.add(new Tuple(1, 2L, 3.0d, "x"));
+
+    assertThat(list.equals(Arrays.asList(new Tuple(1, 2L, 3.0d, "x"))), is(true));
+    assertThat(list.hashCode(), is(Arrays.asList(new Tuple(1, 2L, 3.0d, "x")).hashCode()));
+  }
+
+  @Test
+  public void snapshotIsNotAffectedByLaterAdds() {
+    ColumnarTupleList list = new ColumnarTupleList(FIELDS, TYPES);
+    list.add(new Tuple(1, 2L, 3.0d, "x"));
+    ColumnarTupleList snapshot = list.snapshot();
+    for (int i = 0; i < 100; i++) {
+      list.add(new Tuple(i, null, 0.0d, "y"));
+    }
+
+    assertThat(snapshot.size(), is(1));
+    assertThat(snapshot.get(0), is(new Tuple(1, 2L, 3.0d, "x")));
+  }
+
+  @Test
+  public void snapshotRetainsNoSpareCapacity() {
+    ColumnarTupleList list = new ColumnarTupleList(new Fields("A", "B", "C"), new Class<?>[] { int.class, long.class,
+        double.class });
+    for (int i = 0; i < 1000; i++) {
+      list.add(new Tuple(i, (long) i, i == 999 ? null : (double) i));
+    }
+    ColumnarTupleList snapshot = list.snapshot();
+
+    // 20 bytes per row plus a null bitmap of 16 words
+    assertThat(snapshot.estimatedSizeInBytes(), is(1000L * 20 + 16 * 8));
+    assertThat(snapshot.get(999), is(new Tuple(999, 999L, null)));
+  }
+
+  @Test
+  public void addAfterSnapshot() {
+    ColumnarTupleList list = new ColumnarTupleList(FIELDS, TYPES);
+    list.add(new Tuple(1, 2L, 3.0d, "x"));
+    ColumnarTupleList snapshot = list.snapshot();
+    list.add(new Tuple(4, null, 6.0d, null));
+
+    assertThat(snapshot.size(), is(1));
+    assertThat(list.get(0), is(new Tuple(1, 2L, 3.0d, "x")));
+    assertThat(list.get(1), is(new Tuple(4, null, 6.0d, null)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void snapshotIsImmutable() {
+    new ColumnarTupleList(FIELDS, TYPES).snapshot().add(new Tuple(1, 2L, 3.0d, "x"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addInvalidSize() {
+    new ColumnarTupleList(FIELDS, TYPES).add(new Tuple(1));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getOutOfBounds() {
+    new ColumnarTupleList(FIELDS, TYPES).get(0);
+  }
+
+  @Test
+  public void primitiveColumnsAreCompact() {
+    ColumnarTupleList list = new ColumnarTupleList(new Fields("A", "B", "C"), new Class<?>[] { int.class, long.class,
+        double.class });
+    for (int i = 0; i < 1000; i++) {
+      list.add(new Tuple(i, (long) i, (double) i));
+    }
+    // 20 bytes per row plus capacity slack
+    assertThat(list.estimatedSizeInBytes() < 1000 * 20 * 2, is(true));
+  }
+
+  @Test
+  public void columnarDataRetainsLessHeap() {
+    int rows = 100000;
+
+    long before = usedHeapAfterGc();
+    Data tuples = buildPrimitiveData(new DataBuilder(PRIMITIVE_FIELDS), rows);
+    long tupleBytes = usedHeapAfterGc() - before;
+    assertThat(tuples.asTupleList().size(), is(rows));
+
+    before = usedHeapAfterGc();
+    Data columns = buildPrimitiveData(new DataBuilder(PRIMITIVE_FIELDS).withColumnarStorage(), rows);
+    long columnBytes = usedHeapAfterGc() - before;
+    assertThat(columns.asTupleList().size(), is(rows));
+
+    assertThat("tuples: " + tupleBytes + " bytes, columns: " + columnBytes + " bytes", columnBytes * 3 < tupleBytes,
+        is(true));
+  }
+
+  private static Data buildPrimitiveData(DataBuilder builder, int rows) {
+    for (int i = 0; i < rows; i++) {
+      builder.addTuple(i, (long) i, (double) i);
+    }
+    return builder.build();
+  }
+
+  private static long usedHeapAfterGc() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+    }
+    return used;
+  }
+
+}
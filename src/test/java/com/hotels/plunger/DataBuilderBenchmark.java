@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Measures the cost of building a typed {@link Data} set one row at a time with
+ * {@link DataBuilder#addTuple(Object...)} and in bulk with {@link DataBuilder#addTuples(Iterable)}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.hotels.plunger.DataBuilderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataBuilderBenchmark {
+
+  private static final Fields FIELDS = new Fields(Fields.names("id", "count", "name"), Fields.types(int.class,
+      long.class, String.class));
+
+  @Param({ "1000000" })
+  private int rows;
+
+  @Param({ "false", "true" })
+  private boolean columnar;
+
+  private List<Tuple> tuples;
+
+  @Setup
+  public void setup() {
+    tuples = new ArrayList<Tuple>(rows);
+    for (int i = 0; i < rows; i++) {
+      tuples.add(new Tuple(i, (long) i, "name-" + (i % 1000)));
+    }
+  }
+
+  @Benchmark
+  public Data addTuple() {
+    DataBuilder builder = newBuilder();
+    for (Tuple tuple : tuples) {
+      builder.addTuple(tuple.getObject(0), tuple.getObject(1), tuple.getObject(2));
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public Data addTuples() {
+    return newBuilder().addTuples(tuples).build();
+  }
+
+  private DataBuilder newBuilder() {
+    DataBuilder builder = new DataBuilder(FIELDS);
+    return columnar ? builder.withColumnarStorage() : builder;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(DataBuilderBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
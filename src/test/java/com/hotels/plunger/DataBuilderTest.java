@@ -20,6 +20,17 @@ import static org.junit.Assert.assertThat;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -460,4 +471,213 @@ public class DataBuilderTest {
     assertThat(tuples.get(1), is(new Tuple(1, 2)));
   }
 
+  @Test
+  public void columnarStorage() {
+    Fields fields = new Fields(Fields.names("A", "B", "C"), Fields.types(int.class, Long.class, String.class));
+    Data source = new DataBuilder(fields).withColumnarStorage().addTuple(1, 2L, "x").addTuple(3, null, "y").build();
+
+    List<Tuple> tuples = source.getTuples();
+    assertThat(tuples.size(), is(2));
+    assertThat(tuples.get(0), is(new Tuple(1, 2L, "x")));
+    assertThat(tuples.get(1), is(new Tuple(3, null, "y")));
+  }
+
+  @Test
+  public void columnarStorageAfterTuplesAdded() {
+    Fields fields = new Fields(Fields.names("A", "B"), Fields.types(int.class, String.class));
+    Data source = new DataBuilder(fields).addTuple(1, "x").withColumnarStorage().addTuple(2, "y").build();
+
+    assertThat(source, is(new DataBuilder(fields).addTuple(1, "x").addTuple(2, "y").build()));
+  }
+
+  @Test
+  public void columnarStorageBuildIsSnapshot() {
+    Fields fields = new Fields("A", int.class);
+    DataBuilder builder = new DataBuilder(fields).withColumnarStorage().addTuple(1);
+    Data first = builder.build();
+    builder.addTuple(2).addTuple(3);
+
+    assertThat(first.getTuples().size(), is(1));
+    assertThat(first.getTuples().get(0), is(new Tuple(1)));
+  }
+
+  @Test
+  public void generate() {
+    Fields fields = new Fields(Fields.names("id", "key"), Fields.types(long.class, String.class));
+    Data source = new DataBuilder(fields)
+        .addTuple(-1L, "first")
+        .generate(3, 1L, Generators.sequence(10L), Generators.constant("k"))
+        .addTuple(-2L, "last")
+        .build();
+
+    List<Tuple> tuples = source.getTuples();
+    assertThat(tuples.size(), is(5));
+    assertThat(tuples.get(0), is(new Tuple(-1L, "first")));
+    assertThat(tuples.get(1), is(new Tuple(10L, "k")));
+    assertThat(tuples.get(3), is(new Tuple(12L, "k")));
+    assertThat(tuples.get(4), is(new Tuple(-2L, "last")));
+  }
+
+  @Test
+  public void generateIsReproducibleAcrossChunks() {
+    Fields fields = new Fields("id", "key");
+    int rows = DataBuilder.GENERATE_CHUNK_SIZE * 2 + 7;
+    Data first = new DataBuilder(fields)
+        .generate(rows, 42L, Generators.sequence(0L), Generators.zipfian(100, 1.0))
+        .build();
+    Data second = new DataBuilder(fields)
+        .generate(rows, 42L, Generators.sequence(0L), Generators.zipfian(100, 1.0))
+        .build();
+    Data otherSeed = new DataBuilder(fields)
+        .generate(rows, 43L, Generators.sequence(0L), Generators.zipfian(100, 1.0))
+        .build();
+
+    assertThat(first.getTuples().size(), is(rows));
+    assertThat(first.getTuples().get(rows - 1).getLong(0), is(rows - 1L));
+    assertThat(first, is(second));
+    assertThat(first.equals(otherSeed), is(false));
+  }
+
+  @Test
+  public void generateWithFieldsAndColumnarStorage() {
+    Fields fields = new Fields(Fields.names("A", "B"), Fields.types(int.class, String.class));
+    Data source = new DataBuilder(fields)
+        .withColumnarStorage()
+        .withFields(new Fields("B"))
+        .generate(2, 1L, Generators.constant("x"))
+        .build();
+
+    List<Tuple> tuples = source.getTuples();
+    assertThat(tuples.size(), is(2));
+    assertThat(tuples.get(0), is(new Tuple(0, "x")));
+    assertThat(tuples.get(1), is(new Tuple(0, "x")));
+  }
+
+  @Test
+  public void generateBoundsChunksInFlight() {
+    final CountDownLatch firstChunkAwaited = new CountDownLatch(1);
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger poolSize = new AtomicInteger();
+    FieldGenerator generator = new FieldGenerator() {
+      @Override
+      public Object generate(long row, Random random) {
+        if (row == 0L) {
+          // Hold the first chunk until its result is awaited, so that every other chunk submitted is held too
+          try {
+            firstChunkAwaited.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return row;
+      }
+    };
+    DataBuilder builder = new DataBuilder(new Fields("id", long.class)) {
+      @Override
+      ExecutorService newGenerateExecutor(int threads) {
+        poolSize.set(threads);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>()) {
+          @Override
+          protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+            int held = inFlight.incrementAndGet();
+            int max = maxInFlight.get();
+            while (held > max && !maxInFlight.compareAndSet(max, held)) {
+              max = maxInFlight.get();
+            }
+            return new FutureTask<T>(callable) {
+              @Override
+              public T get() throws InterruptedException, ExecutionException {
+                firstChunkAwaited.countDown();
+                T result = super.get();
+                inFlight.decrementAndGet();
+                return result;
+              }
+            };
+          }
+        };
+      }
+    };
+    int rows = DataBuilder.GENERATE_CHUNK_SIZE * (Runtime.getRuntime().availableProcessors() * 2 + 1);
+    Data data = builder.withColumnarStorage().generate(rows, 1L, generator).build();
+
+    assertThat(data.getTuples().size(), is(rows));
+    assertThat(maxInFlight.get() <= poolSize.get(), is(true));
+    assertThat(inFlight.get(), is(0));
+  }
+
+  @Test
+  public void generateCoercesValues() {
+    Fields fields = new Fields("A", String.class);
+    Data source = new DataBuilder(fields).generate(1, 1L, Generators.constant(1)).build();
+
+    assertThat(source.getTuples().get(0), is(new Tuple("1")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void generateWrongNumberOfGenerators() {
+    new DataBuilder(new Fields("A", "B")).generate(1, 1L, Generators.constant(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void generateNegativeRows() {
+    new DataBuilder(new Fields("A")).generate(-1, 1L, Generators.constant(1));
+  }
+
+  @Test
+  public void buildTwiceDoesNotDuplicateCurrentTuple() {
+    DataBuilder builder = new DataBuilder(new Fields("A"));
+    Data first = builder.addTuple(1).build();
+    Data second = builder.addTuple(2).build();
+
+    assertThat(first.getTuples().size(), is(1));
+    assertThat(second.getTuples().size(), is(2));
+    assertThat(second.getTuples().get(1), is(new Tuple(2)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void setAfterBuild() {
+    DataBuilder builder = new DataBuilder(new Fields("A"));
+    builder.addTuple(1).build();
+    builder.set("A", 2);
+  }
+
+  @Test
+  public void addTuplesWithFieldsAndTypes() {
+    Fields fields = new Fields(Fields.names("A", "B", "C"), Fields.types(int.class, String.class, Long.class));
+    Data source = new DataBuilder(fields)
+        .withFields(new Fields("C", "A"))
+        .addTuples(Arrays.asList(new Tuple("1", 2), new Tuple(3, "4")))
+        .build();
+
+    List<Tuple> tuples = source.getTuples();
+    assertThat(tuples.size(), is(2));
+    assertThat(tuples.get(0), is(new Tuple(2, null, 1L)));
+    assertThat(tuples.get(1), is(new Tuple(4, null, 3L)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addTuplesInvalidLength() {
+    new DataBuilder(new Fields("A", "B")).addTuples(new Tuple(1));
+  }
+
+  @Test
+  public void copyTupleCopiesUncoercedValues() {
+    Fields fields = new Fields(Fields.names("A", "B"), Fields.types(String.class, int.class));
+    Data source = new DataBuilder(fields).addTuple(1, "2").copyTuple().set("B", 3).build();
+
+    List<Tuple> tuples = source.getTuples();
+    assertThat(tuples.size(), is(2));
+    assertThat(tuples.get(0), is(new Tuple("1", 2)));
+    assertThat(tuples.get(1), is(new Tuple("1", 3)));
+  }
+
+  @Test
+  public void setByPosition() {
+    Data source = new DataBuilder(new Fields("A", "B")).newTuple().set(1, "x").set(new Fields("A"), "y").build();
+
+    assertThat(source.getTuples().get(0), is(new Tuple("y", "x")));
+  }
+
 }
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+public class DataDiffTest {
+
+  private static final Fields FIELDS = new Fields("id", "name");
+
+  @Test
+  public void equalIgnoringOrder() {
+    Data actual = new DataBuilder(FIELDS).addTuple(1, "a").addTuple(2, "b").addTuple(1, "a").build();
+    Data expected = new DataBuilder(FIELDS).addTuple(2, "b").addTuple(1, "a").addTuple(1, "a").build();
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(true));
+    assertThat(actual.diff(expected).isEmpty(), is(true));
+    assertThat(actual.diff(expected).toString(), is("No differences"));
+  }
+
+  @Test
+  public void missingAndUnexpectedWithCounts() {
+    Data actual = new DataBuilder(FIELDS).addTuple(1, "a").addTuple(3, "c").addTuple(3, "c").build();
+    Data expected = new DataBuilder(FIELDS).addTuple(1, "a").addTuple(1, "a").addTuple(2, "b").build();
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(false));
+    DataDiff diff = actual.diff(expected);
+    assertThat(diff.getMissing().size(), is(2));
+    assertThat(diff.getMissing().get(0).getTuple(), is(new Tuple(1, "a")));
+    assertThat(diff.getMissing().get(0).getCount(), is(1));
+    assertThat(diff.getMissing().get(1).getTuple(), is(new Tuple(2, "b")));
+    assertThat(diff.getUnexpected().size(), is(1));
+    assertThat(diff.getUnexpected().get(0).getTuple(), is(new Tuple(3, "c")));
+    assertThat(diff.getUnexpected().get(0).getCount(), is(2));
+  }
+
+  @Test
+  public void valuesWithEqualHashCodesDiffer() {
+    // Each pair has equal hash codes but is not equal
+    assertDiffers(0L, -1L);
+    assertDiffers("Aa", "BB");
+    assertDiffers(1, 1L);
+  }
+
+  @Test
+  public void tuplesWithEqualHashCodesDiffer() {
+    Data actual = new DataBuilder(FIELDS).addTuple(1, "Aa").addTuple(2, "BB").build();
+    Data expected = new DataBuilder(FIELDS).addTuple(1, "BB").addTuple(2, "Aa").build();
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(false));
+    DataDiff diff = actual.diff(expected);
+    assertThat(diff.getMissing().size(), is(2));
+    assertThat(diff.getUnexpected().size(), is(2));
+  }
+
+  @Test
+  public void selectedFieldsOnly() {
+    Data actual = new DataBuilder(FIELDS).addTuple(1, "a").addTuple(2, "b").build().withFields(new Fields("name"));
+    Data expected = new DataBuilder(new Fields("name", "other"))
+        .addTuple("b", 10)
+        .addTuple("a", 20)
+        .build()
+        .withFields(new Fields("name"));
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(true));
+  }
+
+  @Test
+  public void differentFields() {
+    Data actual = new DataBuilder(FIELDS).addTuple(1, "a").build();
+    Data expected = new DataBuilder(new Fields("id")).addTuple(1).build();
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(false));
+    assertThat(actual.equalsIgnoreOrder(null), is(false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void diffDifferentFields() {
+    new DataBuilder(FIELDS).build().diff(new DataBuilder(new Fields("id")).build());
+  }
+
+  @Test
+  public void describesBoundedNumberOfRows() {
+    Data actual = new DataBuilder(FIELDS).generate(1000, 1L, Generators.sequence(0L), Generators.constant("x")).build();
+    Data expected = new DataBuilder(FIELDS).build();
+
+    String description = actual.diff(expected).toString();
+    assertThat(description, containsString("Unexpected 1000 tuple(s)"));
+    assertThat(description, containsString("... and 990 more distinct tuple(s)"));
+  }
+
+  @Test
+  public void largeShuffledDataIsEqual() {
+    Data actual = new DataBuilder(FIELDS)
+        .generate(200000, 1L, Generators.uniformInt(0, 1000), Generators.strings(50, 3))
+        .build();
+    Data expected = new DataBuilder(FIELDS).addTuples(actual.orderBy(new Fields("name")).asTupleList()).build();
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(true));
+  }
+
+  private static void assertDiffers(Object actualValue, Object expectedValue) {
+    Fields fields = new Fields("value");
+    Data actual = new DataBuilder(fields).addTuple(actualValue).build();
+    Data expected = new DataBuilder(fields).addTuple(expectedValue).build();
+
+    assertThat(actual.equalsIgnoreOrder(expected), is(false));
+    DataDiff diff = actual.diff(expected);
+    assertThat(diff.getMissing().get(0).getTuple(), is(new Tuple(expectedValue)));
+    assertThat(diff.getUnexpected().get(0).getTuple(), is(new Tuple(actualValue)));
+  }
+
+}
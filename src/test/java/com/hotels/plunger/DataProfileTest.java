@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+
+public class DataProfileTest {
+
+  private static final Fields FIELDS = new Fields("id", "key", "mixed");
+
+  @Test
+  public void profile() {
+    Data data = new DataBuilder(FIELDS)
+        .addTuple(1, "hot", "x")
+        .addTuple(2, "hot", 1)
+        .addTuple(3, "hot", null)
+        .addTuple(4, "cold", "y")
+        .addTuple(5, null, "z")
+        .build();
+
+    DataProfile profile = data.profile();
+    assertThat(profile.getRowCount(), is(5L));
+    assertThat(profile.getFieldProfiles().size(), is(3));
+
+    FieldProfile id = profile.getFieldProfile("id");
+    assertThat(id.getCount(), is(5L));
+    assertThat(id.getNullCount(), is(0L));
+    assertThat(id.getApproximateDistinctCount(), is(5L));
+    assertThat(id.getMin(), is((Object) 1));
+    assertThat(id.getMax(), is((Object) 5));
+
+    FieldProfile key = profile.getFieldProfile("key");
+    assertThat(key.getNullRatio(), is(0.2d));
+    assertThat(key.getApproximateDistinctCount(), is(2L));
+    assertThat(key.getMin(), is((Object) "cold"));
+    assertThat(key.getMax(), is((Object) "hot"));
+    List<FieldProfile.HeavyHitter> heavyHitters = key.getHeavyHitters();
+    assertThat(heavyHitters.size(), is(2));
+    assertThat(heavyHitters.get(0).getValue(), is((Object) "hot"));
+    assertThat(heavyHitters.get(0).getCount(), is(3L));
+    assertThat(key.getTopValueRatio(), is(0.75d));
+
+    FieldProfile mixed = profile.getFieldProfile("mixed");
+    assertThat(mixed.getMin(), is(nullValue()));
+    assertThat(mixed.getMax(), is(nullValue()));
+    assertThat(mixed.getApproximateDistinctCount(), is(4L));
+  }
+
+  @Test
+  public void profileSelectedFields() {
+    Data data = new DataBuilder(FIELDS).addTuple(1, "a", "b").build().withFields(new Fields("key"));
+
+    DataProfile profile = data.profile(1);
+    assertThat(profile.getFieldProfiles().size(), is(1));
+    assertThat(profile.getFieldProfiles().get(0).getField(), is((Object) "key"));
+    assertThat(profile.getFieldProfiles().get(0).getHeavyHitters().size(), is(1));
+  }
+
+  @Test
+  public void profileEmpty() {
+    DataProfile profile = new DataBuilder(FIELDS).build().profile();
+    assertThat(profile.getRowCount(), is(0L));
+    FieldProfile id = profile.getFieldProfile("id");
+    assertThat(id.getNullRatio(), is(0d));
+    assertThat(id.getTopValueRatio(), is(0d));
+    assertThat(id.getHeavyHitters().isEmpty(), is(true));
+    assertThat(id.getMin(), is(nullValue()));
+  }
+
+  @Test
+  public void profileSkewedGeneratedData() {
+    Data data = new DataBuilder(new Fields("key"))
+        .generate(100000, 1L, Generators.zipfian(10000, 1.5))
+        .build();
+
+    FieldProfile key = data.profile().getFieldProfile("key");
+    assertThat(key.getHeavyHitters().get(0).getValue(), is((Object) 0));
+    assertThat(key.getTopValueRatio() > 0.3d, is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownField() {
+    new DataBuilder(FIELDS).build().profile().getFieldProfile("unknown");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeHeavyHitters() {
+    new DataBuilder(FIELDS).build().profile(-1);
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class DataSnapshotTest {
+
+  private static final Fields FIELDS = new Fields(new String[] { "I", "L", "D", "S", "O" }, new Class<?>[] {
+      Integer.class, Long.class, Double.class, String.class, Object.class });
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void roundTrip() throws IOException {
+    Data data = newData(10);
+    File file = temporaryFolder.newFile();
+    Plunger.writeSnapshot(data, file, false);
+
+    Data read = Plunger.readSnapshot(file);
+
+    assertThat(read.getDeclaredFields(), is(FIELDS));
+    assertThat(read.getDeclaredFields().getType(0), is((Object) Integer.class));
+    assertThat(read.asTupleList(), is(data.asTupleList()));
+    assertThat(read, is(data));
+  }
+
+  @Test
+  public void compressedRoundTripAcrossBlocks() throws IOException {
+    Data data = newData(1000);
+    File file = temporaryFolder.newFile();
+    DataSnapshot.write(data, file, true, 64);
+
+    Data read = DataSnapshot.read(file);
+
+    assertThat(((SnapshotTupleList) read.getTuples()).getBlockCount(), is(16));
+    assertThat(read.asTupleList(), is(data.asTupleList()));
+    // Random access across blocks
+    assertThat(read.getTuples().get(999), is(data.getTuples().get(999)));
+    assertThat(read.getTuples().get(0), is(data.getTuples().get(0)));
+    assertThat(read.getTuples().get(500), is(data.getTuples().get(500)));
+  }
+
+  @Test
+  public void compressionReducesSize() throws IOException {
+    Data data = new DataBuilder(new Fields("S", String.class)).generate(10000, 1L, Generators.constant("repeated"))
+        .build();
+    File uncompressed = temporaryFolder.newFile();
+    File compressed = temporaryFolder.newFile();
+    Plunger.writeSnapshot(data, uncompressed, false);
+    Plunger.writeSnapshot(data, compressed, true);
+
+    assertThat(compressed.length() < uncompressed.length() / 10, is(true));
+    assertThat(Plunger.readSnapshot(compressed), is(data));
+  }
+
+  @Test
+  public void mixedTypesInColumn() throws IOException {
+    Fields fields = new Fields("A");
+    Data data = new DataBuilder(fields).addTuple(1).addTuple(2L).addTuple((Object) null).addTuple("x").build();
+    File file = temporaryFolder.newFile();
+    Plunger.writeSnapshot(data, file, false);
+
+    assertThat(Plunger.readSnapshot(file).asTupleList(), is(data.asTupleList()));
+  }
+
+  @Test
+  public void empty() throws IOException {
+    Data data = new DataBuilder(FIELDS).build();
+    File file = temporaryFolder.newFile();
+    Plunger.writeSnapshot(data, file, true);
+
+    Data read = Plunger.readSnapshot(file);
+
+    assertThat(read.getDeclaredFields(), is(FIELDS));
+    assertThat(read.asTupleList().size(), is(0));
+  }
+
+  @Test
+  public void writesSelectedFieldsInOrder() throws IOException {
+    Data data = newData(5).withFields(new Fields("I", "S")).orderBy(new Fields("I"));
+    File file = temporaryFolder.newFile();
+    Plunger.writeSnapshot(data, file, false);
+
+    Data read = Plunger.readSnapshot(file);
+
+    assertThat(read.getDeclaredFields(), is(new Fields("I", "S")));
+    assertThat(read.asTupleList(), is(data.asTupleList()));
+  }
+
+  @Test
+  public void readsLazily() throws IOException {
+    File file = temporaryFolder.newFile();
+    Plunger.writeSnapshot(newData(10), file, false);
+
+    Data read = Plunger.readSnapshot(file);
+    List<TupleEntry> entries = read.asTupleEntryList();
+
+    assertThat(read.getTuples(), instanceOf(SnapshotTupleList.class));
+    assertThat(read.asTupleList().get(3), is(read.getTuples().get(3)));
+    assertThat(entries.get(3).getInteger("I"), is(3));
+  }
+
+  @Test
+  public void toTap() throws IOException {
+    Data data = newData(10);
+    File file = temporaryFolder.newFile();
+    Plunger.writeSnapshot(data, file, true);
+
+    Data read = Plunger.readDataFromTap(Plunger.readSnapshot(file).toTap());
+
+    assertThat(read.asTupleList(), is(data.asTupleList()));
+  }
+
+  @Test(expected = IOException.class)
+  public void notASnapshot() throws IOException {
+    File file = temporaryFolder.newFile();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 });
+    }
+    Plunger.readSnapshot(file);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidBlockRows() throws IOException {
+    DataSnapshot.write(newData(1), temporaryFolder.newFile(), false, 0);
+  }
+
+  private static Data newData(int rows) {
+    DataBuilder builder = new DataBuilder(FIELDS);
+    for (int i = 0; i < rows; i++) {
+      builder.addTuple(i, i % 3 == 0 ? null : (long) i * 1000, i / 2d, "value" + i, i % 2 == 0 ? new BigDecimal(i)
+          : new Tuple("nested", i));
+    }
+    return builder.build();
+  }
+
+}
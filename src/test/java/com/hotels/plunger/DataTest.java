@@ -16,9 +16,12 @@
 package com.hotels.plunger;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -244,4 +247,107 @@ public class DataTest {
     new Data(fields, tuples).asTupleList().add(new Tuple());
   }
 
+  @Test
+  public void asTupleListIsCached() {
+    Data data = new Data(new Fields("A", "B"), Arrays.asList(new Tuple(2, 100), new Tuple(1, 200)));
+    List<Tuple> first = data.orderBy(new Fields("A")).asTupleList();
+
+    assertThat(data.asTupleList(), is(sameInstance(first)));
+    assertThat(data.orderBy(new Fields("A")).asTupleList(), is(sameInstance(first)));
+  }
+
+  @Test
+  public void asTupleListCacheInvalidatedByOrderBy() {
+    Data data = new Data(new Fields("A", "B"), Arrays.asList(new Tuple(2, 100), new Tuple(1, 200)));
+    List<Tuple> first = data.orderBy(new Fields("A")).asTupleList();
+    List<Tuple> second = data.orderBy(new Fields("B")).asTupleList();
+
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(first.get(0), is(new Tuple(1, 200)));
+    assertThat(second.get(0), is(new Tuple(2, 100)));
+  }
+
+  @Test
+  public void asTupleListCacheInvalidatedByWithFields() {
+    Data data = new Data(new Fields("A", "B"), Arrays.asList(new Tuple(1, 100)));
+    List<Tuple> all = data.asTupleList();
+    List<Tuple> selected = data.withFields(new Fields("B")).asTupleList();
+
+    assertThat(all.get(0), is(new Tuple(1, 100)));
+    assertThat(selected.get(0), is(new Tuple(100)));
+    assertThat(data.withFields(Fields.ALL).asTupleList().get(0), is(new Tuple(1, 100)));
+  }
+
+  @Test
+  public void asTupleEntryListIsCached() {
+    Data data = new Data(new Fields("A", "B"), Arrays.asList(new Tuple(1, 100)));
+    List<TupleEntry> first = data.asTupleEntryList();
+
+    assertThat(data.asTupleEntryList(), is(sameInstance(first)));
+  }
+
+  @Test
+  public void viewCacheSharedBetweenInstances() {
+    Data.ViewCache cache = new Data.ViewCache();
+    List<Tuple> tuples = Arrays.asList(new Tuple(1, 100));
+    List<Tuple> first = new Data(new Fields("A", "B"), tuples, cache).asTupleList();
+
+    assertThat(new Data(new Fields("A", "B"), tuples, cache).asTupleList(), is(sameInstance(first)));
+  }
+
+  @Test
+  public void viewCacheInvalidatedBySizeChange() {
+    Data.ViewCache cache = new Data.ViewCache();
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    tuples.add(new Tuple(1, 100));
+    new Data(new Fields("A", "B"), tuples, cache).asTupleList();
+    tuples.add(new Tuple(2, 200));
+
+    assertThat(new Data(new Fields("A", "B"), tuples, cache).asTupleList().size(), is(2));
+  }
+
+  @Test
+  public void viewCacheInvalidatedByModification() {
+    Data.ViewCache cache = new Data.ViewCache();
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    tuples.add(new Tuple(1, 100));
+    new Data(new Fields("A", "B"), tuples, cache).asTupleList();
+    tuples.set(0, new Tuple(2, 200));
+    cache.invalidate();
+
+    assertThat(new Data(new Fields("A", "B"), tuples, cache).asTupleList().get(0), is(new Tuple(2, 200)));
+  }
+
+  @Test
+  public void asTupleListColumnarIsNotCopied() {
+    Fields fields = new Fields(Fields.names("A", "B"), Fields.types(int.class, String.class));
+    ColumnarTupleList columns = new ColumnarTupleList(fields, new Class<?>[] { int.class, String.class });
+    columns.add(new Tuple(1, "x"));
+    columns.add(new Tuple(2, "y"));
+    Data data = new Data(fields, columns.snapshot());
+
+    List<Tuple> view = data.withFields(new Fields("B")).asTupleList();
+    assertThat(view.size(), is(2));
+    assertThat(view.get(1), is(new Tuple("y")));
+    // each read materializes a new tuple from the columns
+    assertThat(view.get(0), is(not(sameInstance(view.get(0)))));
+
+    List<Tuple> sorted = data.withFields(Fields.ALL).orderBy(new Fields("B")).asTupleList();
+    assertThat(sorted.get(0), is(sameInstance(sorted.get(0))));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void asTupleListTuplesAreUnmodifiable() {
+    new Data(new Fields("A", "B"), Arrays.asList(new Tuple(1, 100))).asTupleList().get(0).set(0, 2);
+  }
+
+  @Test
+  public void asTupleListDoesNotExposeSourceTuples() {
+    Tuple source = new Tuple(1, 100);
+    List<Tuple> view = new Data(new Fields("A", "B"), Arrays.asList(source)).asTupleList();
+
+    source.set(0, 2);
+    assertThat(view.get(0), is(new Tuple(1, 100)));
+  }
+
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class DigestOutputSinkTest {
+
+  private static final Fields FIELDS = new Fields("id", "name");
+
+  @Test
+  public void orderedDependsOnOrder() {
+    DigestOutputSink first = collect(OutputSinks.orderedDigest(), new Tuple(1, "a"), new Tuple(2, "b"));
+    DigestOutputSink second = collect(OutputSinks.orderedDigest(), new Tuple(2, "b"), new Tuple(1, "a"));
+    DigestOutputSink same = collect(OutputSinks.orderedDigest(), new Tuple(1, "a"), new Tuple(2, "b"));
+
+    assertThat(first.getDigest(), is(not(second.getDigest())));
+    assertThat(first.getDigest(), is(same.getDigest()));
+    assertThat(first.getCount(), is(2L));
+  }
+
+  @Test
+  public void unorderedIgnoresOrder() {
+    DigestOutputSink first = collect(OutputSinks.unorderedDigest(), new Tuple(1, "a"), new Tuple(2, "b"));
+    DigestOutputSink second = collect(OutputSinks.unorderedDigest(), new Tuple(2, "b"), new Tuple(1, "a"));
+
+    assertThat(first.getDigest(), is(second.getDigest()));
+  }
+
+  @Test
+  public void unorderedDetectsDuplicates() {
+    DigestOutputSink once = collect(OutputSinks.unorderedDigest(), new Tuple(1, "a"), new Tuple(2, "b"));
+    DigestOutputSink twice = collect(OutputSinks.unorderedDigest(), new Tuple(1, "a"), new Tuple(1, "a"));
+
+    assertThat(once.getDigest(), is(not(twice.getDigest())));
+  }
+
+  @Test
+  public void valuesInDifferentPositions() {
+    DigestOutputSink first = collect(OutputSinks.unorderedDigest(), new Tuple(null, "a"));
+    DigestOutputSink second = collect(OutputSinks.unorderedDigest(), new Tuple("a", null));
+
+    assertThat(first.getDigest(), is(not(second.getDigest())));
+  }
+
+  @Test
+  public void reset() {
+    DigestOutputSink sink = collect(OutputSinks.orderedDigest(), new Tuple(1, "a"));
+    sink.reset();
+
+    assertThat(sink.getDigest(), is(0L));
+    assertThat(sink.getCount(), is(0L));
+    assertThat(sink.getRetained().isEmpty(), is(true));
+  }
+
+  private static DigestOutputSink collect(DigestOutputSink sink, Tuple... tuples) {
+    for (Tuple tuple : tuples) {
+      sink.collect(new TupleEntry(FIELDS, tuple));
+    }
+    return sink;
+  }
+
+}
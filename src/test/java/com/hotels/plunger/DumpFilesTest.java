@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.pipe.Pipe;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class DumpFilesTest {
+
+  private static final Fields FIELDS = new Fields(Fields.names("A", "B"), Fields.types(String.class, Integer.class));
+  private static final Data INPUT_DATA = new DataBuilder(FIELDS).addTuple("one", 1).addTuple("two", 2).build();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void textFiles() throws IOException {
+    File directory = new File(temporaryFolder.getRoot(), "dump");
+    dump(directory, DumpOptions.FileFormat.TEXT);
+
+    File[] files = directory.listFiles();
+    assertThat(files.length, is(1));
+    assertThat(new String(Files.readAllBytes(files[0].toPath()), StandardCharsets.UTF_8),
+        is("pA\tB\t\npone\t1\t\nptwo\t2\t\n"));
+    assertThat(merge(directory), is("pA\tB\t\npone\t1\t\nptwo\t2\t\n"));
+  }
+
+  @Test
+  public void binaryFiles() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    dump(directory, DumpOptions.FileFormat.BINARY);
+
+    assertThat(DumpFiles.read(directory), is(INPUT_DATA));
+    assertThat(merge(directory), is("A\tB\t\none\t1\t\ntwo\t2\t\n"));
+  }
+
+  @Test
+  public void mergeWritesOneHeader() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    writeFile(directory, DumpOptions.FileFormat.TEXT, "one", 1);
+    writeFile(directory, DumpOptions.FileFormat.TEXT, "two", 2);
+    writeFile(directory, DumpOptions.FileFormat.BINARY, "three", 3);
+    // A call that received no rows
+    DumpFiles.newWriter(directory, "", DumpOptions.FileFormat.TEXT).close();
+
+    String merged = merge(directory);
+
+    assertThat(merged.startsWith("A\tB\t\n"), is(true));
+    assertThat(merged.indexOf("A\tB"), is(merged.lastIndexOf("A\tB")));
+    assertThat(merged.contains("one\t1\t\n"), is(true));
+    assertThat(merged.contains("two\t2\t\n"), is(true));
+    assertThat(merged.contains("three\t3\t\n"), is(true));
+  }
+
+  @Test
+  public void readCombinesBinaryFiles() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    writeFile(directory, DumpOptions.FileFormat.BINARY, "one", 1);
+    writeFile(directory, DumpOptions.FileFormat.BINARY, "two", 2);
+
+    Data data = DumpFiles.read(directory);
+
+    assertThat(data.equalsIgnoreOrder(INPUT_DATA), is(true));
+  }
+
+  @Test(expected = IOException.class)
+  public void readNothing() throws IOException {
+    DumpFiles.read(temporaryFolder.newFolder());
+  }
+
+  @Test(expected = IOException.class)
+  public void readOnlyTextFiles() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    writeFile(directory, DumpOptions.FileFormat.TEXT, "one", 1);
+
+    DumpFiles.read(directory);
+  }
+
+  @Test(expected = IOException.class)
+  public void readNoFields() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    DumpFiles.newWriter(directory, "", DumpOptions.FileFormat.BINARY).close();
+
+    DumpFiles.read(directory);
+  }
+
+  @Test
+  public void readHeaderWithoutRows() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    DumpWriter writer = DumpFiles.newWriter(directory, "", DumpOptions.FileFormat.BINARY);
+    writer.writeHeader(FIELDS);
+    writer.close();
+
+    Data data = DumpFiles.read(directory);
+
+    assertThat(data.getDeclaredFields(), is(FIELDS));
+    assertThat(data.getTuples().isEmpty(), is(true));
+  }
+
+  @Test(expected = IOException.class)
+  public void readDifferentFields() throws IOException {
+    File directory = temporaryFolder.newFolder();
+    writeFile(directory, DumpOptions.FileFormat.BINARY, "one", 1);
+    DumpWriter writer = DumpFiles.newWriter(directory, "", DumpOptions.FileFormat.BINARY);
+    writer.writeHeader(new Fields("C"));
+    writer.close();
+
+    DumpFiles.read(directory);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void toFilesRequiresDirectory() {
+    DumpOptions.toFiles(null, DumpOptions.FileFormat.TEXT);
+  }
+
+  private static void dump(File directory, DumpOptions.FileFormat format) {
+    Plunger plunger = new Plunger();
+    Pipe dump = new Dump("p", plunger.newPipe(INPUT_DATA), Dump.SystemPrintStreams.SYSOUT, DumpOptions.toFiles(
+        directory, format));
+
+    Bucket bucket = plunger.newBucket(FIELDS, dump);
+
+    assertThat(bucket.result(), is(INPUT_DATA));
+  }
+
+  private static void writeFile(File directory, DumpOptions.FileFormat format, Object... values) throws IOException {
+    DumpWriter writer = DumpFiles.newWriter(directory, "", format);
+    writer.writeHeader(FIELDS);
+    writer.writeRow(new TupleEntry(FIELDS, new Tuple(values)));
+    writer.close();
+  }
+
+  private static String merge(File directory) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DumpFiles.merge(directory, new PrintStream(bytes, true, "UTF-8"));
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+}
@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.inOrder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 
 import org.junit.Before;
@@ -138,6 +139,67 @@ public class DumpTest {
     inOrder.verify(mockPrintStream).append('\n');
   }
 
+  @Test
+  public void async() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final PrintStream stream = new PrintStream(bytes);
+    Pipe dump = new Dump("prefix", plunger.newPipe(INPUT_DATA), new Dump.PrintStreamSupplier() {
+      @Override
+      public PrintStream getPrintStream() {
+        return stream;
+      }
+    }, DumpOptions.async(1).blockWhenFull());
+
+    Bucket bucket = plunger.newBucket(FIELDS, dump);
+    Data result = bucket.result();
+
+    assertThat(result, is(INPUT_DATA));
+    assertThat(bytes.toString(), is("prefixA\tB\t\nprefixone\t1\t\nprefixtwo\t2\t\n"));
+  }
+
+  @Test
+  public void everyNth() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final PrintStream stream = new PrintStream(bytes);
+    Pipe dump = new Dump("", plunger.newPipe(INPUT_DATA), new Dump.PrintStreamSupplier() {
+      @Override
+      public PrintStream getPrintStream() {
+        return stream;
+      }
+    }, DumpOptions.synchronous().everyNth(2));
+
+    Bucket bucket = plunger.newBucket(FIELDS, dump);
+    Data result = bucket.result();
+
+    assertThat(result, is(INPUT_DATA));
+    assertThat(bytes.toString(), is("A\tB\t\none\t1\t\n# sampled 1 of 2 row(s)\n"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void reservoirCannotBeRateLimited() {
+    DumpOptions.synchronous().maxPerSecond(10).reservoir(10, 1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidProbability() {
+    DumpOptions.synchronous().bernoulli(1.5d, 1L);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void overflowPolicyRequiresAsync() {
+    DumpOptions.synchronous().dropWhenFull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidCapacity() {
+    DumpOptions.async(0);
+  }
+
+  @Test
+  public void serializesWithOptions() {
+    assertThat(new Dump(new Pipe("name"), DumpOptions.async(10).sampleWhenFull(100)), is(serializable()));
+  }
+
   @Test
   public void serializes() {
     assertThat(new Dump(new Pipe("name")), is(serializable()));
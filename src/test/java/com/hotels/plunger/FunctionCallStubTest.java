@@ -22,6 +22,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.junit.Test;
 
@@ -147,4 +148,109 @@ public class FunctionCallStubTest {
     assertThat(actual.get(0), tupleEntry(OUTPUT, 1));
     assertThat(actual.get(1), tupleEntry(OUTPUT, 1));
   }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Test
+  public void resetReplaysArguments() {
+    FunctionCallStub stub = new FunctionCallStub.Builder(FIELDS).addTuple("a").addTuple("b").build();
+    stub.complete(mock(FlowProcess.class), new Identity());
+    stub.setContext("VALUE");
+
+    stub.reset();
+    assertThat(stub.getArguments(), is(nullValue()));
+    assertThat(stub.getContext(), is(nullValue()));
+    assertThat(stub.getOutputCount(), is(0L));
+    assertThat(stub.result().asTupleEntryList().isEmpty(), is(true));
+
+    List<TupleEntry> actual = stub.complete(mock(FlowProcess.class), new Identity()).result().asTupleEntryList();
+    assertThat(actual.size(), is(2));
+    assertThat(actual.get(0), tupleEntry(FIELDS, "a"));
+    assertThat(actual.get(1), tupleEntry(FIELDS, "b"));
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Test
+  public void stubsFromOneBuilderDoNotShareOutput() {
+    FunctionCallStub.Builder builder = new FunctionCallStub.Builder(FIELDS).addTuple("a").addTuple("b");
+    FunctionCallStub first = builder.build().complete(mock(FlowProcess.class), new Identity());
+    FunctionCallStub second = builder.build().complete(mock(FlowProcess.class), new Identity());
+
+    first.reset();
+    assertThat(first.result().asTupleEntryList().isEmpty(), is(true));
+
+    List<TupleEntry> actual = second.result().asTupleEntryList();
+    assertThat(actual.size(), is(2));
+    assertThat(actual.get(0), tupleEntry(FIELDS, "a"));
+    assertThat(actual.get(1), tupleEntry(FIELDS, "b"));
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Test
+  public void discardOutputCountsPerStub() {
+    FunctionCallStub.Builder builder = new FunctionCallStub.Builder(FIELDS).discardOutput().addTuple("a");
+    FunctionCallStub first = builder.build().complete(mock(FlowProcess.class), new Identity());
+    FunctionCallStub second = builder.build().complete(mock(FlowProcess.class), new Identity());
+
+    assertThat(first.getOutputCount(), is(1L));
+    assertThat(second.getOutputCount(), is(1L));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void nextBeyondArguments() {
+    stub = new FunctionCallStub.Builder<String>(FIELDS).addTuple(1).build();
+    stub.nextOperateCall();
+    stub.nextOperateCall();
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Test
+  public void discardOutput() {
+    FunctionCallStub stub = new FunctionCallStub.Builder(FIELDS)
+        .discardOutput()
+        .addTuple("a")
+        .addTuple("b")
+        .build()
+        .complete(mock(FlowProcess.class), new Identity());
+
+    assertThat(stub.getOutputCount(), is(2L));
+    assertThat(stub.result().asTupleEntryList().isEmpty(), is(true));
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Test
+  public void outputFirstN() {
+    FunctionCallStub stub = new FunctionCallStub.Builder(FIELDS)
+        .output(OutputSinks.firstN(1))
+        .addTuple("a")
+        .addTuple("b")
+        .build()
+        .complete(mock(FlowProcess.class), new Identity());
+
+    List<TupleEntry> actual = stub.result().asTupleEntryList();
+    assertThat(stub.getOutputCount(), is(2L));
+    assertThat(actual.size(), is(1));
+    assertThat(actual.get(0), tupleEntry(FIELDS, "a"));
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @Test
+  public void outputDigestIsRepeatable() {
+    DigestOutputSink digest = OutputSinks.orderedDigest();
+    FunctionCallStub stub = new FunctionCallStub.Builder(FIELDS)
+        .output(digest)
+        .addTuple("a")
+        .addTuple("b")
+        .build()
+        .complete(mock(FlowProcess.class), new Identity());
+    long first = digest.getDigest();
+
+    stub.reset().complete(mock(FlowProcess.class), new Identity());
+    assertThat(digest.getDigest(), is(first));
+    assertThat(digest.getCount(), is(2L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void outputNull() {
+    new FunctionCallStub.Builder<String>(FIELDS).output(null);
+  }
 }
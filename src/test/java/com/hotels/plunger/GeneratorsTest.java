@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class GeneratorsTest {
+
+  private final Random random = new Random(1L);
+
+  @Test
+  public void sequence() {
+    FieldGenerator generator = Generators.sequence(5L, 2L);
+    assertThat(generator.generate(0L, random), is((Object) 5L));
+    assertThat(generator.generate(3L, random), is((Object) 11L));
+  }
+
+  @Test
+  public void uniformIntRange() {
+    FieldGenerator generator = Generators.uniformInt(3, 5);
+    Set<Object> values = new HashSet<Object>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(generator.generate(i, random));
+    }
+    assertThat(values.size(), is(2));
+    assertThat(values.contains(3), is(true));
+    assertThat(values.contains(4), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void uniformIntEmptyRange() {
+    Generators.uniformInt(3, 3);
+  }
+
+  @Test
+  public void uniformIntFullRange() {
+    FieldGenerator generator = Generators.uniformInt(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    boolean negative = false;
+    boolean positive = false;
+    for (int i = 0; i < 100; i++) {
+      int value = (Integer) generator.generate(i, random);
+      assertThat(value < Integer.MAX_VALUE, is(true));
+      negative |= value < 0;
+      positive |= value > 0;
+    }
+    assertThat(negative && positive, is(true));
+  }
+
+  @Test
+  public void uniformLongRange() {
+    FieldGenerator generator = Generators.uniformLong(-2L, 1L);
+    Set<Object> values = new HashSet<Object>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(generator.generate(i, random));
+    }
+    assertThat(values.size(), is(3));
+    assertThat(values.contains(-2L), is(true));
+    assertThat(values.contains(0L), is(true));
+  }
+
+  @Test
+  public void uniformLongFullRange() {
+    FieldGenerator generator = Generators.uniformLong(Long.MIN_VALUE, Long.MAX_VALUE);
+    boolean negative = false;
+    boolean positive = false;
+    for (int i = 0; i < 100; i++) {
+      long value = (Long) generator.generate(i, random);
+      assertThat(value < Long.MAX_VALUE, is(true));
+      negative |= value < 0L;
+      positive |= value > 0L;
+    }
+    assertThat(negative && positive, is(true));
+  }
+
+  @Test
+  public void uniformDoubleRange() {
+    FieldGenerator generator = Generators.uniformDouble(-1d, 1d);
+    for (int i = 0; i < 1000; i++) {
+      double value = (Double) generator.generate(i, random);
+      assertThat(value >= -1d && value < 1d, is(true));
+    }
+  }
+
+  @Test
+  public void zipfianIsSkewed() {
+    FieldGenerator generator = Generators.zipfian(1000, 1.2);
+    int[] counts = new int[1000];
+    for (int i = 0; i < 100000; i++) {
+      counts[(Integer) generator.generate(i, random)]++;
+    }
+    assertThat(counts[0] > counts[1], is(true));
+    assertThat(counts[1] > counts[10], is(true));
+    assertThat(counts[0] > 10000, is(true));
+  }
+
+  @Test
+  public void stringsCardinality() {
+    FieldGenerator generator = Generators.strings(10, 4);
+    Set<Object> values = new HashSet<Object>();
+    for (int i = 0; i < 10000; i++) {
+      String value = (String) generator.generate(i, random);
+      assertThat(value.length(), is(4));
+      values.add(value);
+    }
+    assertThat(values.size(), is(10));
+  }
+
+  @Test
+  public void stringsFromIndex() {
+    FieldGenerator generator = Generators.strings(Generators.sequence(0L), 2);
+    assertThat(generator.generate(0L, random), is((Object) "aa"));
+    assertThat(generator.generate(27L, random), is((Object) "bb"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void stringsCardinalityTooLarge() {
+    Generators.strings(1000, 2);
+  }
+
+  @Test
+  public void timestamps() {
+    FieldGenerator generator = Generators.timestamps(1000L, 2000L);
+    for (int i = 0; i < 100; i++) {
+      long value = (Long) generator.generate(i, random);
+      assertThat(value >= 1000L && value < 2000L, is(true));
+    }
+  }
+
+  @Test
+  public void format() {
+    FieldGenerator generator = Generators.format("key-%d", Generators.sequence(1L));
+    assertThat(generator.generate(1L, random), is((Object) "key-2"));
+  }
+
+  @Test
+  public void withNulls() {
+    assertThat(Generators.withNulls(1d, Generators.constant("x")).generate(0L, random), is(nullValue()));
+    assertThat(Generators.withNulls(0d, Generators.constant("x")).generate(0L, random), is((Object) "x"));
+  }
+
+  @Test
+  public void oneOf() {
+    assertThat(Generators.oneOf("x").generate(0L, random), is((Object) "x"));
+  }
+
+}
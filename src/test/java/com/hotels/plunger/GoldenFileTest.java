@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.tuple.Fields;
+
+public class GoldenFileTest {
+
+  private static final Fields FIELDS = new Fields(new String[] { "A", "B" }, new Class<?>[] { String.class,
+      Integer.class });
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void updateWritesGoldenFile() throws IOException {
+    File file = new File(temporaryFolder.getRoot(), "nested/expected.golden");
+    Data data = newData("a", 1, "b", 2);
+
+    new GoldenFile(file).update(true).assertMatches(data);
+
+    assertThat(file.isFile(), is(true));
+    assertThat(Plunger.readSnapshot(file), is(data));
+    assertThat(temporaryFolder.getRoot().list().length, is(1));
+    assertThat(file.getParentFile().list().length, is(1));
+  }
+
+  @Test
+  public void updateReplacesGoldenFile() throws IOException {
+    File file = temporaryFolder.newFile();
+    new GoldenFile(file).update(true).assertMatches(newData("a", 1));
+    new GoldenFile(file).update(true).assertMatches(newData("b", 2));
+
+    new GoldenFile(file).assertMatches(newData("b", 2));
+  }
+
+  @Test
+  public void updateFromSystemProperty() throws IOException {
+    File file = new File(temporaryFolder.getRoot(), "expected.golden");
+    System.setProperty(GoldenFile.UPDATE_PROPERTY, "true");
+    try {
+      new GoldenFile(file).assertMatches(newData("a", 1));
+    } finally {
+      System.clearProperty(GoldenFile.UPDATE_PROPERTY);
+    }
+    assertThat(file.isFile(), is(true));
+  }
+
+  @Test
+  public void orderedMatches() throws IOException {
+    GoldenFile goldenFile = newGoldenFile(newData("a", 1, "b", 2));
+
+    goldenFile.assertMatches(newData("a", 1, "b", 2));
+  }
+
+  @Test
+  public void orderedDiffers() throws IOException {
+    GoldenFile goldenFile = newGoldenFile(newData("a", 1, "b", 2));
+
+    try {
+      goldenFile.assertMatches(newData("b", 2, "a", 1, "c", 3));
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString("Tuple at index 0 was expected to be ['a', 1], but was ['b', 2]"));
+      assertThat(e.getMessage(), containsString("Expected 2 tuple(s), but was 3"));
+    }
+  }
+
+  @Test
+  public void orderedDescriptionIsBounded() throws IOException {
+    DataBuilder expected = new DataBuilder(FIELDS);
+    DataBuilder actual = new DataBuilder(FIELDS);
+    for (int i = 0; i < 25; i++) {
+      expected.addTuple("a", i);
+      actual.addTuple("b", i);
+    }
+    GoldenFile goldenFile = newGoldenFile(expected.build());
+
+    try {
+      goldenFile.assertMatches(actual.build());
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString("... and 15 more differing tuple(s)"));
+    }
+  }
+
+  @Test
+  public void orderedMatchesSortedView() throws IOException {
+    GoldenFile goldenFile = newGoldenFile(newData("a", 1, "b", 2));
+
+    goldenFile.assertMatches(newData("b", 2, "a", 1).orderBy(new Fields("A")));
+  }
+
+  @Test
+  public void ignoringOrderMatches() throws IOException {
+    GoldenFile goldenFile = newGoldenFile(newData("a", 1, "b", 2, "b", 2)).ignoringOrder();
+
+    goldenFile.assertMatches(newData("b", 2, "a", 1, "b", 2));
+  }
+
+  @Test
+  public void ignoringOrderDiffers() throws IOException {
+    GoldenFile goldenFile = newGoldenFile(newData("a", 1, "b", 2)).ignoringOrder();
+
+    try {
+      goldenFile.assertMatches(newData("b", 2, "c", 3));
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString("Missing"));
+      assertThat(e.getMessage(), containsString("Unexpected"));
+    }
+  }
+
+  @Test
+  public void ignoringOrderValuesWithEqualHashCodesDiffer() throws IOException {
+    Fields fields = new Fields("A");
+    File file = temporaryFolder.newFile();
+    new GoldenFile(file).update(true).assertMatches(new DataBuilder(fields).addTuple("Aa").addTuple(0L).build());
+    GoldenFile goldenFile = new GoldenFile(file).update(false).ignoringOrder();
+
+    try {
+      // "Aa" and "BB", and 0L and -1L, have equal hash codes
+      goldenFile.assertMatches(new DataBuilder(fields).addTuple(-1L).addTuple("BB").build());
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString("Missing 2 tuple(s)"));
+      assertThat(e.getMessage(), containsString("Unexpected 2 tuple(s)"));
+    }
+  }
+
+  @Test
+  public void fieldsDiffer() throws IOException {
+    GoldenFile goldenFile = newGoldenFile(newData("a", 1));
+
+    try {
+      goldenFile.assertMatches(newData("a", 1).withFields(new Fields("A")));
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString("expected fields"));
+    }
+  }
+
+  @Test
+  public void missingGoldenFile() throws IOException {
+    File file = new File(temporaryFolder.getRoot(), "missing.golden");
+    try {
+      new GoldenFile(file).update(false).assertMatches(newData("a", 1));
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString(GoldenFile.UPDATE_PROPERTY));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullFile() {
+    new GoldenFile(null);
+  }
+
+  private GoldenFile newGoldenFile(Data expected) throws IOException {
+    File file = temporaryFolder.newFile();
+    new GoldenFile(file).update(true).assertMatches(expected);
+    return new GoldenFile(file).update(false);
+  }
+
+  private static Data newData(Object... values) {
+    DataBuilder builder = new DataBuilder(FIELDS);
+    for (int i = 0; i < values.length; i += 2) {
+      builder.addTuple(values[i], values[i + 1]);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.flow.hadoop.HadoopFlow;
+import cascading.operation.aggregator.Count;
+import cascading.operation.expression.ExpressionFilter;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+public class HadoopFlowRunnerTest {
+
+  private static final Fields FIELDS = new Fields("A", "B");
+  private static final Fields COUNT_FIELDS = new Fields("B", "count");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Data input = new DataBuilder(FIELDS)
+      .addTuple(1, "x")
+      .addTuple(2, "y")
+      .addTuple(3, "x")
+      .addTuple(4, "z")
+      .build();
+
+  @Test
+  public void runsOnHadoop() {
+    Plunger plunger = new Plunger(ExecutionPlatform.HADOOP);
+    Bucket sink = plunger.newBucket(COUNT_FIELDS, countByB(plunger.newPipe(input)));
+
+    List<Tuple> tupleList = sink.result().orderBy(new Fields("B")).asTupleList();
+
+    assertThat(plunger.getPlatform(), is(ExecutionPlatform.HADOOP));
+    assertThat(plunger.getFlow() instanceof HadoopFlow, is(true));
+    assertThat(tupleList.size(), is(3));
+    assertThat(tupleList.get(0), is(new Tuple("x", 2L)));
+    assertThat(tupleList.get(1), is(new Tuple("y", 1L)));
+    assertThat(tupleList.get(2), is(new Tuple("z", 1L)));
+  }
+
+  @Test
+  public void sameResultOnBothPlatforms() {
+    Plunger local = new Plunger(ExecutionPlatform.LOCAL);
+    Bucket localSink = local.newBucket(COUNT_FIELDS, countByB(local.newPipe(input)));
+    Plunger hadoop = new Plunger(ExecutionPlatform.HADOOP);
+    Bucket hadoopSink = hadoop.newBucket(COUNT_FIELDS, countByB(hadoop.newPipe(input)));
+
+    assertThat(hadoopSink.result().orderBy(COUNT_FIELDS).asTupleList(), is(localSink
+        .result()
+        .orderBy(COUNT_FIELDS)
+        .asTupleList()));
+  }
+
+  @Test
+  public void multipleSourcesAndSinks() {
+    Plunger plunger = new Plunger(ExecutionPlatform.HADOOP);
+    Pipe first = plunger.newNamedPipe("first", input);
+    Pipe second = plunger.newNamedPipe("second", new DataBuilder(FIELDS).addTuple(5, "w").build());
+    Bucket firstSink = plunger.newBucket(FIELDS, new Each(first, new Fields("A"), new ExpressionFilter("A > 2",
+        Integer.class)));
+    Bucket secondSink = plunger.newBucket(FIELDS, second);
+
+    assertThat(firstSink.result().orderBy(FIELDS).asTupleList().size(), is(2));
+    assertThat(secondSink.result().asTupleList().get(0), is(new Tuple(5, "w")));
+  }
+
+  @Test
+  public void deleteRemovesDirectoryTree() throws IOException {
+    File directory = temporaryFolder.newFolder("work");
+    new File(directory, "part-00000").createNewFile();
+    File nested = new File(directory, "nested");
+    nested.mkdir();
+    new File(nested, "part-00001").createNewFile();
+
+    HadoopFlowRunner.delete(directory.toPath());
+
+    assertThat(directory.exists(), is(false));
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void deleteReportsFailure() throws IOException {
+    HadoopFlowRunner.delete(new File(temporaryFolder.getRoot(), "missing").toPath());
+  }
+
+  private static Pipe countByB(Pipe pipe) {
+    pipe = new GroupBy(pipe, new Fields("B"));
+    return new Every(pipe, new Count(new Fields("count")), COUNT_FIELDS);
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+  @Test
+  public void empty() {
+    assertThat(new HyperLogLog().estimate(), is(0L));
+  }
+
+  @Test
+  public void smallCardinalityIsExact() {
+    HyperLogLog hyperLogLog = new HyperLogLog();
+    for (int i = 0; i < 1000; i++) {
+      hyperLogLog.add(i % 10);
+    }
+    hyperLogLog.add(null);
+    assertThat(hyperLogLog.estimate(), is(10L));
+  }
+
+  @Test
+  public void largeCardinalityWithinError() {
+    HyperLogLog hyperLogLog = new HyperLogLog();
+    for (int i = 0; i < 1000000; i++) {
+      hyperLogLog.add("value-" + i);
+    }
+    long estimate = hyperLogLog.estimate();
+    assertThat(Math.abs(estimate - 1000000L) < 30000L, is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidPrecision() {
+    new HyperLogLog(3);
+  }
+
+}
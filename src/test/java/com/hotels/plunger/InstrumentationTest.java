@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cascading.operation.Identity;
+import cascading.operation.aggregator.Count;
+import cascading.operation.buffer.FirstNBuffer;
+import cascading.operation.expression.ExpressionFilter;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+public class InstrumentationTest {
+
+  private static final Fields FIELDS = new Fields("A", "B");
+
+  private final Data input = new DataBuilder(FIELDS)
+      .addTuple(1, "x")
+      .addTuple(2, "y")
+      .addTuple(3, "x")
+      .addTuple(4, "z")
+      .build();
+
+  @Test
+  public void reportsEachOperation() {
+    Plunger plunger = new Plunger().withInstrumentation();
+    Pipe pipe = plunger.newNamedPipe("input", input);
+    Identity identity = new Identity();
+    Each each = new Each(pipe, identity);
+    pipe = new Each(each, new Fields("A"), new ExpressionFilter("A > 3", Integer.class));
+    pipe = new GroupBy(pipe, new Fields("B"));
+    pipe = new Every(pipe, new Count(new Fields("count")), new Fields("B", "count"));
+    Bucket bucket = plunger.newBucket(new Fields("B", "count"), pipe);
+
+    assertThat(plunger.getOperationStats(), is(nullValue()));
+    assertThat(bucket.result().asTupleList().size(), is(2));
+
+    List<TupleEntry> stats = plunger.getOperationStats().asTupleEntryList();
+    assertThat(stats.size(), is(3));
+    assertRow(stats.get(0), "Each", "Identity", 4L, 4L);
+    assertRow(stats.get(1), "Each", "ExpressionFilter", 4L, 3L);
+    assertRow(stats.get(2), "Every", "Count", 3L, 2L);
+
+    // The original operations are restored
+    assertThat(each.getOperation(), is(sameInstance((Object) identity)));
+  }
+
+  @Test
+  public void reportsBuffer() {
+    Plunger plunger = new Plunger().withInstrumentation();
+    Pipe pipe = new GroupBy(plunger.newNamedPipe("input", input), new Fields("B"));
+    pipe = new Every(pipe, new FirstNBuffer(1), Fields.RESULTS);
+    Bucket bucket = plunger.newBucket(FIELDS, pipe);
+
+    assertThat(bucket.result().asTupleList().size(), is(3));
+
+    List<TupleEntry> stats = plunger.getOperationStats().asTupleEntryList();
+    assertThat(stats.size(), is(1));
+    assertRow(stats.get(0), "Every", "FirstNBuffer", 4L, 3L);
+  }
+
+  @Test
+  public void reportsOnHadoop() {
+    Plunger plunger = new Plunger(ExecutionPlatform.HADOOP).withInstrumentation();
+    Pipe pipe = new Each(plunger.newNamedPipe("input", input), new Identity());
+    Bucket bucket = plunger.newBucket(FIELDS, pipe);
+
+    assertThat(bucket.result().asTupleList().size(), is(4));
+
+    List<TupleEntry> stats = plunger.getOperationStats().asTupleEntryList();
+    assertRow(stats.get(0), "Each", "Identity", 4L, 4L);
+  }
+
+  @Test
+  public void reportFields() {
+    Plunger plunger = new Plunger().withInstrumentation();
+    Bucket bucket = plunger.newBucket(FIELDS, new Each(plunger.newNamedPipe("input", input), new Identity()));
+    bucket.result();
+
+    TupleEntry row = plunger.getOperationStats().asTupleEntryList().get(0);
+    assertThat(row.getFields(), is(Instrumentation.REPORT_FIELDS));
+    assertThat(row.getString("pipe"), is("input"));
+    assertThat(row.getLong("wall_ms") >= row.getLong("self_ms"), is(true));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void notEnabled() {
+    new Plunger().getOperationStats();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void enableAfterExecution() {
+    Plunger plunger = new Plunger();
+    plunger.newBucket(FIELDS, plunger.newNamedPipe("input", input)).result();
+    plunger.withInstrumentation();
+  }
+
+  private static void assertRow(TupleEntry row, String operator, String operation, long in, long out) {
+    assertThat(row.getString("operator"), is(operator));
+    assertThat(row.getString("operation"), is(operation));
+    assertThat(row.getLong("tuples_in"), is(in));
+    assertThat(row.getLong("tuples_out"), is(out));
+  }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.mapred.JobConf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cascading.flow.hadoop.HadoopFlowProcess;
+
+/**
+ * Measures the cost of setting up a {@link JobConf} and {@link HadoopFlowProcess} for reading or writing a Hadoop tap,
+ * with and without the {@link JobConfFactory}. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.hotels.plunger.JobConfFactoryBenchmark}. The scores are also written to
+ * {@code target/jmh-JobConfFactoryBenchmark.json}, so that runs before and after a change can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JobConfFactoryBenchmark {
+
+  @Benchmark
+  public HadoopFlowProcess newJobConf() {
+    JobConf conf = new JobConf();
+    // Loading of resources is deferred until first access
+    conf.size();
+    return new HadoopFlowProcess(conf);
+  }
+
+  @Benchmark
+  public HadoopFlowProcess jobConfFactory() {
+    JobConf conf = JobConfFactory.DEFAULT.newJobConf();
+    conf.size();
+    return new HadoopFlowProcess(conf);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JobConfFactoryBenchmark.class.getSimpleName())
+        .resultFormat(ResultFormatType.JSON)
+        .result("target/jmh-" + JobConfFactoryBenchmark.class.getSimpleName() + ".json")
+        .build()).run();
+  }
+
+}
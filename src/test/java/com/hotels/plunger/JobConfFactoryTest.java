@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobConf;
+import org.junit.Test;
+
+public class JobConfFactoryTest {
+
+  @Test
+  public void newJobConfIsCopy() {
+    JobConf first = JobConfFactory.DEFAULT.newJobConf();
+    JobConf second = JobConfFactory.DEFAULT.newJobConf();
+    assertThat(first, is(not(sameInstance(second))));
+
+    first.set("plunger.test", "first");
+    assertThat(second.get("plunger.test"), is(nullValue()));
+    assertThat(JobConfFactory.DEFAULT.newJobConf().get("plunger.test"), is(nullValue()));
+  }
+
+  @Test
+  public void newJobConfHasDefaults() {
+    assertThat(JobConfFactory.DEFAULT.newJobConf().get("fs.defaultFS"), is(new JobConf().get("fs.defaultFS")));
+  }
+
+  @Test
+  public void withOverrides() {
+    Configuration overrides = new Configuration(false);
+    overrides.set("plunger.test", "override");
+    JobConfFactory factory = JobConfFactory.DEFAULT.withOverrides(overrides);
+
+    assertThat(factory.newJobConf().get("plunger.test"), is("override"));
+    assertThat(JobConfFactory.DEFAULT.newJobConf().get("plunger.test"), is(nullValue()));
+  }
+
+  @Test
+  public void overridesAreCopied() {
+    Configuration overrides = new Configuration(false);
+    overrides.set("plunger.test", "override");
+    JobConfFactory factory = JobConfFactory.DEFAULT.withOverrides(overrides);
+    overrides.set("plunger.test", "changed");
+
+    assertThat(factory.newJobConf().get("plunger.test"), is("override"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullOverrides() {
+    JobConfFactory.DEFAULT.withOverrides(null);
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryCollector;
+
+/**
+ * Measures the throughput of sinking {@link Tuple Tuples} into a {@link Bucket}, comparing the
+ * {@link ListTupleEntryCollector} with a collector that updates the last modified time for every {@link Tuple} as it
+ * previously did, and with an output {@link BucketOptions#expectedTuples(int) sized} for the expected rows. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.hotels.plunger.ListTupleEntryCollectorBenchmark}. The scores are also written to
+ * {@code target/jmh-ListTupleEntryCollectorBenchmark.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListTupleEntryCollectorBenchmark {
+
+  @Param({ "10000000" })
+  private int rows;
+
+  private TupleEntry entry;
+
+  @Setup
+  public void setup() {
+    entry = new TupleEntry(new Fields("id", "name"), new Tuple(1, "name"));
+  }
+
+  @Benchmark
+  public List<Tuple> perTupleModified() throws IOException {
+    final Bucket bucket = new Bucket();
+    final List<Tuple> output = new ArrayList<Tuple>();
+    TupleEntryCollector collector = new TupleEntryCollector() {
+      @Override
+      protected void collect(TupleEntry tupleEntry) throws IOException {
+        bucket.modified();
+        output.add(tupleEntry.getTupleCopy());
+      }
+    };
+    sink(collector);
+    return output;
+  }
+
+  @Benchmark
+  public List<Tuple> modifiedOnOpenAndClose() throws IOException {
+    Bucket bucket = new Bucket();
+    List<Tuple> output = new ArrayList<Tuple>();
+    sink(new ListTupleEntryCollector(output, bucket));
+    return output;
+  }
+
+  @Benchmark
+  public List<Tuple> presizedOutput() throws IOException {
+    Bucket bucket = new Bucket();
+    List<Tuple> output = BucketOptions.inMemory().expectedTuples(rows).newOutput(entry.getFields());
+    sink(new ListTupleEntryCollector(output, bucket));
+    return output;
+  }
+
+  private void sink(TupleEntryCollector collector) throws IOException {
+    Tuple tuple = entry.getTuple();
+    for (int i = 0; i < rows; i++) {
+      // Cascading reuses the outgoing tuple, mimic that here
+      tuple.setInteger(0, i);
+      collector.add(entry);
+    }
+    collector.close();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ListTupleEntryCollectorBenchmark.class.getSimpleName())
+        .resultFormat(ResultFormatType.JSON)
+        .result("target/jmh-" + ListTupleEntryCollectorBenchmark.class.getSimpleName() + ".json")
+        .build()).run();
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package com.hotels.plunger;
 
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,4 +53,18 @@ public class ListTupleEntryCollectorTest {
     verify(mockCallback).modified();
   }
 
+  @Test
+  public void modifiedOnOpenAndCloseOnly() throws IOException {
+    when(mockTupleEntry.getTupleCopy()).thenReturn(new Tuple());
+    ListTupleEntryCollector collector = new ListTupleEntryCollector(mockOutput, mockCallback);
+    verify(mockCallback, times(1)).modified();
+
+    collector.collect(mockTupleEntry);
+    collector.collect(mockTupleEntry);
+    verify(mockCallback, times(1)).modified();
+
+    collector.close();
+    verify(mockCallback, times(2)).modified();
+  }
+
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import cascading.operation.Aggregator;
+import cascading.operation.Buffer;
+import cascading.operation.Function;
+import cascading.operation.Insert;
+import cascading.operation.aggregator.Count;
+import cascading.tuple.Fields;
+
+import com.hotels.plunger.BufferCallStubTest.CountBuffer;
+
+public class OperationBenchmarkTest {
+
+  private static final Fields FIELDS = new Fields("field");
+  private static final Fields GROUP_FIELDS = new Fields("group");
+  private static final Fields OUTPUT = new Fields("output");
+
+  @Test
+  public void functionReplaysCallStream() {
+    InsertBenchmark benchmark = new InsertBenchmark();
+    benchmark.setup();
+    assertThat(benchmark.getTuplesPerInvocation(), is(3));
+
+    for (int i = 0; i < 2; i++) {
+      FunctionCallStub<Void> stub = benchmark.operate();
+      assertThat(stub.getOutputCount(), is(3L));
+      assertThat(stub.result().asTupleEntryList().isEmpty(), is(true));
+    }
+  }
+
+  @Test
+  public void aggregatorReplaysCallStream() {
+    CountBenchmark benchmark = new CountBenchmark();
+    benchmark.setup();
+    assertThat(benchmark.getTuplesPerInvocation(), is(3));
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(benchmark.aggregate().getOutputCount(), is(2L));
+    }
+  }
+
+  @Test
+  public void bufferReplaysCallStream() {
+    CountBufferBenchmark benchmark = new CountBufferBenchmark();
+    benchmark.setup();
+    assertThat(benchmark.getTuplesPerInvocation(), is(3));
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(benchmark.operate().getOutputCount(), is(3L));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void emptyCallStream() {
+    new FunctionBenchmark<Void>() {
+      @Override
+      protected FunctionCallStub.Builder<Void> newCallStubBuilder() {
+        return Plunger.newFunctionCallStubBuilder(FIELDS);
+      }
+
+      @Override
+      protected Function<Void> newFunction() {
+        return new InsertBenchmark().newFunction();
+      }
+    }.setup();
+  }
+
+  @Test
+  public void setupChecksExpectedTuples() {
+    System.setProperty(OperationBenchmark.EXPECTED_TUPLES_PROPERTY, "3");
+    try {
+      InsertBenchmark benchmark = new InsertBenchmark();
+      benchmark.setup();
+      assertThat(benchmark.getTuplesPerInvocation(), is(3));
+    } finally {
+      System.clearProperty(OperationBenchmark.EXPECTED_TUPLES_PROPERTY);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void setupRejectsUnexpectedTuples() {
+    System.setProperty(OperationBenchmark.EXPECTED_TUPLES_PROPERTY, "4");
+    try {
+      new InsertBenchmark().setup();
+    } finally {
+      System.clearProperty(OperationBenchmark.EXPECTED_TUPLES_PROPERTY);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void runAbstractClass() throws Exception {
+    OperationBenchmark.run(FunctionBenchmark.class, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void runWithoutTuples() throws Exception {
+    OperationBenchmark.run(InsertBenchmark.class, 0);
+  }
+
+  @Test
+  public void resultNormalizedByTuples() {
+    OperationBenchmarkResult result = new OperationBenchmarkResult("benchmark", 4, 2000d, 400d);
+    assertThat(result.getOperationsPerSecond(), is(500000d));
+    assertThat(result.getTuplesPerSecond(), is(2000000d));
+    assertThat(result.getNanosPerTuple(), is(500d));
+    assertThat(result.getBytesPerTuple(), is(100d));
+  }
+
+  public static class InsertBenchmark extends FunctionBenchmark<Void> {
+    @Override
+    protected FunctionCallStub.Builder<Void> newCallStubBuilder() {
+      return Plunger.<Void> newFunctionCallStubBuilder(FIELDS)
+          .outputFields(OUTPUT)
+          .addTuple(1)
+          .addTuple(2)
+          .addTuple(3);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Function<Void> newFunction() {
+      return new Insert(OUTPUT, "x");
+    }
+  }
+
+  public static class CountBenchmark extends AggregatorBenchmark<Void> {
+    @Override
+    protected AggregatorCallStub.Builder<Void> newCallStubBuilder() {
+      return Plunger.<Void> newAggregatorCallStubBuilder(GROUP_FIELDS, FIELDS)
+          .outputFields(OUTPUT)
+          .newGroup("a")
+          .addTuple(1)
+          .addTuple(2)
+          .newGroup("b")
+          .addTuple(3);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    protected Aggregator<Void> newAggregator() {
+      return (Aggregator) new Count(OUTPUT);
+    }
+  }
+
+  public static class CountBufferBenchmark extends BufferBenchmark<Void> {
+    @Override
+    protected BufferCallStub.Builder<Void> newCallStubBuilder() {
+      return Plunger.<Void> newBufferCallStubBuilder(GROUP_FIELDS, FIELDS)
+          .outputFields(OUTPUT)
+          .newGroup("a")
+          .addTuple(1)
+          .addTuple(2)
+          .newGroup("b")
+          .addTuple(3);
+    }
+
+    @Override
+    protected Buffer<Void> newBuffer() {
+      return new CountBuffer();
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class OutputSinksTest {
+
+  private static final Fields FIELDS = new Fields("value");
+
+  @Test
+  public void retainAllCopies() {
+    OutputSink sink = OutputSinks.retainAll();
+    TupleEntry entry = new TupleEntry(FIELDS, new Tuple("a"));
+    sink.collect(entry);
+    entry.setString(FIELDS, "b");
+    sink.collect(entry);
+
+    List<TupleEntry> retained = sink.getRetained();
+    assertThat(retained.size(), is(2));
+    assertThat(retained.get(0), is(new TupleEntry(FIELDS, new Tuple("a"))));
+    assertThat(retained.get(1), is(new TupleEntry(FIELDS, new Tuple("b"))));
+
+    sink.reset();
+    assertThat(sink.getRetained().isEmpty(), is(true));
+  }
+
+  @Test
+  public void countOnly() {
+    OutputSink sink = OutputSinks.countOnly();
+    sink.collect(new TupleEntry(FIELDS, new Tuple("a")));
+    assertThat(sink.getRetained().isEmpty(), is(true));
+  }
+
+  @Test
+  public void firstN() {
+    OutputSink sink = OutputSinks.firstN(2);
+    sink.collect(new TupleEntry(FIELDS, new Tuple("a")));
+    sink.collect(new TupleEntry(FIELDS, new Tuple("b")));
+    sink.collect(new TupleEntry(FIELDS, new Tuple("c")));
+
+    List<TupleEntry> retained = sink.getRetained();
+    assertThat(retained.size(), is(2));
+    assertThat(retained.get(0), is(new TupleEntry(FIELDS, new Tuple("a"))));
+    assertThat(retained.get(1), is(new TupleEntry(FIELDS, new Tuple("b"))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void firstNNegative() {
+    OutputSinks.firstN(-1);
+  }
+
+  @Test
+  public void callback() {
+    final List<Tuple> received = new ArrayList<Tuple>();
+    OutputSink sink = OutputSinks.callback(new OutputSinks.Callback() {
+      @Override
+      public void collect(TupleEntry tupleEntry) {
+        received.add(tupleEntry.getTupleCopy());
+      }
+    });
+    sink.collect(new TupleEntry(FIELDS, new Tuple("a")));
+    sink.collect(new TupleEntry(FIELDS, new Tuple("b")));
+
+    assertThat(received.size(), is(2));
+    assertThat(received.get(1), is(new Tuple("b")));
+    assertThat(sink.getRetained().isEmpty(), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void callbackNull() {
+    OutputSinks.callback(null);
+  }
+
+}
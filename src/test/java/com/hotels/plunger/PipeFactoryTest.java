@@ -68,7 +68,7 @@ public class PipeFactoryTest {
     TupleListTap capturedTap = tapCaptor.getValue();
     assertThat(capturedTap.getSourceFields(), is(fields));
 
-    Iterator<Tuple> input = capturedTap.getInput();
+    Iterator<Tuple> input = capturedTap.getInput().iterator();
     List<Tuple> tuples = new ArrayList<Tuple>();
     while (input.hasNext()) {
       tuples.add(input.next());
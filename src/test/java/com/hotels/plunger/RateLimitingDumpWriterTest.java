@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class RateLimitingDumpWriterTest {
+
+  private static final Fields FIELDS = new Fields("A");
+
+  private final RecordingDumpWriter delegate = new RecordingDumpWriter();
+  private long nanoTime;
+  private final RateLimitingDumpWriter.Clock clock = new RateLimitingDumpWriter.Clock() {
+    @Override
+    public long nanoTime() {
+      return nanoTime;
+    }
+  };
+
+  @Test
+  public void capsRowsPerSecond() throws IOException {
+    RateLimitingDumpWriter writer = new RateLimitingDumpWriter(delegate, 2, clock);
+    for (int i = 0; i < 4; i++) {
+      writer.writeRow(new TupleEntry(FIELDS, new Tuple(i)));
+    }
+    nanoTime += TimeUnit.MILLISECONDS.toNanos(999L);
+    writer.writeRow(new TupleEntry(FIELDS, new Tuple(4)));
+    nanoTime += TimeUnit.MILLISECONDS.toNanos(1L);
+    for (int i = 5; i < 8; i++) {
+      writer.writeRow(new TupleEntry(FIELDS, new Tuple(i)));
+    }
+    writer.close();
+
+    assertThat(delegate.lines, is(Arrays.asList("row 0", "row 1", "row 5", "row 6",
+        "note 4 row(s) dropped, over the limit of 2 per second")));
+    assertThat(delegate.closed, is(true));
+  }
+
+  @Test
+  public void headerIsNotLimited() throws IOException {
+    RateLimitingDumpWriter writer = new RateLimitingDumpWriter(delegate, 1, clock);
+    writer.writeRow(new TupleEntry(FIELDS, new Tuple(0)));
+    writer.writeHeader(FIELDS);
+    writer.close();
+
+    assertThat(delegate.lines, is(Arrays.asList("row 0", "header A")));
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cascading.tuple.Fields;
+import cascading.tuple.TupleEntry;
+
+/** Records the output of a {@link DumpWriter} as lines of the form {@code "row <first value>"}. */
+class RecordingDumpWriter implements DumpWriter {
+
+  final List<String> lines = new ArrayList<String>();
+  boolean closed;
+
+  @Override
+  public void writeHeader(Fields fields) throws IOException {
+    lines.add("header " + fields.get(0));
+  }
+
+  @Override
+  public void writeRow(TupleEntry entry) throws IOException {
+    lines.add("row " + entry.getObject(0));
+  }
+
+  @Override
+  public void writeNote(String note) throws IOException {
+    lines.add("note " + note);
+  }
+
+  @Override
+  public void flush() throws IOException {
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+  }
+
+}
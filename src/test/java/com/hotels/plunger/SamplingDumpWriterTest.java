@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class SamplingDumpWriterTest {
+
+  private static final Fields FIELDS = new Fields("A");
+
+  private final RecordingDumpWriter delegate = new RecordingDumpWriter();
+
+  @Test
+  public void everyNth() throws IOException {
+    write(SamplingDumpWriter.everyNth(delegate, 3), 7);
+
+    assertThat(delegate.lines, is(Arrays.asList("header A", "row 0", "row 3", "row 6", "note sampled 3 of 7 row(s)")));
+    assertThat(delegate.closed, is(true));
+  }
+
+  @Test
+  public void everyRowIsNotNoted() throws IOException {
+    write(SamplingDumpWriter.everyNth(delegate, 1), 3);
+
+    assertThat(delegate.lines, is(Arrays.asList("header A", "row 0", "row 1", "row 2")));
+  }
+
+  @Test
+  public void bernoulliIsRepeatable() throws IOException {
+    write(SamplingDumpWriter.bernoulli(delegate, 0.1d, 42L), 10000);
+    RecordingDumpWriter other = new RecordingDumpWriter();
+    write(SamplingDumpWriter.bernoulli(other, 0.1d, 42L), 10000);
+
+    assertThat(delegate.lines, is(other.lines));
+    // Header and note, plus about 1000 rows
+    assertThat(delegate.lines.size() > 900 && delegate.lines.size() < 1100, is(true));
+  }
+
+  @Test
+  public void bernoulliNone() throws IOException {
+    write(SamplingDumpWriter.bernoulli(delegate, 0d, 42L), 100);
+
+    assertThat(delegate.lines, is(Arrays.asList("header A", "note sampled 0 of 100 row(s)")));
+  }
+
+  @Test
+  public void reservoirIsWrittenOnClose() throws IOException {
+    SamplingDumpWriter writer = SamplingDumpWriter.reservoir(delegate, 5, 1L);
+    writer.writeHeader(FIELDS);
+    for (int i = 0; i < 1000; i++) {
+      writer.writeRow(new TupleEntry(FIELDS, new Tuple(i)));
+    }
+
+    assertThat(delegate.lines.size(), is(1));
+
+    writer.close();
+
+    List<String> lines = delegate.lines;
+    assertThat(lines.size(), is(7));
+    assertThat(lines.get(6), is("note sampled 5 of 1000 row(s)"));
+    int previous = -1;
+    for (String line : lines.subList(1, 6)) {
+      int value = Integer.parseInt(line.substring("row ".length()));
+      // In arrival order
+      assertThat(value > previous, is(true));
+      previous = value;
+    }
+  }
+
+  @Test
+  public void reservoirIsUniform() throws IOException {
+    int[] selected = new int[100];
+    for (long seed = 0L; seed < 1000L; seed++) {
+      RecordingDumpWriter recording = new RecordingDumpWriter();
+      SamplingDumpWriter writer = SamplingDumpWriter.reservoir(recording, 10, seed);
+      for (int i = 0; i < 100; i++) {
+        writer.writeRow(new TupleEntry(FIELDS, new Tuple(i)));
+      }
+      writer.close();
+      for (String line : recording.lines.subList(0, 10)) {
+        selected[Integer.parseInt(line.substring("row ".length()))]++;
+      }
+    }
+    // Each row is expected in 100 of the 1000 samples
+    for (int count : selected) {
+      assertThat(count > 50 && count < 150, is(true));
+    }
+  }
+
+  @Test
+  public void reservoirHoldsCopies() throws IOException {
+    SamplingDumpWriter writer = SamplingDumpWriter.reservoir(delegate, 5, 1L);
+    TupleEntry entry = new TupleEntry(FIELDS, Tuple.size(1));
+    for (int i = 0; i < 3; i++) {
+      entry.setObject(0, i);
+      writer.writeRow(entry);
+    }
+    writer.close();
+
+    assertThat(delegate.lines, is(Arrays.asList("row 0", "row 1", "row 2")));
+  }
+
+  private static void write(SamplingDumpWriter writer, int rows) throws IOException {
+    writer.writeHeader(FIELDS);
+    for (int i = 0; i < rows; i++) {
+      writer.writeRow(new TupleEntry(FIELDS, new Tuple(i)));
+    }
+    writer.close();
+  }
+
+}
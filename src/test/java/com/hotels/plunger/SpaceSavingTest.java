@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class SpaceSavingTest {
+
+  @Test
+  public void exactWithinCapacity() {
+    SpaceSaving spaceSaving = new SpaceSaving(10);
+    add(spaceSaving, "a", 5);
+    add(spaceSaving, "b", 3);
+    add(spaceSaving, "c", 7);
+    spaceSaving.add(null);
+
+    List<SpaceSaving.Counter> top = spaceSaving.top(2);
+    assertThat(top.size(), is(2));
+    assertThat(top.get(0).getValue(), is((Object) "c"));
+    assertThat(top.get(0).getCount(), is(7L));
+    assertThat(top.get(0).getError(), is(0L));
+    assertThat(top.get(1).getValue(), is((Object) "a"));
+    assertThat(top.get(1).getCount(), is(5L));
+  }
+
+  @Test
+  public void heavyHitterSurvivesEviction() {
+    SpaceSaving spaceSaving = new SpaceSaving(5);
+    for (int i = 0; i < 10000; i++) {
+      spaceSaving.add(i % 3 == 0 ? "hot" : "cold-" + i);
+    }
+
+    SpaceSaving.Counter top = spaceSaving.top(1).get(0);
+    assertThat(top.getValue(), is((Object) "hot"));
+    assertThat(top.getCount() >= 3334L, is(true));
+    assertThat(top.getCount() - top.getError() <= 3334L, is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidCapacity() {
+    new SpaceSaving(0);
+  }
+
+  private static void add(SpaceSaving spaceSaving, Object value, int times) {
+    for (int i = 0; i < times; i++) {
+      spaceSaving.add(value);
+    }
+  }
+
+}
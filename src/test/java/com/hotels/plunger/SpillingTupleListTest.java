@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+public class SpillingTupleListTest {
+
+  private static final Fields FIELDS = new Fields("A", "B");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void insertionOrder() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 2, null, temporaryFolder.getRoot())) {
+      list.add(new Tuple(3, "c"));
+      list.add(new Tuple(1, "a"));
+      list.add(new Tuple(2, "b"));
+      list.add(new Tuple(null, "d"));
+      list.add(new Tuple(0, "e"));
+
+      assertThat(list.size(), is(5));
+      assertThat(list.getSpilledRunCount(), is(2));
+      assertThat(temporaryFolder.getRoot().list().length, is(2));
+      assertThat(new ArrayList<Tuple>(list), is(Arrays.asList(new Tuple(3, "c"), new Tuple(1, "a"), new Tuple(2, "b"),
+          new Tuple(null, "d"), new Tuple(0, "e"))));
+    }
+  }
+
+  @Test
+  public void sortedRunsAreMerged() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 2, new Fields("A"), temporaryFolder.getRoot())) {
+      list.add(new Tuple(3, "c"));
+      list.add(new Tuple(1, "a"));
+      list.add(new Tuple(2, "b"));
+      list.add(new Tuple(1, "d"));
+      list.add(new Tuple(null, "e"));
+
+      assertThat(new ArrayList<Tuple>(list), is(Arrays.asList(new Tuple(null, "e"), new Tuple(1, "a"), new Tuple(1,
+          "d"), new Tuple(2, "b"), new Tuple(3, "c"))));
+    }
+  }
+
+  @Test
+  public void iterateRepeatedly() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot())) {
+      list.add(new Tuple(1, "a"));
+      list.add(new Tuple(2, "b"));
+
+      assertThat(new ArrayList<Tuple>(list), is(new ArrayList<Tuple>(list)));
+      assertThat(list.get(1), is(new Tuple(2, "b")));
+    }
+  }
+
+  @Test
+  public void equalsList() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot())) {
+      list.add(new Tuple(1, "a"));
+      list.add(new Tuple(2, "b"));
+
+      List<Tuple> expected = Arrays.asList(new Tuple(1, "a"), new Tuple(2, "b"));
+      assertThat(list.equals(expected), is(true));
+      assertThat(list.hashCode(), is(expected.hashCode()));
+    }
+  }
+
+  @Test
+  public void closeDeletesRuns() throws IOException {
+    SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot());
+    list.add(new Tuple(1, "a"));
+    list.add(new Tuple(2, "b"));
+    // Leave an iterator open part way through a run
+    Iterator<Tuple> iterator = list.iterator();
+    iterator.next();
+    list.close();
+
+    assertThat(temporaryFolder.getRoot().list().length, is(0));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void addAfterClose() throws IOException {
+    SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot());
+    list.close();
+    list.add(new Tuple(1, "a"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void iterateAfterClose() throws IOException {
+    SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot());
+    list.close();
+    list.iterator();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void previousNotSupported() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot())) {
+      list.add(new Tuple(1, "a"));
+      list.listIterator(1).previous();
+    }
+  }
+
+  @Test
+  public void completedIterationsReleaseRuns() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, new Fields("A"), temporaryFolder.getRoot())) {
+      list.add(new Tuple(2, "b"));
+      list.add(new Tuple(1, "a"));
+      new ArrayList<Tuple>(list);
+
+      assertThat(list.getOpenIteratorCount(), is(0));
+    }
+  }
+
+  @Test
+  public void partialIterationsAreCapped() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, new Fields("A"), temporaryFolder.getRoot())) {
+      list.add(new Tuple(2, "b"));
+      list.add(new Tuple(1, "a"));
+      for (int i = 0; i < SpillingTupleList.MAX_OPEN_ITERATORS * 2; i++) {
+        list.iterator().next();
+        assertThat(list.contains(new Tuple(1, "a")), is(true));
+      }
+
+      assertThat(list.getOpenIteratorCount(), is(SpillingTupleList.MAX_OPEN_ITERATORS));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void oldestIteratorIsClosed() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, null, temporaryFolder.getRoot())) {
+      list.add(new Tuple(1, "a"));
+      list.add(new Tuple(2, "b"));
+      Iterator<Tuple> oldest = list.iterator();
+      oldest.next();
+      for (int i = 0; i < SpillingTupleList.MAX_OPEN_ITERATORS; i++) {
+        list.iterator().next();
+      }
+      oldest.next();
+    }
+  }
+
+  @Test
+  public void getContinuesFromPreviousRead() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 2, new Fields("A"), temporaryFolder.getRoot())) {
+      for (int i = 9; i >= 0; i--) {
+        list.add(new Tuple(i, "x"));
+      }
+      for (int i = 0; i < 10; i++) {
+        assertThat(list.get(i), is(new Tuple(i, "x")));
+        assertThat(list.getOpenIteratorCount() <= 1, is(true));
+      }
+      assertThat(list.getOpenIteratorCount(), is(0));
+      assertThat(list.get(3), is(new Tuple(3, "x")));
+      assertThat(list.get(1), is(new Tuple(1, "x")));
+    }
+  }
+
+  @Test
+  public void getAfterAdd() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 2, new Fields("A"), temporaryFolder.getRoot())) {
+      list.add(new Tuple(2, "b"));
+      assertThat(list.get(0), is(new Tuple(2, "b")));
+      list.add(new Tuple(1, "a"));
+
+      assertThat(list.get(0), is(new Tuple(1, "a")));
+      assertThat(list.get(1), is(new Tuple(2, "b")));
+    }
+  }
+
+  @Test
+  public void listIteratorSkipsRunsInInsertionOrder() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 2, null, temporaryFolder.getRoot())) {
+      for (int i = 0; i < 7; i++) {
+        list.add(new Tuple(i, "x"));
+      }
+      Iterator<Tuple> iterator = list.listIterator(5);
+
+      assertThat(iterator.next(), is(new Tuple(5, "x")));
+      assertThat(iterator.next(), is(new Tuple(6, "x")));
+      assertThat(iterator.hasNext(), is(false));
+    }
+  }
+
+  @Test
+  public void unmodifiableView() throws IOException {
+    try (SpillingTupleList list = new SpillingTupleList(FIELDS, 1, new Fields("A"), temporaryFolder.getRoot())) {
+      list.add(new Tuple(2, "b"));
+      list.add(new Tuple(1, "a"));
+      List<Tuple> view = list.unmodifiableView();
+
+      assertThat(view, is(Arrays.asList(new Tuple(1, "a"), new Tuple(2, "b"))));
+      assertThat(view.get(1), is(new Tuple(2, "b")));
+      try {
+        view.add(new Tuple(3, "c"));
+        fail();
+      } catch (UnsupportedOperationException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidThreshold() {
+    new SpillingTupleList(FIELDS, 0, null, (File) null);
+  }
+
+}
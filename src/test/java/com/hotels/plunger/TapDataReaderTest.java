@@ -25,7 +25,9 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.Rule;
@@ -35,6 +37,7 @@ import org.junit.rules.TemporaryFolder;
 import cascading.tap.partition.DelimitedPartition;
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
 
 public class TapDataReaderTest {
 
@@ -112,6 +115,23 @@ public class TapDataReaderTest {
     assertThat(actual, is(expected));
   }
 
+  @Test
+  public void readHadoopWithConfiguration() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    File tsvFile = new File(tsvFolder, "part-00000");
+
+    FileUtils.writeStringToFile(tsvFile, "1\thello\tX\n2\taloha\tY\n", Charset.forName("UTF-8"));
+
+    cascading.tap.hadoop.Hfs hfs = new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(fields),
+        tsvFolder.getAbsolutePath());
+
+    org.apache.hadoop.conf.Configuration configuration = new org.apache.hadoop.conf.Configuration(false);
+    configuration.set("io.file.buffer.size", "8192");
+    Data actual = new TapDataReader(hfs, JobConfFactory.DEFAULT.withOverrides(configuration)).read();
+
+    assertThat(actual, is(expected));
+  }
+
   @Test
   public void readMultiSource() throws IOException {
     File tsvFolder = temporaryFolder.newFolder("data");
@@ -182,4 +202,155 @@ public class TapDataReaderTest {
     verify(iterator).close();
   }
 
+  @Test
+  public void streamLocal() throws IOException {
+    File tsvFile = temporaryFolder.newFile("data.tsv");
+    FileUtils.writeStringToFile(tsvFile, "1\thello\tX\n2\taloha\tY\n", Charset.forName("UTF-8"));
+    cascading.tap.local.FileTap fileTap = new cascading.tap.local.FileTap(new cascading.scheme.local.TextDelimited(
+        fields), tsvFile.getAbsolutePath());
+
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    try (TapDataStream stream = new TapDataReader(fileTap).stream()) {
+      for (TupleEntry entry : stream) {
+        tuples.add(entry.getTupleCopy());
+      }
+    }
+    assertThat(new Data(fields, tuples), is(expected));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void streamTupleEntryIteratorIsClosed() throws IOException {
+    cascading.tap.hadoop.Hfs hfs = mock(cascading.tap.hadoop.Hfs.class);
+    cascading.tuple.TupleEntryIterator iterator = mock(cascading.tuple.TupleEntryIterator.class);
+    when(hfs.openForRead(any(cascading.flow.FlowProcess.class))).thenReturn(iterator);
+    new TapDataReader(hfs).stream().close();
+    verify(iterator).close();
+  }
+
+  @Test
+  public void readHadoopParallel() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    FileUtils.writeStringToFile(new File(tsvFolder, "part-00000"), "1\thello\tX\n", Charset.forName("UTF-8"));
+    FileUtils.writeStringToFile(new File(tsvFolder, "part-00001"), "2\taloha\tY\n", Charset.forName("UTF-8"));
+    new File(tsvFolder, "_SUCCESS").createNewFile();
+
+    cascading.tap.hadoop.Hfs hfs = new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(fields),
+        tsvFolder.getAbsolutePath());
+
+    Data actual = new TapDataReader(hfs).read(2, false);
+
+    assertThat(actual.orderBy(fields).asTupleEntryList(), is(expected.orderBy(fields).asTupleEntryList()));
+  }
+
+  @Test
+  public void readHadoopParallelPreservesOrder() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    for (int i = 0; i < 8; i++) {
+      StringBuilder lines = new StringBuilder();
+      for (int j = 0; j < 100; j++) {
+        lines.append(i * 100 + j).append("\thello\tX\n");
+      }
+      FileUtils.writeStringToFile(new File(tsvFolder, "part-0000" + i), lines.toString(), Charset.forName("UTF-8"));
+    }
+
+    cascading.tap.hadoop.Hfs hfs = new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(fields),
+        tsvFolder.getAbsolutePath());
+
+    Data sequential = new TapDataReader(hfs).read();
+    Data parallel = new TapDataReader(hfs).read(4, true);
+
+    assertThat(parallel.getTuples().size(), is(800));
+    assertThat(parallel, is(sequential));
+  }
+
+  @Test
+  public void readMultiSourceParallel() throws IOException {
+    File tsvFolderX = temporaryFolder.newFolder("X");
+    File tsvFolderY = temporaryFolder.newFolder("Y");
+    FileUtils.writeStringToFile(new File(tsvFolderX, "part-00000"), "1\thello\tX\n", Charset.forName("UTF-8"));
+    FileUtils.writeStringToFile(new File(tsvFolderY, "part-00000"), "2\taloha\tY\n", Charset.forName("UTF-8"));
+
+    cascading.tap.MultiSourceTap<?, ?, ?> multiTap = new cascading.tap.MultiSourceTap<>(new cascading.tap.hadoop.Hfs(
+        new cascading.scheme.hadoop.TextDelimited(fields), tsvFolderX.getAbsolutePath()), new cascading.tap.hadoop.Hfs(
+        new cascading.scheme.hadoop.TextDelimited(fields), tsvFolderY.getAbsolutePath()));
+
+    Data actual = new TapDataReader(multiTap).read(2, true);
+
+    assertThat(actual, is(expected));
+  }
+
+  @Test
+  public void readHadoopPartitionsParallel() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    new File(tsvFolder, ".hidden").createNewFile();
+    File tsvFileX = new File(new File(tsvFolder, "X"), "part-00000-00000");
+    File tsvFileY = new File(new File(tsvFolder, "Y"), "part-00000-00000");
+
+    FileUtils.writeStringToFile(tsvFileX, "1\thello\n", Charset.forName("UTF-8"));
+    FileUtils.writeStringToFile(tsvFileY, "2\taloha\n", Charset.forName("UTF-8"));
+
+    cascading.tap.hadoop.PartitionTap partitionTap = new cascading.tap.hadoop.PartitionTap(
+        new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(valueFields),
+            tsvFolder.getAbsolutePath()), new DelimitedPartition(partitionFields));
+
+    Data actual = new TapDataReader(partitionTap).read(2, false);
+
+    assertThat(actual.orderBy(fields).asTupleEntryList(), is(expected.orderBy(fields).asTupleEntryList()));
+  }
+
+  @Test
+  public void readHadoopPartitionsParallelWithSourceFilter() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    File tsvFileX = new File(new File(tsvFolder, "X"), "part-00000-00000");
+    File tsvFileY = new File(new File(tsvFolder, "Y"), "part-00000-00000");
+
+    FileUtils.writeStringToFile(tsvFileX, "1\thello\n", Charset.forName("UTF-8"));
+    FileUtils.writeStringToFile(tsvFileY, "2\taloha\n", Charset.forName("UTF-8"));
+
+    cascading.tap.hadoop.PartitionTap partitionTap = new cascading.tap.hadoop.PartitionTap(
+        new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(valueFields),
+            tsvFolder.getAbsolutePath()), new DelimitedPartition(partitionFields));
+    partitionTap.addSourcePartitionFilter(partitionFields, new cascading.operation.regex.RegexFilter("X"));
+
+    Data actual = new TapDataReader(partitionTap).read(2, true);
+
+    assertThat(actual.asTupleList(), is(Arrays.asList(new Tuple(1, "hello", "X"))));
+    assertThat(actual, is(new TapDataReader(partitionTap).read()));
+  }
+
+  @Test
+  public void readHadoopParallelWithConfiguration() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    FileUtils.writeStringToFile(new File(tsvFolder, "part-00000"), "1\thello\tX\n2\taloha\tY\n",
+        Charset.forName("UTF-8"));
+
+    cascading.tap.hadoop.Hfs hfs = new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(fields),
+        tsvFolder.getAbsolutePath());
+
+    org.apache.hadoop.conf.Configuration configuration = new org.apache.hadoop.conf.Configuration(false);
+    configuration.set("io.file.buffer.size", "8192");
+    Data actual = Plunger.readDataFromTap(hfs, configuration, 2, true);
+
+    assertThat(actual, is(expected));
+  }
+
+  @Test
+  public void readLocalParallel() throws IOException {
+    File tsvFile = temporaryFolder.newFile("data.tsv");
+    FileUtils.writeStringToFile(tsvFile, "1\thello\tX\n2\taloha\tY\n", Charset.forName("UTF-8"));
+
+    cascading.tap.local.FileTap fileTap = new cascading.tap.local.FileTap(new cascading.scheme.local.TextDelimited(
+        fields), tsvFile.getAbsolutePath());
+
+    Data actual = new TapDataReader(fileTap).read(4, true);
+
+    assertThat(actual, is(expected));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void readParallelInvalidThreads() throws IOException {
+    new TapDataReader(new UnsupportedTap()).read(0, true);
+  }
+
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryIterator;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TapDataStreamTest {
+
+  private static final Fields FIELDS = new Fields("A");
+
+  @Mock
+  private TupleEntryIterator mockIterator;
+
+  @Test
+  public void iterate() throws IOException {
+    TupleEntryIterator iterator = new ListTupleEntryIterator(FIELDS, Arrays.asList(new Tuple(1), new Tuple(2))
+        .iterator());
+    try (TapDataStream stream = new TapDataStream(FIELDS, iterator)) {
+      assertThat(stream.getFields(), is(FIELDS));
+      Iterator<TupleEntry> entries = stream.iterator();
+      assertThat(entries.next().getTuple(), is(new Tuple(1)));
+      assertThat(entries.next().getTuple(), is(new Tuple(2)));
+      assertThat(entries.hasNext(), is(false));
+    }
+  }
+
+  @Test
+  public void closedWhenExhausted() throws IOException {
+    when(mockIterator.hasNext()).thenReturn(false);
+    TapDataStream stream = new TapDataStream(FIELDS, mockIterator);
+    assertThat(stream.iterator().hasNext(), is(false));
+    verify(mockIterator).close();
+  }
+
+  @Test
+  public void closeOnlyOnce() throws IOException {
+    when(mockIterator.hasNext()).thenReturn(false);
+    TapDataStream stream = new TapDataStream(FIELDS, mockIterator);
+    stream.iterator().hasNext();
+    stream.close();
+    stream.close();
+    verify(mockIterator, times(1)).close();
+  }
+
+  @Test
+  public void noElementsAfterClose() throws IOException {
+    TapDataStream stream = new TapDataStream(FIELDS, mockIterator);
+    stream.close();
+    assertThat(stream.iterator().hasNext(), is(false));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void iterateOnlyOnce() {
+    TapDataStream stream = new TapDataStream(FIELDS, mockIterator);
+    stream.iterator();
+    stream.iterator();
+  }
+
+}
@@ -141,6 +141,48 @@ public class TapDataWriterTest {
     assertThat(written2, is("1\thello\n2\tworld\n"));
   }
 
+  @Test
+  public void writeHadoopPartitionInParallel() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    cascading.tap.hadoop.PartitionTap partitionTap = new cascading.tap.hadoop.PartitionTap(
+        new cascading.tap.hadoop.Hfs(new cascading.scheme.hadoop.TextDelimited(valueFields),
+            tsvFolder.getAbsolutePath()), new DelimitedPartition(partitionFields));
+
+    Data data = new Data(fields, Arrays.asList(new Tuple("X", 1, "hello"), new Tuple("Y", 2, "world"), new Tuple("X",
+        3, "again"), new Tuple("Z", 4, "aloha")));
+    Tap<?, ?, ?> returnedTap = new TapDataWriter(data).withParallelPartitionWrites(2).toTap(partitionTap);
+
+    assertThat((cascading.tap.hadoop.PartitionTap) returnedTap, is(partitionTap));
+
+    File tsvFileX = new File(new File(tsvFolder, "X"), "part-00000-00000");
+    assertThat(FileUtils.readFileToString(tsvFileX, Charset.forName("UTF-8")), is("1\thello\n3\tagain\n"));
+
+    File tsvFileY = new File(new File(tsvFolder, "Y"), "part-00000-00000");
+    assertThat(FileUtils.readFileToString(tsvFileY, Charset.forName("UTF-8")), is("2\tworld\n"));
+
+    File tsvFileZ = new File(new File(tsvFolder, "Z"), "part-00000-00000");
+    assertThat(FileUtils.readFileToString(tsvFileZ, Charset.forName("UTF-8")), is("4\taloha\n"));
+
+    assertThat(new File(tsvFolder, Hadoop18TapUtil.TEMPORARY_PATH).exists(), is(false));
+  }
+
+  @Test
+  public void writeLocalPartitionIgnoresParallelPartitionWrites() throws IOException {
+    File tsvFolder = temporaryFolder.newFolder("data");
+    cascading.tap.local.PartitionTap partitionTap = new cascading.tap.local.PartitionTap(
+        new cascading.tap.local.FileTap(new cascading.scheme.local.TextDelimited(valueFields),
+            tsvFolder.getAbsolutePath()), new DelimitedPartition(partitionFields));
+    new TapDataWriter(data).withParallelPartitionWrites(2).toTap(partitionTap);
+
+    assertThat(FileUtils.readFileToString(new File(tsvFolder, "X"), Charset.forName("UTF-8")), is("1\thello\n"));
+    assertThat(FileUtils.readFileToString(new File(tsvFolder, "Y"), Charset.forName("UTF-8")), is("2\tworld\n"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidMaxOpenWriters() {
+    new TapDataWriter(data).withParallelPartitionWrites(0);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void unsupportedTap() throws IOException {
     new TapDataWriter(data).toTap(new UnsupportedTap());
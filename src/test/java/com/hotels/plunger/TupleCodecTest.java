@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.Test;
+
+import cascading.tuple.Tuple;
+
+public class TupleCodecTest {
+
+  @Test
+  public void roundTrip() throws IOException {
+    Tuple tuple = new Tuple(null, "h\u00e9llo", 1, 2L, 3.0d, true, 4.0f, (short) 5, (byte) 6, 'c', new Tuple("nested",
+        7), new BigDecimal("8.9"), new Date(10L));
+
+    assertThat(roundTrip(tuple), is(tuple));
+  }
+
+  @Test
+  public void emptyTuple() throws IOException {
+    assertThat(roundTrip(new Tuple()), is(new Tuple()));
+  }
+
+  @Test
+  public void varInt() throws IOException {
+    for (int value : new int[] { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE }) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      TupleCodec.writeVarInt(new DataOutputStream(bytes), value);
+      int read = TupleCodec.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      assertThat(read, is(value));
+    }
+  }
+
+  @Test
+  public void smallValuesAreCompact() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TupleCodec.writeVarInt(new DataOutputStream(bytes), 127);
+    assertThat(bytes.size(), is(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeVarInt() throws IOException {
+    TupleCodec.writeVarInt(new DataOutputStream(new ByteArrayOutputStream()), -1);
+  }
+
+  private static Tuple roundTrip(Tuple tuple) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TupleCodec.writeTuple(new DataOutputStream(bytes), tuple);
+    return TupleCodec.readTuple(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+}
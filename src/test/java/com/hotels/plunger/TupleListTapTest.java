@@ -74,4 +74,24 @@ public class TupleListTapTest {
     assertThat(tap.getIdentifier().startsWith(TupleListTap.class.getSimpleName()), is(true));
   }
 
+  @Test
+  public void openForReadRepeatedly() throws IOException {
+    for (int i = 0; i < 2; i++) {
+      TupleEntryIterator iterator = tap.openForRead(null, null);
+      assertThat(iterator.next(), is(new TupleEntry(FIELDS, TUPLE_1)));
+      assertThat(iterator.next(), is(new TupleEntry(FIELDS, TUPLE_2)));
+      assertThat(iterator.hasNext(), is(false));
+    }
+  }
+
+  @Test
+  public void openForReadConcurrently() throws IOException {
+    TupleEntryIterator first = tap.openForRead(null, null);
+    TupleEntryIterator second = tap.openForRead(null, null);
+    assertThat(first.next(), is(new TupleEntry(FIELDS, TUPLE_1)));
+    assertThat(second.next(), is(new TupleEntry(FIELDS, TUPLE_1)));
+    assertThat(first.next(), is(new TupleEntry(FIELDS, TUPLE_2)));
+    assertThat(second.next(), is(new TupleEntry(FIELDS, TUPLE_2)));
+  }
+
 }
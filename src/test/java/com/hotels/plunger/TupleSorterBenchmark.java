@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Compares the {@link TupleSorter} with a {@link Collections#sort(List, java.util.Comparator)} using a
+ * {@link TupleComparator}. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.hotels.plunger.TupleSorterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TupleSorterBenchmark {
+
+  private static final Fields FIELDS = new Fields("id", "name");
+
+  @Param({ "10000", "1000000" })
+  private int size;
+
+  @Param({ "id", "name" })
+  private String sortField;
+
+  private List<Tuple> tuples;
+  private Fields sortFields;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    tuples = new ArrayList<Tuple>(size);
+    for (int i = 0; i < size; i++) {
+      tuples.add(new Tuple(random.nextInt(), "name-" + random.nextInt(size)));
+    }
+    sortFields = new Fields(sortField);
+  }
+
+  @Benchmark
+  public List<Tuple> comparator() {
+    List<Tuple> sorted = new ArrayList<Tuple>(tuples);
+    Collections.sort(sorted, new TupleComparator(FIELDS, sortFields));
+    return sorted;
+  }
+
+  @Benchmark
+  public Tuple[] sorter() {
+    return new TupleSorter(FIELDS, sortFields, TupleSorter.DEFAULT_PARALLEL_SORT_THRESHOLD).sort(tuples);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TupleSorterBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
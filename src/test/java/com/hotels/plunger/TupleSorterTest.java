@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2014-2019 Expedia Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.plunger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+public class TupleSorterTest {
+
+  private static final Fields FIELDS = new Fields("A", "B");
+  private static final Fields SORT_A = new Fields("A");
+
+  @Test
+  public void integers() {
+    Random random = new Random(1);
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 1000; i++) {
+      tuples.add(new Tuple(random.nextInt(2) == 0 ? random.nextInt(20) - 10 : random.nextInt(), i));
+    }
+    assertSortedLikeComparator(tuples, SORT_A);
+  }
+
+  @Test
+  public void longsWithNulls() {
+    Random random = new Random(2);
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 1000; i++) {
+      Long value = random.nextInt(10) == 0 ? null : random.nextLong();
+      tuples.add(new Tuple(value, i));
+    }
+    tuples.add(new Tuple(Long.MIN_VALUE, -1));
+    tuples.add(new Tuple(Long.MAX_VALUE, -2));
+    assertSortedLikeComparator(tuples, SORT_A);
+  }
+
+  @Test
+  public void doubles() {
+    Random random = new Random(3);
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 1000; i++) {
+      tuples.add(new Tuple((random.nextDouble() - 0.5d) * 1000, i));
+    }
+    tuples.add(new Tuple(-0.0d, -1));
+    tuples.add(new Tuple(0.0d, -2));
+    tuples.add(new Tuple(Double.NaN, -3));
+    tuples.add(new Tuple(Double.NEGATIVE_INFINITY, -4));
+    tuples.add(new Tuple(Double.POSITIVE_INFINITY, -5));
+    tuples.add(new Tuple((Object) null, -6));
+    assertSortedLikeComparator(tuples, SORT_A);
+  }
+
+  @Test
+  public void isStable() {
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 100; i++) {
+      tuples.add(new Tuple(i % 3, i));
+    }
+    assertSortedLikeComparator(tuples, SORT_A);
+  }
+
+  @Test
+  public void allNull() {
+    List<Tuple> tuples = Arrays.asList(new Tuple(null, 1), new Tuple(null, 2));
+    assertSortedLikeComparator(tuples, SORT_A);
+  }
+
+  @Test
+  public void strings() {
+    List<Tuple> tuples = Arrays.asList(new Tuple("b", 1), new Tuple(null, 2), new Tuple("a", 3), new Tuple("b", 0));
+    assertSortedLikeComparator(tuples, SORT_A);
+  }
+
+  @Test
+  public void multipleFields() {
+    Random random = new Random(4);
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 1000; i++) {
+      tuples.add(new Tuple(random.nextInt(5), random.nextInt(5)));
+    }
+    assertSortedLikeComparator(tuples, new Fields("B", "A"));
+  }
+
+  @Test
+  public void parallel() {
+    Random random = new Random(5);
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 10000; i++) {
+      tuples.add(new Tuple(random.nextInt(100), "v" + random.nextInt(100)));
+    }
+    List<Tuple> expected = new ArrayList<Tuple>(tuples);
+    Collections.sort(expected, new TupleComparator(FIELDS, new Fields("B", "A")));
+
+    assertThat(Arrays.asList(new TupleSorter(FIELDS, new Fields("B", "A"), 1).sort(tuples)), is(expected));
+  }
+
+  @Test
+  public void parallelIsStable() {
+    Random random = new Random(6);
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < TupleSorter.MIN_PARALLEL_SORT_RANGE * 6; i++) {
+      tuples.add(new Tuple(i, "v" + random.nextInt(10)));
+    }
+    List<Tuple> expected = new ArrayList<Tuple>(tuples);
+    Collections.sort(expected, new TupleComparator(FIELDS, new Fields("B")));
+
+    assertThat(Arrays.asList(new TupleSorter(FIELDS, new Fields("B"), 1).sort(tuples)), is(expected));
+  }
+
+  @Test
+  public void emptyAndSingle() {
+    TupleSorter sorter = new TupleSorter(FIELDS, SORT_A, 10);
+    assertThat(sorter.sort(new ArrayList<Tuple>()).length, is(0));
+    assertThat(sorter.sort(Arrays.asList(new Tuple(1, 2)))[0], is(new Tuple(1, 2)));
+  }
+
+  @Test
+  public void radixSort() {
+    long[] keys = new long[] { 3L, 1L, 0xFF00L, 2L, 1L };
+    int[] index = new int[] { 0, 1, 2, 3, 4 };
+    TupleSorter.radixSort(keys, index);
+    assertThat(Arrays.toString(keys), is(Arrays.toString(new long[] { 1L, 1L, 2L, 3L, 0xFF00L })));
+    assertThat(Arrays.toString(index), is(Arrays.toString(new int[] { 1, 4, 3, 0, 2 })));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidThreshold() {
+    new TupleSorter(FIELDS, SORT_A, 0);
+  }
+
+  private static void assertSortedLikeComparator(List<Tuple> tuples, Fields sortFields) {
+    List<Tuple> expected = new ArrayList<Tuple>(tuples);
+    Collections.sort(expected, new TupleComparator(FIELDS, sortFields));
+    Tuple[] actual = new TupleSorter(FIELDS, sortFields, TupleSorter.DEFAULT_PARALLEL_SORT_THRESHOLD).sort(tuples);
+    assertThat(Arrays.asList(actual), is(expected));
+  }
+
+}
@@ -15,16 +15,22 @@
  */
 package com.hotels.plunger.asserts;
 
+import static com.hotels.plunger.asserts.PlungerAssert.dataIgnoringOrder;
 import static com.hotels.plunger.asserts.PlungerAssert.serializable;
 import static com.hotels.plunger.asserts.PlungerAssert.tupleEntry;
 import static com.hotels.plunger.asserts.PlungerAssert.tupleEntryList;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.util.List;
 
+import org.hamcrest.StringDescription;
 import org.junit.Test;
 
+import com.hotels.plunger.Data;
 import com.hotels.plunger.DataBuilder;
 import com.hotels.plunger.asserts.PlungerAssert;
 
@@ -112,6 +118,82 @@ public class PlungerAssertTest {
     assertThat(actual, is(tupleEntryList(expected)));
   }
 
+  @Test
+  public void tupleEntryListMismatchesBeyondLimitAreSummarized() {
+    DataBuilder actualBuilder = new DataBuilder(FIELDS_AB_STRING);
+    DataBuilder expectedBuilder = new DataBuilder(FIELDS_AB_STRING);
+    for (int i = 0; i < 5; i++) {
+      actualBuilder.addTuple("a" + i, "b");
+      expectedBuilder.addTuple("x" + i, i % 2 == 0 ? "b" : "y");
+    }
+    List<TupleEntry> actual = actualBuilder.build().asTupleEntryList();
+    TupleEntryListMatcher matcher = tupleEntryList(expectedBuilder.build().asTupleEntryList(), 2);
+
+    StringDescription description = new StringDescription();
+    assertThat(matcher.matches(actual), is(false));
+    matcher.describeMismatch(actual, description);
+
+    String text = description.toString();
+    assertThat(text, containsString("Items at index 0 do not match"));
+    assertThat(text, containsString("Items at index 1 do not match"));
+    assertThat(text, not(containsString("Items at index 2")));
+    assertThat(text, containsString("... and 3 more mismatching items"));
+    assertThat(text, containsString("5 mismatching items, mismatches by field: A=5, B=2"));
+  }
+
+  @Test
+  public void tupleEntryListFieldsMismatchIsSummarized() {
+    List<TupleEntry> actual = new DataBuilder(FIELDS_A_STRING).addTuple("a").build().asTupleEntryList();
+    List<TupleEntry> expected = new DataBuilder(FIELDS_AB_STRING).addTuple("a", "b").build().asTupleEntryList();
+    TupleEntryListMatcher matcher = tupleEntryList(expected, 0);
+
+    StringDescription description = new StringDescription();
+    assertThat(matcher.matches(actual), is(false));
+    matcher.describeMismatch(actual, description);
+
+    assertThat(description.toString(), not(containsString("Items at index")));
+    assertThat(description.toString(), containsString("mismatches by field: <fields>=1"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void tupleEntryListNegativeLimit() {
+    tupleEntryList(new DataBuilder(FIELDS_A_STRING).build().asTupleEntryList(), -1);
+  }
+
+  @Test(expected = AssertionError.class)
+  public void dataIgnoringOrderValuesWithEqualHashCodes() {
+    Data actual = new DataBuilder(new Fields("A")).addTuple(0L).build();
+    Data expected = new DataBuilder(new Fields("A")).addTuple(-1L).build();
+    assertThat(actual, is(dataIgnoringOrder(expected)));
+  }
+
+  @Test
+  public void assertThatDataIgnoringOrder() {
+    Data actual = new DataBuilder(FIELDS_AB_STRING).addTuple("a", "b").addTuple("c", "d").build();
+    Data expected = new DataBuilder(FIELDS_AB_STRING).addTuple("c", "d").addTuple("a", "b").build();
+    assertThat(actual, is(dataIgnoringOrder(expected)));
+  }
+
+  @Test
+  public void assertThatDataIgnoringOrderDescribesDifferences() {
+    Data actual = new DataBuilder(FIELDS_AB_STRING).addTuple("a", "b").build();
+    Data expected = new DataBuilder(FIELDS_AB_STRING).addTuple("c", "d").build();
+    try {
+      assertThat(actual, is(dataIgnoringOrder(expected)));
+      fail();
+    } catch (AssertionError e) {
+      assertThat(e.getMessage(), containsString("Missing 1 tuple(s)"));
+      assertThat(e.getMessage(), containsString("Unexpected 1 tuple(s)"));
+    }
+  }
+
+  @Test(expected = AssertionError.class)
+  public void assertThatDataIgnoringOrderDifferentFields() {
+    Data actual = new DataBuilder(FIELDS_A_STRING).addTuple("a").build();
+    Data expected = new DataBuilder(FIELDS_AB_STRING).addTuple("a", "b").build();
+    assertThat(actual, is(dataIgnoringOrder(expected)));
+  }
+
   private static TupleEntry entry(Fields fields, Object... values) {
     return new TupleEntry(fields, new Tuple(values));
   }